@@ -1,8 +1,10 @@
 package de.tudresden.inf.lat.uel.core.processor;
 
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -20,8 +22,12 @@ import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
 
 import de.tudresden.inf.lat.uel.core.renderer.OWLRenderer;
 import de.tudresden.inf.lat.uel.core.renderer.StringRenderer;
+import de.tudresden.inf.lat.uel.sat.solver.EncodingSizeEstimate;
+import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.api.AtomManager;
 import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Disequation;
+import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.impl.AtomManagerImpl;
@@ -36,6 +42,24 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
  */
 public class UelModel {
 
+	/**
+	 * The negative axioms that were added to the goal by one call of
+	 * {@link UelModel#addNegativeAxioms(Set)}.
+	 */
+	private static class Refinement {
+
+		private final Set<OWLAxiom> axioms;
+		private final Set<Disequation> disequations;
+		private final Set<Dissubsumption> dissubsumptions;
+
+		Refinement(Set<OWLAxiom> axioms, Set<Dissubsumption> dissubsumptions, Set<Disequation> disequations) {
+			this.axioms = axioms;
+			this.dissubsumptions = dissubsumptions;
+			this.disequations = disequations;
+		}
+
+	}
+
 	/**
 	 * A special 'empty' ontology used in the selection combo boxes.
 	 */
@@ -55,6 +79,9 @@ public class UelModel {
 	private UelOntologyGoal goal;
 	private OntologyProvider provider;
 	private UnificationAlgorithm algorithm;
+	private String algorithmName;
+	private boolean refinable;
+	private final Deque<Refinement> refinements = new ArrayDeque<>();
 	private List<Unifier> unifierList;
 
 	/**
@@ -68,6 +95,48 @@ public class UelModel {
 		this.provider = provider;
 	}
 
+	/**
+	 * Adds negative axioms to the current goal without setting it up again
+	 * from the ontologies, e.g., to refine the unifiers computed so far. This
+	 * is only possible if the unification algorithm was initialized to be
+	 * refinable and the axioms only refer to atoms that already occur in the
+	 * goal. If the SAT-based algorithm is used, only the clauses for the new
+	 * axioms are added to its SAT solver, and otherwise the algorithm is
+	 * initialized again with the extended goal. In both cases, the list of
+	 * unifiers is cleared. If the axioms cannot be added, the goal is not
+	 * changed.
+	 * 
+	 * @param axioms
+	 *            the new dissubsumptions and disequations, as
+	 *            OWLSubClassOfAxioms and binary OWLEquivalentClassesAxioms
+	 * @return 'true' iff the axioms were added; otherwise, the goal has to be
+	 *         set up again by 'setupGoal'
+	 * @see #initializeUnificationAlgorithm(String, boolean)
+	 * @see #removeNegativeAxioms(Set)
+	 */
+	public boolean addNegativeAxioms(Set<? extends OWLAxiom> axioms) {
+		if (axioms == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (!refinable || !goal.canAddNegativeAxioms(axioms)) {
+			// flattening the axioms would create new atoms or definitions
+			return false;
+		}
+
+		Set<Dissubsumption> oldDissubsumptions = new HashSet<>(goal.getDissubsumptions());
+		Set<Disequation> oldDisequations = new HashSet<>(goal.getDisequations());
+		goal.addNegativeAxioms(axioms);
+		Set<Dissubsumption> newDissubsumptions = new HashSet<>(goal.getDissubsumptions());
+		newDissubsumptions.removeAll(oldDissubsumptions);
+		Set<Disequation> newDisequations = new HashSet<>(goal.getDisequations());
+		newDisequations.removeAll(oldDisequations);
+		refinements.push(new Refinement(new HashSet<>(axioms), newDissubsumptions, newDisequations));
+		restartUnificationAlgorithm(algorithm instanceof SatUnificationAlgorithm
+				&& ((SatUnificationAlgorithm) algorithm).addNegativeAxioms(newDissubsumptions, newDisequations));
+		return true;
+	}
+
 	/**
 	 * Indicates whether the unification algorithm has finished its search for
 	 * unifiers.
@@ -137,6 +206,20 @@ public class UelModel {
 		return true;
 	}
 
+	/**
+	 * Predicts the size of the SAT encoding of the current goal, so that a goal
+	 * that is too large can be rejected before the algorithm is initialized.
+	 * 
+	 * @param name
+	 *            The string identifier of the unification algorithm, as defined
+	 *            by 'UnificationAlgorithmFactory'
+	 * @return the estimated size of the encoding, or <code>null</code> if the
+	 *         algorithm does not use a SAT encoding
+	 */
+	public EncodingSizeEstimate estimateEncodingSize(String name) {
+		return UnificationAlgorithmFactory.estimateEncodingSize(name, goal);
+	}
+
 	/**
 	 * Translates a given concept name to an atom id. This method adds the
 	 * corresponding atom to the atom manager if it was not present before.
@@ -248,14 +331,45 @@ public class UelModel {
 	}
 
 	/**
-	 * Initializes the unification algorithm with the current goal.
+	 * Initializes the unification algorithm with the current goal. The goal
+	 * cannot be refined afterwards, and therefore the background ontologies
+	 * are released.
 	 * 
 	 * @param name
 	 *            The string identifier of the unification algorithm, as defined
 	 *            by 'UnificationAlgorithmFactory'
 	 */
 	public void initializeUnificationAlgorithm(String name) {
-		algorithm = UnificationAlgorithmFactory.instantiateAlgorithm(name, goal);
+		initializeUnificationAlgorithm(name, false);
+	}
+
+	/**
+	 * Initializes the unification algorithm with the current goal.
+	 * 
+	 * @param name
+	 *            The string identifier of the unification algorithm, as defined
+	 *            by 'UnificationAlgorithmFactory'
+	 * @param refinable
+	 *            'true' iff negative axioms should be added to the goal later
+	 *            by 'addNegativeAxioms'; in this case, the background
+	 *            ontologies are kept until the goal is set up again, and
+	 *            otherwise they are released
+	 */
+	public void initializeUnificationAlgorithm(String name, boolean refinable) {
+		if (!refinable) {
+			goal.disposeOntology();
+		}
+		algorithmName = name;
+		this.refinable = refinable;
+		algorithm = instantiateUnificationAlgorithm();
+	}
+
+	private UnificationAlgorithm instantiateUnificationAlgorithm() {
+		UnificationAlgorithm ret = UnificationAlgorithmFactory.instantiateAlgorithm(algorithmName, goal);
+		if (refinable && (ret instanceof SatUnificationAlgorithm)) {
+			((SatUnificationAlgorithm) ret).setRefinable(true);
+		}
+		return ret;
 	}
 
 	private boolean isNew(Unifier result) {
@@ -373,6 +487,37 @@ public class UelModel {
 		return getStringRenderer(unifier.getDefinitions()).renderUnifier(unifier);
 	}
 
+	/**
+	 * Removes the negative axioms that were added by the last successful call
+	 * of 'addNegativeAxioms'. If the SAT-based algorithm is used and has
+	 * encoded these axioms incrementally, their clauses are disabled in its
+	 * SAT solver, and otherwise the algorithm is initialized again. In both
+	 * cases, the list of unifiers is cleared.
+	 * 
+	 * @param axioms
+	 *            the axioms that were added last
+	 * @return 'true' iff the axioms were removed; otherwise, the goal has to be
+	 *         set up again by 'setupGoal'
+	 */
+	public boolean removeNegativeAxioms(Set<? extends OWLAxiom> axioms) {
+		if (axioms == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (refinements.isEmpty() || !refinements.peek().axioms.equals(new HashSet<>(axioms))) {
+			return false;
+		}
+
+		Refinement refinement = refinements.pop();
+		goal.getDissubsumptions().removeAll(refinement.dissubsumptions);
+		goal.getDisequations().removeAll(refinement.disequations);
+		// the last axioms that the algorithm has encoded incrementally are
+		// always the last ones added to the goal
+		restartUnificationAlgorithm(algorithm instanceof SatUnificationAlgorithm
+				&& ((SatUnificationAlgorithm) algorithm).removeLastNegativeAxioms());
+		return true;
+	}
+
 	/**
 	 * Renders the current unifier as a set of OWLAxioms.
 	 * 
@@ -413,6 +558,20 @@ public class UelModel {
 		provider.resetCache();
 	}
 
+	private void restartUnificationAlgorithm(boolean updated) {
+		if (algorithm == null) {
+			return;
+		}
+
+		if (!updated) {
+			algorithm.cleanup();
+			algorithm = instantiateUnificationAlgorithm();
+		}
+		unifierList = new ArrayList<>();
+		currentUnifierIndex = -1;
+		allUnifiersFound = false;
+	}
+
 	/**
 	 * Sets the index of the currently selected unifier in the unifier list.
 	 * 
@@ -474,6 +633,8 @@ public class UelModel {
 			Set<OWLEquivalentClassesAxiom> disequations, OWLClass owlThingAlias, boolean resetShortFormCache) {
 
 		algorithm = null;
+		refinable = false;
+		refinements.clear();
 		unifierList = new ArrayList<>();
 		currentUnifierIndex = -1;
 		allUnifiersFound = false;
@@ -497,7 +658,6 @@ public class UelModel {
 		Integer topId = atomManager.createConceptName(top.toStringID());
 		atomManager.makeDefinitionVariable(topId);
 
-		goal.disposeOntology();
 		if (resetShortFormCache) {
 			cacheShortForms();
 		}
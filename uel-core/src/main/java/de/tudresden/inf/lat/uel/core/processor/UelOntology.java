@@ -7,6 +7,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLEquivalentClassesAxiom;
@@ -31,6 +32,8 @@ class UelOntology {
 	private static final String flatteningVariablePrefix = "var";
 	private int flatteningVariableIndex = 0;
 
+	private final Set<OWLClassExpression> flatExpressions = new HashSet<>();
+
 	private final Set<Integer> visited = new HashSet<>();
 	private final Map<Integer, OWLClass> nameMap = new HashMap<>();
 	private final AtomManager atomManager;
@@ -59,6 +62,7 @@ class UelOntology {
 
 	private Set<Integer> flattenClass(OWLClass cls, Set<Integer> newNames) {
 		Integer atomId = atomManager.createConceptName(cls.toStringID());
+		flatExpressions.add(cls);
 		if (!visited.contains(atomId)) {
 			// only consider new concept names that have not yet been processed
 			newNames.add(atomId);
@@ -113,12 +117,48 @@ class UelOntology {
 			// id is not a concept name, then we need to introduce a new
 			// definition in order to obtain a flat atom
 			fillerId = createFreshFlatteningDefinition(fillerIds, newDefinitions);
+		} else {
+			flatExpressions.add(existentialRestriction);
 		}
 
 		Integer atomId = atomManager.createExistentialRestriction(roleName, fillerId);
 		return Collections.singleton(atomId);
 	}
 
+	/**
+	 * Checks whether a class expression can be processed without creating new
+	 * atoms or definitions, i.e., whether it is a conjunction of concept names
+	 * and existential restrictions that have already been processed. This
+	 * includes the UNDEF names introduced for primitive definitions.
+	 * 
+	 * @param expression
+	 *            the class expression
+	 * @return <code>true</code> iff processing the expression does not change
+	 *         the atoms or definitions
+	 */
+	public boolean isProcessed(OWLClassExpression expression) {
+		if (expression instanceof OWLObjectIntersectionOf) {
+			for (OWLClassExpression operand : ((OWLObjectIntersectionOf) expression).getOperands()) {
+				if (!isProcessed(operand)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (flatExpressions.contains(expression)) {
+			return true;
+		}
+		if (expression instanceof OWLClass) {
+			String name = ((OWLClass) expression).toStringID();
+			if (name.endsWith(AtomManager.UNDEF_SUFFIX)) {
+				OWLClass origin = OWLManager.getOWLDataFactory()
+						.getOWLClass(IRI.create(name.substring(0, name.length() - AtomManager.UNDEF_SUFFIX.length())));
+				return flatExpressions.contains(origin) && (loadPrimitiveDefinition(origin) != null);
+			}
+		}
+		return false;
+	}
+
 	public Set<Integer> processClassExpression(OWLClassExpression expression, Set<Definition> newDefinitions) {
 		Set<Integer> toVisit = new HashSet<>();
 		Set<Integer> conjunction = flattenClassExpression(expression, newDefinitions, toVisit);
@@ -66,6 +66,40 @@ class UelOntologyGoal implements Goal {
 		}
 	}
 
+	/**
+	 * Checks whether negative axioms can be added to this goal without
+	 * creating new atoms or definitions.
+	 * 
+	 * @param axioms
+	 *            the dissubsumptions and disequations
+	 * @return <code>true</code> iff the background ontology is still
+	 *         available and all class expressions of the axioms have already
+	 *         been processed
+	 */
+	public boolean canAddNegativeAxioms(Set<? extends OWLAxiom> axioms) {
+		if (ontology == null) {
+			return false;
+		}
+		for (OWLAxiom axiom : axioms) {
+			Set<OWLClassExpression> expressions;
+			if (axiom.isOfType(AxiomType.EQUIVALENT_CLASSES)) {
+				expressions = ((OWLEquivalentClassesAxiom) axiom).getClassExpressions();
+			} else if (axiom.isOfType(AxiomType.SUBCLASS_OF)) {
+				expressions = new HashSet<>();
+				expressions.add(((OWLSubClassOfAxiom) axiom).getSubClass());
+				expressions.add(((OWLSubClassOfAxiom) axiom).getSuperClass());
+			} else {
+				return false;
+			}
+			for (OWLClassExpression expression : expressions) {
+				if (!ontology.isProcessed(expression)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
 	public void addEquation(OWLEquivalentClassesAxiom axiom) {
 		equations.add(createAxiom(Equation.class, axiom));
 	}
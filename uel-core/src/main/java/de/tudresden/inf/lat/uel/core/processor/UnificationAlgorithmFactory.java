@@ -6,6 +6,9 @@ import java.util.List;
 
 import de.tudresden.inf.lat.uel.asp.solver.AspUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.rule.RuleBasedUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.rule.SubsumptionOrder;
+import de.tudresden.inf.lat.uel.sat.solver.EncodingSizeEstimate;
+import de.tudresden.inf.lat.uel.sat.solver.SatConfiguration;
 import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
 import de.tudresden.inf.lat.uel.type.api.Goal;
 import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
@@ -18,8 +21,16 @@ import de.tudresden.inf.lat.uel.type.api.UnificationAlgorithm;
 public class UnificationAlgorithmFactory {
 
 	public static final String RULE_BASED_ALGORITHM = "Rule-based algorithm";
+	public static final String RULE_BASED_ALGORITHM_FAIL_FIRST = "Rule-based algorithm (fail-first order)";
+	public static final String RULE_BASED_ALGORITHM_PARALLEL = "Rule-based algorithm (parallel search)";
 	public static final String SAT_BASED_ALGORITHM = "SAT-based algorithm";
 	public static final String SAT_BASED_ALGORITHM_MINIMAL = "SAT-based algorithm (minimal assignments)";
+	public static final String SAT_BASED_ALGORITHM_LAZY = "SAT-based algorithm (lazy transitivity)";
+	public static final String SAT_BASED_ALGORITHM_BINARY_ORDER = "SAT-based algorithm (binary order encoding)";
+	public static final String SAT_BASED_ALGORITHM_PORTFOLIO = "SAT-based algorithm (solver portfolio)";
+	public static final String SAT_BASED_ALGORITHM_PREPROCESSING = "SAT-based algorithm (preprocessing)";
+	public static final String SAT_BASED_ALGORITHM_PROJECTED = "SAT-based algorithm (projected enumeration)";
+	public static final String SAT_BASED_ALGORITHM_CUBES = "SAT-based algorithm (parallel cubes)";
 	public static final String ASP_BASED_ALGORITHM = "ASP-based algorithm";
 	public static final String ASP_BASED_ALGORITHM_MINIMAL = "ASP-based algorithm (minimal assignments)";
 
@@ -36,10 +47,12 @@ public class UnificationAlgorithmFactory {
 		UnificationAlgorithm ret;
 		if (name.equals(RULE_BASED_ALGORITHM)) {
 			ret = new RuleBasedUnificationAlgorithm(input);
-		} else if (name.equals(SAT_BASED_ALGORITHM)) {
-			ret = new SatUnificationAlgorithm(input, false);
-		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL)) {
-			ret = new SatUnificationAlgorithm(input, true);
+		} else if (name.equals(RULE_BASED_ALGORITHM_FAIL_FIRST)) {
+			ret = new RuleBasedUnificationAlgorithm(input, SubsumptionOrder.FAIL_FIRST);
+		} else if (name.equals(RULE_BASED_ALGORITHM_PARALLEL)) {
+			ret = new RuleBasedUnificationAlgorithm(input, SubsumptionOrder.FAIL_FIRST, true);
+		} else if (name.startsWith(SAT_BASED_ALGORITHM)) {
+			ret = new SatUnificationAlgorithm(input, getSatConfiguration(name));
 		} else if (name.equals(ASP_BASED_ALGORITHM)) {
 			ret = new AspUnificationAlgorithm(input, false);
 		} else if (name.equals(ASP_BASED_ALGORITHM_MINIMAL)) {
@@ -50,6 +63,57 @@ public class UnificationAlgorithmFactory {
 		return ret;
 	}
 
+	/**
+	 * Predicts the size of the SAT encoding that an algorithm would compute
+	 * for a given UEL input, without allocating the encoding.
+	 * 
+	 * @param name
+	 *            name of algorithm
+	 * @param input
+	 *            UEL input
+	 * @return the estimated size of the encoding, or <code>null</code> if the
+	 *         algorithm does not use a SAT encoding
+	 */
+	public static EncodingSizeEstimate estimateEncodingSize(String name, Goal input) {
+		if (!name.startsWith(SAT_BASED_ALGORITHM)) {
+			return null;
+		}
+		return SatUnificationAlgorithm.estimateEncodingSize(input, getSatConfiguration(name));
+	}
+
+	/**
+	 * Returns the options of a variant of the SAT-based algorithm.
+	 * 
+	 * @param name
+	 *            name of algorithm
+	 * @return the options of the algorithm
+	 */
+	private static SatConfiguration getSatConfiguration(String name) {
+		SatConfiguration ret = new SatConfiguration();
+		if (name.equals(SAT_BASED_ALGORITHM)) {
+			// all options are disabled
+		} else if (name.equals(SAT_BASED_ALGORITHM_MINIMAL)) {
+			ret.useMinimalAssignments(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_LAZY)) {
+			ret.useLazyTransitivity(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_BINARY_ORDER)) {
+			ret.useBinaryOrder(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_PORTFOLIO)) {
+			ret.usePortfolio(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_PREPROCESSING)) {
+			ret.usePreprocessing(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_PROJECTED)) {
+			ret.useProjectedEnumeration(true);
+		} else if (name.equals(SAT_BASED_ALGORITHM_CUBES)) {
+			// the cubes also exclude their unifiers by the minimized
+			// projection literals, to keep their blocking clauses short
+			ret.useCubes(true).useProjectedEnumeration(true);
+		} else {
+			throw new IllegalArgumentException("Unknown algorithm : '" + name + "'.");
+		}
+		return ret;
+	}
+
 	/**
 	 * Returns all the algorithms that this factory can construct.
 	 * 
@@ -59,7 +123,15 @@ public class UnificationAlgorithmFactory {
 		List<String> ret = new ArrayList<>();
 		ret.add(SAT_BASED_ALGORITHM);
 		ret.add(SAT_BASED_ALGORITHM_MINIMAL);
+		ret.add(SAT_BASED_ALGORITHM_LAZY);
+		ret.add(SAT_BASED_ALGORITHM_BINARY_ORDER);
+		ret.add(SAT_BASED_ALGORITHM_PORTFOLIO);
+		ret.add(SAT_BASED_ALGORITHM_PREPROCESSING);
+		ret.add(SAT_BASED_ALGORITHM_PROJECTED);
+		ret.add(SAT_BASED_ALGORITHM_CUBES);
 		ret.add(RULE_BASED_ALGORITHM);
+		ret.add(RULE_BASED_ALGORITHM_FAIL_FIRST);
+		ret.add(RULE_BASED_ALGORITHM_PARALLEL);
 		ret.add(ASP_BASED_ALGORITHM);
 		ret.add(ASP_BASED_ALGORITHM_MINIMAL);
 		return Collections.unmodifiableList(ret);
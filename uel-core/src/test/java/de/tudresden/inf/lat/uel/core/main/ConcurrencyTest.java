@@ -0,0 +1,76 @@
+package de.tudresden.inf.lat.uel.core.main;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+
+/**
+ * Runs the problems of {@link ProcessorTest} concurrently in several threads of
+ * the same JVM and compares the unifiers with those of a sequential run.
+ */
+public class ConcurrencyTest {
+
+	private static final int maxTest = 17;
+	private static final int numberOfThreads = 8;
+	private static final int repetitions = 4;
+
+	private static Stream<Arguments> data() {
+		Collection<Arguments> data = new ArrayList<>();
+		data.add(Arguments.of(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM));
+		data.add(Arguments.of(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL));
+		data.add(Arguments.of(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_CUBES));
+		data.add(Arguments.of(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM));
+		data.add(Arguments.of(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM_PARALLEL));
+		return data.stream();
+	}
+
+	private static Set<Set<String>> computeUnifiers(int i, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		return ProcessorTest.computeUnifiers(ProcessorTest.setupModel(ProcessorTest.getProblemName(i), algorithmName));
+	}
+
+	@ParameterizedTest(name = "{index}: {0}")
+	@MethodSource("data")
+	public void runConcurrently(String algorithmName) throws OWLOntologyCreationException, IOException,
+			InterruptedException, ExecutionException {
+		List<Set<Set<String>>> expected = new ArrayList<>();
+		for (int i = 1; i <= maxTest; i++) {
+			expected.add(computeUnifiers(i, algorithmName));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<Set<Set<String>>>> results = new ArrayList<>();
+			for (int r = 0; r < repetitions; r++) {
+				for (int i = 1; i <= maxTest; i++) {
+					int currentTest = i;
+					results.add(executor.submit(() -> computeUnifiers(currentTest, algorithmName)));
+				}
+			}
+
+			for (int j = 0; j < results.size(); j++) {
+				Assertions.assertEquals(expected.get(j % maxTest), results.get(j).get(),
+						"Problem " + (j % maxTest + 1) + " with " + algorithmName);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
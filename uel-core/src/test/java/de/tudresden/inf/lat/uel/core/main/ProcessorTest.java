@@ -10,8 +10,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntBiFunction;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
@@ -22,8 +24,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.io.StreamDocumentSource;
 import org.semanticweb.owlapi.krss2.parser.KRSS2OWLParser;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyLoaderConfiguration;
@@ -34,6 +38,10 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import de.tudresden.inf.lat.jcel.owlapi.main.JcelReasonerFactory;
 import de.tudresden.inf.lat.uel.core.processor.BasicOntologyProvider;
 import de.tudresden.inf.lat.uel.core.processor.UelModel;
+import de.tudresden.inf.lat.uel.core.processor.UnificationAlgorithmFactory;
+import de.tudresden.inf.lat.uel.sat.solver.SatUnificationAlgorithm;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.impl.Unifier;
 
 public class ProcessorTest {
@@ -77,6 +85,57 @@ public class ProcessorTest {
 		return ontology;
 	}
 
+	static Set<Set<String>> computeUnifiers(UelModel uelModel) throws InterruptedException {
+		while (uelModel.computeNextUnifier()) {
+		}
+		Set<Set<String>> ret = new HashSet<>();
+		for (Unifier unifier : uelModel.getUnifierList()) {
+			Set<String> axioms = new HashSet<>();
+			for (OWLAxiom axiom : uelModel.renderUnifier(unifier)) {
+				axioms.add(axiom.toString());
+			}
+			ret.add(axioms);
+		}
+		return ret;
+	}
+
+	/**
+	 * Computes all unifiers and returns the assignments of the user
+	 * variables. Unlike {@link #computeUnifiers(UelModel)}, the result does
+	 * not depend on the assignments of the other variables, which can differ
+	 * between unifiers that the algorithms consider to be the same.
+	 * 
+	 * @param uelModel
+	 *            the model with an initialized unification algorithm
+	 * @return the assignments of the user variables, as sets of strings
+	 * @throws InterruptedException
+	 *             if the computation was interrupted
+	 */
+	static Set<Set<String>> computeAssignments(UelModel uelModel) throws InterruptedException {
+		while (uelModel.computeNextUnifier()) {
+		}
+		AtomManager atomManager = uelModel.getGoal().getAtomManager();
+		Set<Set<String>> ret = new HashSet<>();
+		for (Unifier unifier : uelModel.getUnifierList()) {
+			Set<String> assignment = new HashSet<>();
+			for (Definition definition : unifier.getDefinitions()) {
+				if (atomManager.getUserVariables().contains(definition.getDefiniendum())) {
+					String varName = atomManager.printConceptName(definition.getDefiniendum());
+					for (Integer atomId : definition.getRight()) {
+						if (atomManager.getExistentialRestrictions().contains(atomId)) {
+							assignment.add(varName + " " + atomManager.printRoleName(atomId) + " "
+									+ atomManager.printConceptName(atomManager.getChild(atomId)));
+						} else {
+							assignment.add(varName + " " + atomManager.printConceptName(atomId));
+						}
+					}
+				}
+			}
+			ret.add(assignment);
+		}
+		return ret;
+	}
+
 	static OWLReasoner createReasoner(OWLOntology ontology) {
 		JcelReasonerFactory factory = new JcelReasonerFactory();
 		OWLReasoner reasoner = factory.createNonBufferingReasoner(ontology);
@@ -110,7 +169,7 @@ public class ProcessorTest {
 		for (int i = 1; i <= maxTest; i++) {
 			try {
 
-				String fileName = apath + prefix + String.format("%02d", i);
+				String fileName = getProblemName(i);
 				String ontologyName = fileName + krss;
 				BufferedReader configFile = new BufferedReader(new FileReader(fileName + test));
 
@@ -137,38 +196,110 @@ public class ProcessorTest {
 		return data.stream();
 	}
 
-	private static Set<String> parseSet(String input) {
-		if (input.equals("")) {
-			return Collections.emptySet();
-		} else {
-			return new HashSet<>(Arrays.asList(input.split(",")));
+	/**
+	 * Computes the costs of the given unifiers, i.e., the sums of the costs
+	 * of the non-variable atoms in the assignments of the user variables.
+	 * 
+	 * @param unifiers
+	 *            the unifiers
+	 * @param atomManager
+	 *            the atom manager of the goal
+	 * @param costs
+	 *            the costs of the atoms
+	 * @return the list of costs, in the order of the unifiers
+	 */
+	static List<Long> getCosts(List<Unifier> unifiers, AtomManager atomManager,
+			ToIntBiFunction<Integer, Integer> costs) {
+		List<Long> ret = new ArrayList<>();
+		for (Unifier unifier : unifiers) {
+			long cost = 0;
+			for (Definition definition : unifier.getDefinitions()) {
+				Integer varId = definition.getDefiniendum();
+				if (atomManager.getUserVariables().contains(varId)) {
+					for (Integer atomId : definition.getRight()) {
+						if (!atomManager.getVariables().contains(atomId)) {
+							cost += costs.applyAsInt(varId, atomId);
+						}
+					}
+				}
+			}
+			ret.add(cost);
 		}
+		return ret;
 	}
 
-	@ParameterizedTest(name = "{index}: {0}, {4}")
-	@MethodSource("data")
-	public void tryOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames, Integer numberOfUnifiers,
-							String algorithmName) throws OWLOntologyCreationException, IOException, InterruptedException {
-		System.out.println("Testing " + ontologyName + " with " + algorithmName + " " + getMemoryUsage() + ".");
+	static Map<String, OWLClass> getClasses(OWLOntology owlOntology) {
 		Map<String, OWLClass> idClassMap = new HashMap<>();
-		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
-		OWLOntologyManager ontologyManager = owlOntology.getOWLOntologyManager();
-		UelModel uelModel = new UelModel(new BasicOntologyProvider(ontologyManager));
-		Set<OWLClass> clsSet = owlOntology.getClassesInSignature();
-		for (OWLClass cls : clsSet) {
+		for (OWLClass cls : owlOntology.getClassesInSignature()) {
 			idClassMap.put(cls.getIRI().getShortForm(), cls);
 		}
+		return idClassMap;
+	}
+
+	static String getProblemName(int i) {
+		return apath + prefix + String.format("%02d", i);
+	}
+
+	/**
+	 * Sets up a model for a test problem, which consists of the equivalence C
+	 * = D w.r.t. the KRSS ontology, with the user variables and the UNDEF
+	 * variables listed in the corresponding configuration file.
+	 * 
+	 * @param problemName
+	 *            the name of the KRSS ontology and the configuration file,
+	 *            without extension
+	 * @param algorithmName
+	 *            the name of the unification algorithm
+	 * @return the model with an initialized unification algorithm
+	 * @throws OWLOntologyCreationException
+	 *             if the ontology cannot be loaded
+	 * @throws IOException
+	 *             if something went wrong with I/O
+	 */
+	static UelModel setupModel(String problemName, String algorithmName)
+			throws OWLOntologyCreationException, IOException {
+		BufferedReader configFile = new BufferedReader(new FileReader(problemName + test));
+		Set<String> varNames = parseSet(readNextLine(configFile));
+		Set<String> undefVarNames = parseSet(readNextLine(configFile));
+		configFile.close();
+
+		OWLOntology owlOntology = loadKRSSOntology(problemName + krss);
+		OWLOntology negativeProblem = owlOntology.getOWLOntologyManager().createOntology();
+		return setupModel(owlOntology, negativeProblem, varNames, undefVarNames, algorithmName, false);
+	}
+
+	/**
+	 * Sets up a model for the equivalence C = D w.r.t. the given ontology.
+	 * 
+	 * @param owlOntology
+	 *            the background ontology
+	 * @param negativeProblem
+	 *            the dissubsumptions and disequations of the goal
+	 * @param varNames
+	 *            the names of the user variables
+	 * @param undefVarNames
+	 *            the names of the classes whose UNDEF variables are user
+	 *            variables
+	 * @param algorithmName
+	 *            the name of the unification algorithm
+	 * @param refinable
+	 *            'true' iff negative axioms should be added to the goal later
+	 * @return the model with an initialized unification algorithm
+	 * @throws OWLOntologyCreationException
+	 *             if the goal cannot be created
+	 */
+	static UelModel setupModel(OWLOntology owlOntology, OWLOntology negativeProblem, Set<String> varNames,
+			Set<String> undefVarNames, String algorithmName, boolean refinable) throws OWLOntologyCreationException {
+		Map<String, OWLClass> idClassMap = getClasses(owlOntology);
+		OWLOntologyManager ontologyManager = owlOntology.getOWLOntologyManager();
+		UelModel uelModel = new UelModel(new BasicOntologyProvider(ontologyManager));
 
 		OWLOntology positiveProblem = ontologyManager.createOntology();
 		ontologyManager.addAxiom(positiveProblem, ontologyManager.getOWLDataFactory()
 				.getOWLEquivalentClassesAxiom(idClassMap.get(conceptC), idClassMap.get(conceptD)));
-		OWLOntology negativeProblem = ontologyManager.createOntology();
-
 		uelModel.setupGoal(Collections.singleton(owlOntology), positiveProblem, negativeProblem, null, true);
 
 		Set<OWLClass> variables = new HashSet<>();
-		// variables.add(idClassMap.get(conceptC));
-		// variables.add(idClassMap.get(conceptD));
 		for (String var : varNames) {
 			variables.add(idClassMap.get(var));
 		}
@@ -179,7 +310,37 @@ public class ProcessorTest {
 		}
 		uelModel.makeUndefClassesUserVariables(variables);
 
-		uelModel.initializeUnificationAlgorithm(algorithmName);
+		uelModel.initializeUnificationAlgorithm(algorithmName, refinable);
+		return uelModel;
+	}
+
+	private static Stream<Arguments> problems() {
+		Collection<Arguments> data = new ArrayList<>();
+		for (int i = 1; i <= maxTest; i++) {
+			data.add(Arguments.of(getProblemName(i)));
+		}
+		// a problem with many minimal unifiers of different costs
+		data.add(Arguments.of(apath + "testCosts"));
+		return data.stream();
+	}
+
+	static Set<String> parseSet(String input) {
+		if (input.equals("")) {
+			return Collections.emptySet();
+		} else {
+			return new HashSet<>(Arrays.asList(input.split(",")));
+		}
+	}
+
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("data")
+	public void tryOntology(String ontologyName, Set<String> varNames, Set<String> undefVarNames, Integer numberOfUnifiers,
+							String algorithmName) throws OWLOntologyCreationException, IOException, InterruptedException {
+		System.out.println("Testing " + ontologyName + " with " + algorithmName + " " + getMemoryUsage() + ".");
+		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
+		Map<String, OWLClass> idClassMap = getClasses(owlOntology);
+		OWLOntology negativeProblem = owlOntology.getOWLOntologyManager().createOntology();
+		UelModel uelModel = setupModel(owlOntology, negativeProblem, varNames, undefVarNames, algorithmName, false);
 
 		while (uelModel.computeNextUnifier()) {
 		}
@@ -208,4 +369,83 @@ public class ProcessorTest {
 		System.out.println("Test OK " + getMemoryUsage() + ".");
 	}
 
+	@ParameterizedTest(name = "{index}: {0}, {4}")
+	@MethodSource("data")
+	public void refineIncrementally(String ontologyName, Set<String> varNames, Set<String> undefVarNames,
+			Integer numberOfUnifiers, String algorithmName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		if (algorithmName.startsWith(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM)) {
+			// dissubsumptions are not supported
+			return;
+		}
+
+		OWLOntology owlOntology = loadKRSSOntology(ontologyName);
+		OWLOntologyManager ontologyManager = owlOntology.getOWLOntologyManager();
+		OWLDataFactory factory = ontologyManager.getOWLDataFactory();
+		OWLOntology negativeProblem = ontologyManager.createOntology();
+		UelModel uelModel = setupModel(owlOntology, negativeProblem, varNames, undefVarNames, algorithmName, true);
+		Set<Set<String>> unifiers = computeAssignments(uelModel);
+		if (uelModel.getUnifierList().isEmpty()) {
+			return;
+		}
+
+		// exclude a constant that subsumes a user variable in the first unifier
+		Set<OWLAxiom> dissubsumptions = new HashSet<>();
+		AtomManager atomManager = uelModel.getGoal().getAtomManager();
+		for (Definition definition : uelModel.getUnifierList().get(0).getDefinitions()) {
+			if (atomManager.getUserVariables().contains(definition.getDefiniendum())) {
+				for (Integer atomId : definition.getRight()) {
+					if (dissubsumptions.isEmpty() && atomManager.getConstants().contains(atomId)) {
+						dissubsumptions.add(factory.getOWLSubClassOfAxiom(
+								factory.getOWLClass(IRI.create(atomManager.printConceptName(definition.getDefiniendum()))),
+								factory.getOWLClass(IRI.create(atomManager.printConceptName(atomId)))));
+					}
+				}
+			}
+		}
+		if (dissubsumptions.isEmpty()) {
+			return;
+		}
+
+		Assertions.assertTrue(uelModel.addNegativeAxioms(dissubsumptions));
+		Set<Set<String>> refinedUnifiers = computeAssignments(uelModel);
+		ontologyManager.addAxioms(negativeProblem, dissubsumptions);
+		Assertions.assertEquals(computeAssignments(
+				setupModel(owlOntology, negativeProblem, varNames, undefVarNames, algorithmName, false)),
+				refinedUnifiers);
+
+		Assertions.assertTrue(uelModel.removeNegativeAxioms(dissubsumptions));
+		Assertions.assertEquals(unifiers, computeAssignments(uelModel));
+	}
+
+	@ParameterizedTest(name = "{index}: {0}")
+	@MethodSource("problems")
+	public void computeCheapestUnifiers(String problemName)
+			throws OWLOntologyCreationException, IOException, InterruptedException {
+		ToIntBiFunction<Integer, Integer> costs = (varId, atomId) -> 1 + (31 * varId + atomId) % 4;
+		UelModel minimalModel = setupModel(problemName, UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL);
+		Set<Set<String>> minimalUnifiers = computeUnifiers(minimalModel);
+		AtomManager atomManager = minimalModel.getGoal().getAtomManager();
+		List<Long> expectedCosts = getCosts(minimalModel.getUnifierList(), atomManager, costs);
+		Collections.sort(expectedCosts);
+
+		// the minimal unifiers are computed in the order of increasing cost
+		UelModel weightedModel = setupModel(problemName, UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL);
+		((SatUnificationAlgorithm) weightedModel.getUnificationAlgorithm()).setAssignmentCosts(costs);
+		Assertions.assertEquals(minimalUnifiers, computeUnifiers(weightedModel));
+		Assertions.assertEquals(expectedCosts,
+				getCosts(weightedModel.getUnifierList(), weightedModel.getGoal().getAtomManager(), costs));
+
+		// only the k cheapest unifiers are computed
+		int k = (expectedCosts.size() + 1) / 2;
+		UelModel cheapestModel = setupModel(problemName, UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL);
+		SatUnificationAlgorithm algorithm = (SatUnificationAlgorithm) cheapestModel.getUnificationAlgorithm();
+		algorithm.setAssignmentCosts(costs);
+		algorithm.setMaxNumberOfUnifiers(k);
+		Set<Set<String>> cheapestUnifiers = computeUnifiers(cheapestModel);
+		Assertions.assertTrue(minimalUnifiers.containsAll(cheapestUnifiers));
+		Assertions.assertEquals(expectedCosts.subList(0, k),
+				getCosts(cheapestModel.getUnifierList(), cheapestModel.getGoal().getAtomManager(), costs));
+	}
+
 }
@@ -1,75 +1,96 @@
 package de.tudresden.inf.lat.uel.rule;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-
-import de.tudresden.inf.lat.uel.type.api.Atom;
+import java.util.Arrays;
 
 /**
  * An assignment of sets of non-variable atoms to variables. Such an assignment
  * should always be acyclic.
- * 
+ *
+ * Variables and atoms are identified by their indices in the atom manager. The
+ * subsumers of each variable are stored as a bitset over these indices, so
+ * that assignments can be combined word by word.
+ *
+ * Once a level has been opened by {@link #newLevel()}, every atom that is
+ * added to the assignment is recorded on a trail. The method
+ * {@link #backtrack()} removes the atoms that were added since the last level
+ * was opened, in time proportional to their number.
+ *
+ * Cycles are detected by means of a {@link DependencyOrder} of the variables,
+ * which is updated incrementally whenever an existential restriction is added
+ * to the assignment.
+ *
  * @author Stefan Borgwardt
  */
 public class Assignment {
 
-	private final Map<Atom, Set<Atom>> subs = new HashMap<>();
+	private static final long[] EMPTY = new long[0];
 
-	/**
-	 * Create an empty assignment.
-	 */
-	Assignment() {
+	private static int index(int at) {
+		return at >>> 6;
+	}
+
+	private static long mask(int at) {
+		return 1L << at;
 	}
 
+	private final AtomTable atoms;
+	private int[] levels = new int[16];
+	private int numberOfLevels = 0;
+	private final DependencyOrder order;
+	private long[][] subs = new long[0][];
+	// pairs of variables and atoms that were added since the first level
+	private int[] trail = new int[64];
+	private int trailSize = 0;
+
 	/**
-	 * Create a copy of another assignment.
-	 * 
-	 * @param other
-	 *            the other assignment
+	 * Create an empty assignment that is only used to record changes to
+	 * another assignment. Such an assignment cannot be checked for cycles.
 	 */
-	Assignment(Assignment other) {
-		addAll(other);
+	Assignment() {
+		this.atoms = null;
+		this.order = null;
 	}
 
 	/**
-	 * Add an atom to the assignment of a variable.
-	 * 
-	 * @param var
-	 *            the index of the variable
-	 * @param at
-	 *            the new atom
-	 * @return true iff the assignment was changed as a result of this operation
+	 * Create an empty assignment.
+	 *
+	 * @param atoms
+	 *            the table of all atoms that can occur in the assignment
 	 */
-	public boolean add(Atom var, Atom at) {
-		if (at == null) {
-			throw new IllegalArgumentException();
+	Assignment(AtomTable atoms) {
+		if (atoms == null) {
+			throw new IllegalArgumentException("Null argument.");
 		}
-		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.add(at);
+		this.atoms = atoms;
+		this.order = new DependencyOrder(this, atoms);
 	}
 
 	/**
-	 * Add a set of atoms to the assignment of a variable.
-	 * 
+	 * Add an atom to the assignment of a variable.
+	 *
 	 * @param var
 	 *            the index of the variable
 	 * @param at
-	 *            the new atoms
+	 *            the index of the new atom
 	 * @return true iff the assignment was changed as a result of this operation
 	 */
-	public boolean addAll(Atom var, Set<Atom> at) {
-		if (at == null)
+	public boolean add(int var, int at) {
+		if (at < 0) {
+			throw new IllegalArgumentException("Invalid atom index: " + at + ".");
+		}
+		long[] words = getOrInit(var, index(at) + 1);
+		if ((words[index(at)] & mask(at)) != 0) {
 			return false;
-		Set<Atom> flatAtoms = getOrInit(var);
-		return flatAtoms.addAll(at);
+		}
+		words[index(at)] |= mask(at);
+		record(var, at);
+		updateOrder(var, at);
+		return true;
 	}
 
 	/**
 	 * Add another variable assignment to this assignment.
-	 * 
+	 *
 	 * @param other
 	 *            the assignment to be merged into this one
 	 * @return true iff the assignment was changed as a result of this operation
@@ -78,165 +99,249 @@ public class Assignment {
 		if (other == null)
 			return false;
 		boolean ret = false;
-		for (Entry<Atom, Set<Atom>> entry : other.subs.entrySet()) {
-			if (addAll(entry.getKey(), entry.getValue()))
-				ret = true;
+		for (int var = 0; var < other.subs.length; var++) {
+			long[] otherWords = other.subs[var];
+			if (otherWords == EMPTY) {
+				continue;
+			}
+			long[] words = getOrInit(var, otherWords.length);
+			for (int i = 0; i < otherWords.length; i++) {
+				long newBits = otherWords[i] & ~words[i];
+				if (newBits != 0) {
+					words[i] |= newBits;
+					ret = true;
+					if ((numberOfLevels > 0) || (order != null)) {
+						for (long bits = newBits; bits != 0; bits &= bits - 1) {
+							int at = (i << 6) + Long.numberOfTrailingZeros(bits);
+							record(var, at);
+							updateOrder(var, at);
+						}
+					}
+				}
+			}
 		}
 		return ret;
 	}
 
 	/**
-	 * Remove a set of atoms from the assignment of a variable.
-	 * 
-	 * @param var
-	 *            the index of the variable
-	 * @param at
-	 *            the atoms to be removed
-	 * @return true iff the assignment was changed as a result of this operation
+	 * Undo all additions to this assignment since the last call to
+	 * {@link #newLevel()}, and close that level. The dependency order remains
+	 * valid, since atoms are only removed.
+	 *
+	 * @throws IllegalStateException
+	 *             if no level has been opened
 	 */
-	boolean removeAll(Atom var, Set<Atom> at) {
-		if (at == null)
-			return false;
-		if (subs.get(var) == null)
-			return false;
-		return subs.get(var).removeAll(at);
+	void backtrack() {
+		if (numberOfLevels == 0) {
+			throw new IllegalStateException("No level to backtrack from.");
+		}
+		int mark = levels[--numberOfLevels];
+		while (trailSize > mark) {
+			int at = trail[--trailSize];
+			int var = trail[--trailSize];
+			subs[var][index(at)] &= ~mask(at);
+		}
 	}
 
 	/**
-	 * Subtract another variable assignment from this assignment.
-	 * 
-	 * @param other
-	 *            the assignment to be removed from this one
-	 * @return true iff the assignment was changed as a result of this operation
+	 * Checks whether an atom is assigned to a variable.
+	 *
+	 * @param var
+	 *            the index of the variable
+	 * @param at
+	 *            the index of the atom
+	 * @return true iff 'at' is a subsumer of 'var' according to this
+	 *         assignment
 	 */
-	boolean removeAll(Assignment other) {
-		if (other == null)
+	public boolean contains(int var, int at) {
+		if (var >= subs.length) {
 			return false;
-		boolean ret = false;
-		for (Entry<Atom, Set<Atom>> entry : other.subs.entrySet()) {
-			if (removeAll(entry.getKey(), entry.getValue()))
-				ret = true;
 		}
-		return ret;
+		long[] words = subs[var];
+		return (index(at) < words.length) && ((words[index(at)] & mask(at)) != 0);
 	}
 
 	/**
-	 * Retrieve the subsumers of a given variable according to this assignment.
-	 * 
-	 * @param var
-	 *            the variable
-	 * @return the set of assigned subsumers
+	 * Checks if there is a dependency of 'a' on 'b', i.e., whether 'b' is
+	 * reachable from 'a' in the graph representation of the current assignment.
+	 *
+	 * @param a
+	 *            the start variable
+	 * @param b
+	 *            the goal variable
+	 * @return true iff 'a' depends on 'b'
 	 */
-	public Set<Atom> getSubsumers(Atom var) {
-		return getOrInit(var);
+	boolean dependsOn(int a, int b) {
+		return order.reaches(a, b);
 	}
 
 	/**
-	 * Retrieve the variable indices of the variables that are explicitly
-	 * assigned some non-variable atoms by this assignment. This assignment
-	 * might also be the empty set.
-	 * 
-	 * @return a set containing the indices of all variables involved in this
-	 *         assignment
+	 * Retrieve the table of atoms that can occur in this assignment.
+	 *
+	 * @return the atom table, or 'null' if this assignment only records
+	 *         changes to another assignment
 	 */
-	Set<Atom> getKeys() {
-		return subs.keySet();
+	public AtomTable getAtomTable() {
+		return atoms;
 	}
 
-	private Set<Atom> getOrInit(Atom var) {
-		Set<Atom> flatAtoms = subs.get(var);
-		if (flatAtoms == null) {
-			flatAtoms = new HashSet<>();
-			subs.put(var, flatAtoms);
+	private long[] getOrInit(int var, int length) {
+		if (var >= subs.length) {
+			int oldLength = subs.length;
+			subs = Arrays.copyOf(subs, Math.max(var + 1, 2 * oldLength));
+			Arrays.fill(subs, oldLength, subs.length, EMPTY);
+		}
+		if (subs[var].length < length) {
+			subs[var] = Arrays.copyOf(subs[var], Math.max(length, (atoms == null) ? 0 : index(atoms.size() - 1) + 1));
 		}
-		return flatAtoms;
+		return subs[var];
 	}
 
 	/**
 	 * Check whether this assignment is empty.
-	 * 
+	 *
 	 * @return true iff no variable is assigned any subsumer
 	 */
 	boolean isEmpty() {
-		for (Set<Atom> subsumers : subs.values()) {
-			if (!subsumers.isEmpty())
-				return false;
-		}
-		return true;
-	}
-
-	/**
-	 * Checks if there is a dependency of 'a' on 'b', i.e., whether 'b' is
-	 * reachable from 'a' in the graph representation of the current assignment.
-	 * It is important that the current assignment is acyclic; otherwise, this
-	 * implementation might not terminate.
-	 * 
-	 * @param a
-	 *            the start variable
-	 * @param b
-	 *            the goal variable
-	 * @return true iff 'a' depends on 'b'
-	 */
-	boolean dependsOn(Atom a, Atom b) {
-		for (Atom at : getSubsumers(a)) {
-			if (!at.isGround()) {
-				Atom nextVar = at.getConceptName();
-				if (nextVar.equals(b)) {
-					return true;
-				}
-				if (dependsOn(nextVar, b)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return nextVariable(0) < 0;
 	}
 
 	/**
 	 * Checks if a new assignment would make this assignment cyclic.
-	 * 
+	 *
 	 * @param var
 	 *            the variable index
 	 * @param at
-	 *            the new atom
+	 *            the index of the new atom
 	 * @return true iff the resulting assignment would be cyclic
 	 */
-	public boolean makesCyclic(Atom var, Atom at) {
-		if (at.isGround())
+	public boolean makesCyclic(int var, int at) {
+		if (atoms.isGround(at))
 			return false;
-		Atom conceptName = at.getConceptName();
-		if (conceptName.equals(var))
+		int conceptName = atoms.getConceptName(at);
+		if (conceptName == var)
 			return true;
 		return dependsOn(conceptName, var);
 	}
 
 	/**
-	 * Checks if a new assignment would make this assignment cyclic.
-	 * 
+	 * Open a new level. All atoms that are added to this assignment afterwards
+	 * are removed again by the next call to {@link #backtrack()}.
+	 */
+	void newLevel() {
+		if (numberOfLevels == levels.length) {
+			levels = Arrays.copyOf(levels, 2 * levels.length);
+		}
+		levels[numberOfLevels++] = trailSize;
+	}
+
+	/**
+	 * Retrieve the next subsumer of a variable, in the order of the atom
+	 * indices.
+	 *
 	 * @param var
-	 *            the variable index
-	 * @param newAtoms
-	 *            the new atoms
-	 * @return true iff the resulting assignment would be cyclic
+	 *            the index of the variable
+	 * @param from
+	 *            the atom index to start the search from (inclusive)
+	 * @return the index of the first subsumer of 'var' that is greater than or
+	 *         equal to 'from', or -1 if there is no such subsumer
 	 */
-	public boolean makesCyclic(Atom var, Iterable<Atom> newAtoms) {
-		for (Atom at : newAtoms) {
-			if (makesCyclic(var, at)) {
-				return true;
+	public int nextSubsumer(int var, int from) {
+		if (var >= subs.length) {
+			return -1;
+		}
+		long[] words = subs[var];
+		int i = index(from);
+		if (i >= words.length) {
+			return -1;
+		}
+		long bits = words[i] & (-1L << from);
+		while (bits == 0) {
+			if (++i == words.length) {
+				return -1;
 			}
+			bits = words[i];
+		}
+		return (i << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Retrieve the next variable that is assigned some subsumer.
+	 *
+	 * @param from
+	 *            the variable index to start the search from (inclusive)
+	 * @return the index of the first variable that is greater than or equal to
+	 *         'from' and has a non-empty set of subsumers, or -1 if there is no
+	 *         such variable
+	 */
+	int nextVariable(int from) {
+		for (int var = from; var < subs.length; var++) {
+			for (long word : subs[var]) {
+				if (word != 0) {
+					return var;
+				}
+			}
+		}
+		return -1;
+	}
+
+	private void record(int var, int at) {
+		if (numberOfLevels == 0) {
+			return;
+		}
+		if (trailSize + 2 > trail.length) {
+			trail = Arrays.copyOf(trail, 2 * trail.length);
+		}
+		trail[trailSize++] = var;
+		trail[trailSize++] = at;
+	}
+
+	/**
+	 * Subtract another variable assignment from this assignment. This
+	 * assignment should not have any open levels. The dependency order remains
+	 * valid, since atoms are only removed.
+	 *
+	 * @param other
+	 *            the assignment to be removed from this one
+	 * @return true iff the assignment was changed as a result of this operation
+	 */
+	boolean removeAll(Assignment other) {
+		if (other == null)
+			return false;
+		boolean ret = false;
+		for (int var = 0; var < Math.min(subs.length, other.subs.length); var++) {
+			long[] words = subs[var];
+			long[] otherWords = other.subs[var];
+			for (int i = 0; i < Math.min(words.length, otherWords.length); i++) {
+				if ((words[i] & otherWords[i]) != 0) {
+					words[i] &= ~otherWords[i];
+					ret = true;
+				}
+			}
+		}
+		return ret;
+	}
+
+	private void updateOrder(int var, int at) {
+		if ((order != null) && !atoms.isGround(at)) {
+			order.addEdge(var, atoms.getConceptName(at));
 		}
-		return false;
 	}
 
 	@Override
 	public String toString() {
 		StringBuffer buf = new StringBuffer();
 		buf.append("[");
-		for (Entry<Atom, Set<Atom>> e : subs.entrySet()) {
-			buf.append(e.getKey());
-			buf.append("=");
-			buf.append(e.getValue());
-			buf.append(";");
+		for (int var = nextVariable(0); var >= 0; var = nextVariable(var + 1)) {
+			buf.append((atoms == null) ? var : atoms.getAtom(var));
+			buf.append("=[");
+			String separator = "";
+			for (int at = nextSubsumer(var, 0); at >= 0; at = nextSubsumer(var, at + 1)) {
+				buf.append(separator);
+				buf.append((atoms == null) ? at : atoms.getAtom(at));
+				separator = ", ";
+			}
+			buf.append("];");
 		}
 		buf.append("]");
 		return buf.toString();
@@ -0,0 +1,99 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+
+/**
+ * A table of the atoms of a unification problem, indexed by their identifiers
+ * in the atom manager. The identifiers are dense, and thus the properties of
+ * the atoms that are needed by the rules can be looked up in arrays instead of
+ * hashing the atoms.
+ */
+public final class AtomTable {
+
+	private final Atom[] atoms;
+	private final int[] conceptNames;
+	private final boolean[] ground;
+	private final boolean[] variables;
+
+	/**
+	 * Construct a new table containing all atoms of an atom manager. The
+	 * atom manager should not be changed afterwards.
+	 *
+	 * @param atomManager
+	 *            the atom manager
+	 */
+	AtomTable(AtomManager atomManager) {
+		int size = atomManager.size() + 1;
+		this.atoms = new Atom[size];
+		this.conceptNames = new int[size];
+		this.ground = new boolean[size];
+		this.variables = new boolean[size];
+		for (int atomId = 0; atomId < size; atomId++) {
+			Atom atom = atomManager.getAtom(atomId);
+			if (atom != null) {
+				atoms[atomId] = atom;
+				conceptNames[atomId] = atom.isExistentialRestriction() ? atomManager.getChild(atomId) : atomId;
+				ground[atomId] = atom.isGround();
+				variables[atomId] = atom.isVariable();
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the atom with the given identifier.
+	 *
+	 * @param atomId
+	 *            the atom identifier
+	 * @return the atom
+	 */
+	public Atom getAtom(int atomId) {
+		return atoms[atomId];
+	}
+
+	/**
+	 * Retrieve the concept name of an atom, i.e., the atom itself if it is a
+	 * concept name, and the child of the atom if it is an existential
+	 * restriction.
+	 *
+	 * @param atomId
+	 *            the atom identifier
+	 * @return the identifier of the concept name
+	 */
+	public int getConceptName(int atomId) {
+		return conceptNames[atomId];
+	}
+
+	/**
+	 * Checks whether an atom is ground, i.e., does not contain a variable.
+	 *
+	 * @param atomId
+	 *            the atom identifier
+	 * @return true iff the atom is ground
+	 */
+	public boolean isGround(int atomId) {
+		return ground[atomId];
+	}
+
+	/**
+	 * Checks whether an atom is a variable.
+	 *
+	 * @param atomId
+	 *            the atom identifier
+	 * @return true iff the atom is a variable
+	 */
+	public boolean isVariable(int atomId) {
+		return variables[atomId];
+	}
+
+	/**
+	 * Returns the number of entries of this table, i.e., the greatest atom
+	 * identifier plus one.
+	 *
+	 * @return the size of the table
+	 */
+	public int size() {
+		return atoms.length;
+	}
+
+}
@@ -0,0 +1,137 @@
+package de.tudresden.inf.lat.uel.rule;
+
+/**
+ * A topological order of the dependency graph of an acyclic assignment, which
+ * contains an edge from a variable X to a variable Y iff the assignment of X
+ * contains an existential restriction with the child Y. If X depends on Y,
+ * then X comes before Y in the order, and therefore most cycle checks can be
+ * answered by comparing positions. Otherwise, the search for a path is
+ * restricted to the atoms between the two positions.
+ *
+ * The order is updated incrementally whenever a new edge is added, by
+ * rearranging only the atoms between the positions of its endpoints, in the
+ * style of Pearce and Kelly. Removing edges preserves the order, and hence
+ * the order does not need to be updated when the assignment is rolled back.
+ */
+class DependencyOrder {
+
+	private final Assignment assignment;
+	private final AtomTable atoms;
+	private final int[] atomsAt;
+	private final int[] buffer;
+	private int mark = 0;
+	private final int[] marks;
+	private final int[] positions;
+	private final int[] stack;
+
+	/**
+	 * Construct a new order for an empty assignment.
+	 *
+	 * @param assignment
+	 *            the assignment whose dependencies are ordered
+	 * @param atoms
+	 *            the table of all atoms
+	 */
+	DependencyOrder(Assignment assignment, AtomTable atoms) {
+		this.assignment = assignment;
+		this.atoms = atoms;
+		int size = atoms.size();
+		this.atomsAt = new int[size];
+		this.buffer = new int[size];
+		this.marks = new int[size];
+		this.positions = new int[size];
+		this.stack = new int[size];
+		for (int atomId = 0; atomId < size; atomId++) {
+			atomsAt[atomId] = atomId;
+			positions[atomId] = atomId;
+		}
+	}
+
+	/**
+	 * Restores the order after an edge has been added to the dependency graph.
+	 *
+	 * @param from
+	 *            the variable whose assignment was extended
+	 * @param to
+	 *            the variable on which 'from' now depends
+	 * @throws IllegalStateException
+	 *             if the new edge makes the assignment cyclic
+	 */
+	void addEdge(int from, int to) {
+		int lower = positions[to];
+		int upper = positions[from];
+		if (upper < lower) {
+			// the order is still valid
+			return;
+		}
+		if (search(to, from, upper)) {
+			throw new IllegalStateException("The assignment has become cyclic.");
+		}
+
+		// move the atoms that are reachable from 'to' behind all other atoms
+		// in the affected region, keeping their relative order
+		int size = 0;
+		for (int position = lower; position <= upper; position++) {
+			int atomId = atomsAt[position];
+			if (marks[atomId] != mark) {
+				buffer[size++] = atomId;
+			}
+		}
+		for (int position = lower; position <= upper; position++) {
+			int atomId = atomsAt[position];
+			if (marks[atomId] == mark) {
+				buffer[size++] = atomId;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			atomsAt[lower + i] = buffer[i];
+			positions[buffer[i]] = lower + i;
+		}
+	}
+
+	/**
+	 * Checks whether there is a path from one variable to another in the
+	 * dependency graph.
+	 *
+	 * @param from
+	 *            the start variable
+	 * @param to
+	 *            the goal variable
+	 * @return true iff 'from' depends on 'to'
+	 */
+	boolean reaches(int from, int to) {
+		if (positions[from] >= positions[to]) {
+			return false;
+		}
+		return search(from, to, positions[to]);
+	}
+
+	/**
+	 * Marks all atoms that are reachable from the start variable without
+	 * passing an atom at a position greater than the bound.
+	 */
+	private boolean search(int start, int goal, int bound) {
+		mark++;
+		int size = 0;
+		marks[start] = mark;
+		stack[size++] = start;
+		while (size > 0) {
+			int var = stack[--size];
+			for (int at = assignment.nextSubsumer(var, 0); at >= 0; at = assignment.nextSubsumer(var, at + 1)) {
+				if (atoms.isGround(at)) {
+					continue;
+				}
+				int next = atoms.getConceptName(at);
+				if (next == goal) {
+					return true;
+				}
+				if ((marks[next] != mark) && (positions[next] <= bound)) {
+					marks[next] = mark;
+					stack[size++] = next;
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -14,45 +14,99 @@ import de.tudresden.inf.lat.uel.type.api.Atom;
  */
 public class FlatSubsumption {
 
+	private static boolean containsAll(int[] atomIds, int[] otherIds) {
+		for (int otherId : otherIds) {
+			boolean found = false;
+			for (int atomId : atomIds) {
+				if (atomId == otherId) {
+					found = true;
+					break;
+				}
+			}
+			if (!found)
+				return false;
+		}
+		return true;
+	}
+
+	private static int hashCode(int[] bodyIds, int headId) {
+		// the hash code must not depend on the order of the body atoms
+		int ret = 0;
+		for (int atomId : bodyIds) {
+			ret += atomId * 0x9E3779B1;
+		}
+		return ret * 31 + headId;
+	}
+
+	private static List<Atom> toAtoms(AtomTable atoms, int[] atomIds) {
+		Atom[] ret = new Atom[atomIds.length];
+		for (int i = 0; i < atomIds.length; i++) {
+			ret[i] = atoms.getAtom(atomIds[i]);
+		}
+		return Arrays.asList(ret);
+	}
+
 	private final List<Atom> body;
+	private final int[] bodyIds;
 	private final Atom head;
+	private final int headId;
+	// the position in the queue of unsolved subsumptions, or -1
+	private int queuePosition = -1;
 	private boolean solved;
 	private final int hashCode;
 
 	/**
 	 * Construct a new subsumption from the given atoms.
 	 * 
-	 * @param body
-	 *            the body of the new subsumption
-	 * @param head
-	 *            the head of the new subsumption
+	 * @param atoms
+	 *            the table of all atoms
+	 * @param bodyIds
+	 *            the indices of the atoms in the body of the new subsumption
+	 * @param headId
+	 *            the index of the head of the new subsumption
 	 */
-	public FlatSubsumption(List<Atom> body, Atom head) {
-		if ((body == null) || (head == null)) {
-			throw new IllegalArgumentException("Body and head cannot be null.");
-		}
-		this.body = body;
-		this.head = head;
-		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+	public FlatSubsumption(AtomTable atoms, int[] bodyIds, int headId) {
+		this(toAtoms(atoms, bodyIds), bodyIds, atoms.getAtom(headId), headId);
 	}
 
 	/**
 	 * Construct a new subsumption with a single-atom body.
 	 * 
-	 * @param body
-	 *            the body of the new subsumption
+	 * @param atoms
+	 *            the table of all atoms
+	 * @param bodyId
+	 *            the index of the body of the new subsumption
+	 * @param headId
+	 *            the index of the head of the new subsumption
+	 */
+	public FlatSubsumption(AtomTable atoms, int bodyId, int headId) {
+		this(atoms, new int[] { bodyId }, headId);
+	}
+
+	/**
+	 * Construct a new subsumption with the same body as an existing one.
+	 * 
+	 * @param other
+	 *            the subsumption whose body is used
 	 * @param head
 	 *            the head of the new subsumption
+	 * @param headId
+	 *            the index of the head
 	 */
-	public FlatSubsumption(Atom body, Atom head) {
+	FlatSubsumption(FlatSubsumption other, Atom head, int headId) {
+		this(other.body, other.bodyIds, head, headId);
+	}
+
+	private FlatSubsumption(List<Atom> body, int[] bodyIds, Atom head, int headId) {
 		if ((body == null) || (head == null)) {
 			throw new IllegalArgumentException("Body and head cannot be null.");
 		}
-		this.body = Arrays.asList(new Atom[] { body });
+		this.body = body;
+		this.bodyIds = bodyIds;
 		this.head = head;
+		this.headId = headId;
 		this.solved = false;
-		this.hashCode = body.hashCode() * 31 + head.hashCode();
+		this.hashCode = hashCode(bodyIds, headId);
 	}
 
 	/**
@@ -64,6 +118,17 @@ public class FlatSubsumption {
 		return body;
 	}
 
+	/**
+	 * Retrieve the indices of the atoms in the body of this subsumption. The
+	 * returned array must not be modified.
+	 * 
+	 * @return an array containing the atom indices, in the same order as
+	 *         {@link #getBody()}
+	 */
+	public int[] getBodyIds() {
+		return bodyIds;
+	}
+
 	/**
 	 * Retrieve the head of this subsumption.
 	 * 
@@ -73,6 +138,26 @@ public class FlatSubsumption {
 		return head;
 	}
 
+	/**
+	 * Retrieve the index of the head of this subsumption.
+	 * 
+	 * @return the atom index of the head
+	 */
+	public int getHeadId() {
+		return headId;
+	}
+
+	/**
+	 * Retrieve the position of this subsumption in the queue of unsolved
+	 * subsumptions.
+	 * 
+	 * @return the position in the queue, or -1 if this subsumption is not
+	 *         queued
+	 */
+	int getQueuePosition() {
+		return queuePosition;
+	}
+
 	/**
 	 * Check whether this subsumption is already solved.
 	 * 
@@ -92,6 +177,18 @@ public class FlatSubsumption {
 		this.solved = solved;
 	}
 
+	/**
+	 * Set the position of this subsumption in the queue of unsolved
+	 * subsumptions.
+	 * 
+	 * @param queuePosition
+	 *            the new position, or -1 if this subsumption is removed from
+	 *            the queue
+	 */
+	void setQueuePosition(int queuePosition) {
+		this.queuePosition = queuePosition;
+	}
+
 	/**
 	 * Check whether this subsumption is ground.
 	 * 
@@ -122,11 +219,11 @@ public class FlatSubsumption {
 			return false;
 
 		FlatSubsumption other = (FlatSubsumption) obj;
-		if (!body.containsAll(other.body))
+		if (headId != other.headId)
 			return false;
-		if (!other.body.containsAll(body))
+		if (!containsAll(bodyIds, other.bodyIds))
 			return false;
-		if (!head.equals(other.head))
+		if (!containsAll(other.bodyIds, bodyIds))
 			return false;
 		return true;
 	}
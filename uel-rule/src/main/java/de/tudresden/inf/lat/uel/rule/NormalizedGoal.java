@@ -2,15 +2,15 @@ package de.tudresden.inf.lat.uel.rule;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 
-import de.tudresden.inf.lat.uel.type.api.Atom;
-import de.tudresden.inf.lat.uel.type.api.AtomManager;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Equation;
 import de.tudresden.inf.lat.uel.type.api.Goal;
@@ -24,78 +24,118 @@ import de.tudresden.inf.lat.uel.type.api.Subsumption;
  */
 class NormalizedGoal implements Set<FlatSubsumption> {
 
-	private static void convert(Definition d, AtomManager atomManager, Set<FlatSubsumption> flatSubsumptions) {
-		Atom definiendum = atomManager.getAtom(d.getDefiniendum());
-		List<Atom> right = toAtoms(d.getRight(), atomManager);
-		for (Atom rightAtom : right) {
-			flatSubsumptions.add(new FlatSubsumption(definiendum, rightAtom));
+	private static void convert(Definition d, AtomTable atoms, Set<FlatSubsumption> flatSubsumptions) {
+		int definiendum = d.getDefiniendum();
+		int[] right = toArray(d.getRight());
+		for (int rightAtom : right) {
+			flatSubsumptions.add(new FlatSubsumption(atoms, definiendum, rightAtom));
 		}
-		flatSubsumptions.add(new FlatSubsumption(right, definiendum));
+		flatSubsumptions.add(new FlatSubsumption(atoms, right, definiendum));
 	}
 
-	private static void convert(Equation e, AtomManager atomManager, Set<FlatSubsumption> flatSubsumptions) {
-		List<Atom> left = toAtoms(e.getLeft(), atomManager);
-		List<Atom> right = toAtoms(e.getRight(), atomManager);
-		for (Atom rightAtom : right) {
-			flatSubsumptions.add(new FlatSubsumption(left, rightAtom));
+	private static void convert(Equation e, AtomTable atoms, Set<FlatSubsumption> flatSubsumptions) {
+		int[] left = toArray(e.getLeft());
+		int[] right = toArray(e.getRight());
+		for (int rightAtom : right) {
+			flatSubsumptions.add(new FlatSubsumption(atoms, left, rightAtom));
 		}
-		for (Atom leftAtom : left) {
-			flatSubsumptions.add(new FlatSubsumption(right, leftAtom));
+		for (int leftAtom : left) {
+			flatSubsumptions.add(new FlatSubsumption(atoms, right, leftAtom));
 		}
 	}
 
-	private static void convert(Subsumption s, AtomManager atomManager, Set<FlatSubsumption> flatSubsumptions) {
-		List<Atom> left = toAtoms(s.getLeft(), atomManager);
-		List<Atom> right = toAtoms(s.getRight(), atomManager);
-		for (Atom rightAtom : right) {
-			flatSubsumptions.add(new FlatSubsumption(left, rightAtom));
+	private static void convert(Subsumption s, AtomTable atoms, Set<FlatSubsumption> flatSubsumptions) {
+		int[] left = toArray(s.getLeft());
+		int[] right = toArray(s.getRight());
+		for (int rightAtom : right) {
+			flatSubsumptions.add(new FlatSubsumption(atoms, left, rightAtom));
 		}
 	}
 
-	private static Set<FlatSubsumption> convertInput(Goal input) {
+	private static Set<FlatSubsumption> convertInput(Goal input, AtomTable atoms) {
 		Set<FlatSubsumption> flatSubsumptions = new HashSet<>();
 		for (Definition d : input.getDefinitions()) {
-			convert(d, input.getAtomManager(), flatSubsumptions);
+			convert(d, atoms, flatSubsumptions);
 		}
 		for (Subsumption s : input.getSubsumptions()) {
-			convert(s, input.getAtomManager(), flatSubsumptions);
+			convert(s, atoms, flatSubsumptions);
 		}
 		for (Equation e : input.getEquations()) {
-			convert(e, input.getAtomManager(), flatSubsumptions);
+			convert(e, atoms, flatSubsumptions);
 		}
 		// TODO dissubsumptions and disequations are not supported yet
 		return flatSubsumptions;
 	}
 
-	private static List<Atom> toAtoms(Set<Integer> atomIds, AtomManager atomManager) {
-		List<Atom> atoms = new ArrayList<>();
+	private static int[] toArray(Set<Integer> atomIds) {
+		int[] ret = new int[atomIds.size()];
+		int i = 0;
 		for (Integer atomId : atomIds) {
-			atoms.add(atomManager.getAtom(atomId));
+			ret[i++] = atomId;
 		}
-		return atoms;
+		return ret;
 	}
 
+	private final AtomTable atoms;
 	private Set<FlatSubsumption> goal;
 	private int maxSize;
-	private Map<Atom, Set<FlatSubsumption>> variableBodyIndex;
-	private Map<Atom, Set<FlatSubsumption>> variableHeadIndex;
+	private final ToIntFunction<? super FlatSubsumption> order;
+	private final SubsumptionQueue unsolvedSubsumptions;
+	// sets of subsumptions, indexed by the variables in their body or head
+	private final List<Set<FlatSubsumption>> variableBodyIndex;
+	private final List<Set<FlatSubsumption>> variableHeadIndex;
 
 	/**
 	 * Construct a new goal from a set of equations given by a UelInput object.
 	 * 
 	 * @param input
 	 *            the input object
+	 * @param order
+	 *            the function computing the priorities of unsolved
+	 *            subsumptions
 	 */
-	NormalizedGoal(Goal input) {
-		goal = convertInput(input);
+	NormalizedGoal(Goal input, ToIntFunction<? super FlatSubsumption> order) {
+		atoms = new AtomTable(input.getAtomManager());
+		goal = convertInput(input, atoms);
 		maxSize = goal.size();
-		variableBodyIndex = new HashMap<>();
-		variableHeadIndex = new HashMap<>();
+		this.order = order;
+		unsolvedSubsumptions = new SubsumptionQueue(order);
+		variableBodyIndex = new ArrayList<>(Collections.nCopies(atoms.size(), null));
+		variableHeadIndex = new ArrayList<>(Collections.nCopies(atoms.size(), null));
 		for (FlatSubsumption sub : goal) {
 			addToIndex(sub);
 		}
 	}
 
+	/**
+	 * Construct a copy of another goal. The subsumptions are copied together
+	 * with their 'solved' status, so that the two goals can be changed
+	 * independently. The unsolved subsumptions are chosen in the same order as
+	 * in the other goal.
+	 * 
+	 * @param other
+	 *            the goal to be copied
+	 */
+	NormalizedGoal(NormalizedGoal other) {
+		atoms = other.atoms;
+		goal = new HashSet<>();
+		maxSize = other.goal.size();
+		order = other.order;
+		Map<FlatSubsumption, FlatSubsumption> copies = new HashMap<>();
+		for (FlatSubsumption sub : other.goal) {
+			FlatSubsumption copy = new FlatSubsumption(sub, sub.getHead(), sub.getHeadId());
+			copy.setSolved(sub.isSolved());
+			copies.put(sub, copy);
+		}
+		unsolvedSubsumptions = new SubsumptionQueue(other.unsolvedSubsumptions, copies::get);
+		variableBodyIndex = new ArrayList<>(Collections.nCopies(atoms.size(), null));
+		variableHeadIndex = new ArrayList<>(Collections.nCopies(atoms.size(), null));
+		for (FlatSubsumption copy : copies.values()) {
+			goal.add(copy);
+			addToIndex(copy);
+		}
+	}
+
 	@Override
 	public boolean add(FlatSubsumption sub) {
 		if (!goal.add(sub)) {
@@ -121,20 +161,25 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	}
 
 	private void addToIndex(FlatSubsumption sub) {
-		for (Atom at : sub.getBody()) {
-			if (at.isVariable()) {
+		if (!sub.isSolved()) {
+			unsolvedSubsumptions.add(sub);
+		}
+		for (int at : sub.getBodyIds()) {
+			if (atoms.isVariable(at)) {
 				getOrInitBodyIndex(at).add(sub);
 			}
 		}
-		if (sub.getHead().isVariable()) {
-			getOrInitHeadIndex(sub.getHead()).add(sub);
+		if (atoms.isVariable(sub.getHeadId())) {
+			getOrInitHeadIndex(sub.getHeadId()).add(sub);
 		}
 	}
 
 	@Override
 	public void clear() {
 		goal.clear();
-		variableBodyIndex.clear();
+		unsolvedSubsumptions.clear();
+		Collections.fill(variableBodyIndex, null);
+		Collections.fill(variableHeadIndex, null);
 	}
 
 	@Override
@@ -158,33 +203,33 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	 */
 	Set<FlatSubsumption> expand(Assignment assign) {
 		Set<FlatSubsumption> newSubs = new HashSet<>();
-		for (Atom var : assign.getKeys()) {
+		for (int var = assign.nextVariable(0); var >= 0; var = assign.nextVariable(var + 1)) {
 			for (FlatSubsumption sub : getOrInitHeadIndex(var)) {
-				expand(sub, assign.getSubsumers(var), newSubs);
+				expand(sub, assign, var, newSubs);
 			}
 		}
 		return newSubs;
 	}
 
 	/**
-	 * Expand a goal subsumption using a set of subsumers.
+	 * Expand a goal subsumption using the subsumers of its head.
 	 * 
 	 * @param sub
 	 *            a goal subsumption with a variable on the right-hand side
-	 * @param subsumers
-	 *            a set of subsumers of the variable
+	 * @param assign
+	 *            an assignment specifying the subsumers of the variable
 	 * @return a set containing the subsumptions added as a result of this
 	 *         operation
 	 */
-	Set<FlatSubsumption> expand(FlatSubsumption sub, Set<Atom> subsumers) {
+	Set<FlatSubsumption> expand(FlatSubsumption sub, Assignment assign) {
 		Set<FlatSubsumption> newSubs = new HashSet<>();
-		expand(sub, subsumers, newSubs);
+		expand(sub, assign, sub.getHeadId(), newSubs);
 		return newSubs;
 	}
 
-	private void expand(FlatSubsumption sub, Set<Atom> subsumers, Set<FlatSubsumption> collection) {
-		for (Atom at : subsumers) {
-			FlatSubsumption newSub = new FlatSubsumption(sub.getBody(), at);
+	private void expand(FlatSubsumption sub, Assignment assign, int var, Set<FlatSubsumption> collection) {
+		for (int at = assign.nextSubsumer(var, 0); at >= 0; at = assign.nextSubsumer(var, at + 1)) {
+			FlatSubsumption newSub = new FlatSubsumption(sub, atoms.getAtom(at), at);
 			if (add(newSub)) {
 				// only add the subsumption if it is new
 				collection.add(newSub);
@@ -192,6 +237,24 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		}
 	}
 
+	/**
+	 * Retrieve the subsumption of this goal that is equal to a given one. This
+	 * takes time linear in the size of the goal.
+	 * 
+	 * @param sub
+	 *            a subsumption
+	 * @return the subsumption of this goal that is equal to 'sub', or 'null'
+	 *         if there is no such subsumption
+	 */
+	FlatSubsumption get(FlatSubsumption sub) {
+		for (FlatSubsumption goalSub : goal) {
+			if (goalSub.equals(sub)) {
+				return goalSub;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Retrieve the maximal number of subsumptions observed so far.
 	 * 
@@ -201,18 +264,40 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		return maxSize;
 	}
 
-	private Set<FlatSubsumption> getOrInitBodyIndex(Atom var) {
-		if (!variableBodyIndex.containsKey(var)) {
-			variableBodyIndex.put(var, new HashSet<>());
-		}
-		return variableBodyIndex.get(var);
+	/**
+	 * Retrieve the unsolved subsumption that should be considered next.
+	 * 
+	 * @return the unsolved subsumption with the smallest priority, or 'null'
+	 *         if all subsumptions are solved
+	 */
+	FlatSubsumption getNextUnsolvedSubsumption() {
+		return unsolvedSubsumptions.peek();
+	}
+
+	/**
+	 * Retrieve the table of all atoms of this goal.
+	 * 
+	 * @return the atom table
+	 */
+	AtomTable getAtomTable() {
+		return atoms;
+	}
+
+	private Set<FlatSubsumption> getOrInitBodyIndex(int var) {
+		return getOrInit(variableBodyIndex, var);
 	}
 
-	private Set<FlatSubsumption> getOrInitHeadIndex(Atom var) {
-		if (!variableHeadIndex.containsKey(var)) {
-			variableHeadIndex.put(var, new HashSet<>());
+	private Set<FlatSubsumption> getOrInitHeadIndex(int var) {
+		return getOrInit(variableHeadIndex, var);
+	}
+
+	private static Set<FlatSubsumption> getOrInit(List<Set<FlatSubsumption>> index, int var) {
+		Set<FlatSubsumption> subs = index.get(var);
+		if (subs == null) {
+			subs = new HashSet<>();
+			index.set(var, subs);
 		}
-		return variableHeadIndex.get(var);
+		return subs;
 	}
 
 	/**
@@ -223,7 +308,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	 *            the variable index
 	 * @return the set of all subsumptions satisfying the condition
 	 */
-	protected Set<FlatSubsumption> getSubsumptionsByBodyVariable(Atom var) {
+	protected Set<FlatSubsumption> getSubsumptionsByBodyVariable(int var) {
 		return getOrInitBodyIndex(var);
 	}
 
@@ -235,7 +320,7 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	 *            the variable index
 	 * @return the set of all subsumptions satisfying the condition
 	 */
-	protected Set<FlatSubsumption> getSubsumptionsByHeadVariable(Atom var) {
+	protected Set<FlatSubsumption> getSubsumptionsByHeadVariable(int var) {
 		return getOrInitHeadIndex(var);
 	}
 
@@ -272,13 +357,14 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 	}
 
 	private void removeFromIndex(FlatSubsumption sub) {
-		for (Atom at : sub.getBody()) {
-			if (at.isVariable()) {
+		unsolvedSubsumptions.remove(sub);
+		for (int at : sub.getBodyIds()) {
+			if (atoms.isVariable(at)) {
 				variableBodyIndex.get(at).remove(sub);
 			}
 		}
-		if (sub.getHead().isVariable()) {
-			variableHeadIndex.get(sub.getHead()).remove(sub);
+		if (atoms.isVariable(sub.getHeadId())) {
+			variableHeadIndex.get(sub.getHeadId()).remove(sub);
 		}
 	}
 
@@ -287,6 +373,24 @@ class NormalizedGoal implements Set<FlatSubsumption> {
 		throw new UnsupportedOperationException();
 	}
 
+	/**
+	 * Set the 'solved' status of a goal subsumption and update the queue of
+	 * unsolved subsumptions accordingly.
+	 * 
+	 * @param sub
+	 *            a subsumption of this goal
+	 * @param solved
+	 *            a flag indicating whether the subsumption is solved
+	 */
+	void setSolved(FlatSubsumption sub, boolean solved) {
+		sub.setSolved(solved);
+		if (solved) {
+			unsolvedSubsumptions.remove(sub);
+		} else if (goal.contains(sub)) {
+			unsolvedSubsumptions.add(sub);
+		}
+	}
+
 	@Override
 	public int size() {
 		return goal.size();
@@ -0,0 +1,235 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tudresden.inf.lat.uel.type.impl.Unifier;
+
+/**
+ * An object of this class explores the search tree of the rule-based
+ * unification algorithm in parallel. Each task of a fork/join pool is executed
+ * by a copy of the algorithm with its own goal and assignment. Whenever such a
+ * worker reaches a choice point while other workers are idle, it forks a task
+ * for the untried alternatives, which can then be stolen by an idle worker.
+ * The unifiers found by all workers are collected in a bounded queue.
+ */
+class ParallelSearch {
+
+	/**
+	 * Explores the alternatives of one choice point.
+	 */
+	private class SearchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 2858213400316413871L;
+
+		private final int alternative;
+		private final int limit;
+		private final FlatSubsumption sub;
+		private final RuleBasedUnificationAlgorithm worker;
+
+		SearchTask(RuleBasedUnificationAlgorithm worker, FlatSubsumption sub, int alternative, int limit) {
+			this.worker = worker;
+			this.sub = sub;
+			this.alternative = alternative;
+			this.limit = limit;
+		}
+
+		@Override
+		protected void compute() {
+			try {
+				if (!cancelled) {
+					worker.explore(sub, alternative, limit);
+				}
+			} catch (InterruptedException e) {
+				// the search was cancelled
+			} catch (RuntimeException e) {
+				failure = e;
+			} finally {
+				if (runningTasks.decrementAndGet() == 0) {
+					// wake up the caller if it is waiting for a unifier
+					unifiers.offer(END_OF_SEARCH);
+				}
+			}
+		}
+
+	}
+
+	private static final int QUEUE_CAPACITY = 1024;
+	private static final long POLL_INTERVAL = 100;
+	// signals that all tasks are finished
+	private static final Unifier END_OF_SEARCH = new Unifier(Collections.emptySet());
+
+	private volatile boolean cancelled = false;
+	private final AtomicInteger deadEnds = new AtomicInteger();
+	private volatile RuntimeException failure;
+	private boolean finished = false;
+	private final AtomicInteger maxSubs = new AtomicInteger();
+	private ForkJoinPool pool;
+	private final AtomicInteger runningTasks = new AtomicInteger();
+	private final AtomicInteger treeSize = new AtomicInteger();
+	private final BlockingQueue<Unifier> unifiers = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	/**
+	 * Add the statistics of a worker to the overall statistics.
+	 *
+	 * @param newTreeSize
+	 *            the number of new nodes of the search tree
+	 * @param newDeadEnds
+	 *            the number of new dead ends
+	 * @param newMaxSubs
+	 *            the maximal number of subsumptions of the worker's goal
+	 */
+	void addStatistics(int newTreeSize, int newDeadEnds, int newMaxSubs) {
+		treeSize.addAndGet(newTreeSize);
+		deadEnds.addAndGet(newDeadEnds);
+		maxSubs.accumulateAndGet(newMaxSubs, Math::max);
+	}
+
+	/**
+	 * Stops the search. Workers notice this before they consider the next
+	 * choice point.
+	 */
+	void cancel() {
+		cancelled = true;
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+		unifiers.clear();
+	}
+
+	/**
+	 * Schedule the exploration of some alternatives of a choice point. This
+	 * method must be called from a task of this search.
+	 *
+	 * @param worker
+	 *            a worker whose state is at the choice point; it must not be
+	 *            used by any other task
+	 * @param sub
+	 *            the subsumption of the worker's goal that is considered at
+	 *            the choice point
+	 * @param alternative
+	 *            the number of the first alternative to be explored
+	 * @param limit
+	 *            the number of the first alternative that is not to be
+	 *            explored
+	 */
+	void fork(RuleBasedUnificationAlgorithm worker, FlatSubsumption sub, int alternative, int limit) {
+		runningTasks.incrementAndGet();
+		new SearchTask(worker, sub, alternative, limit).fork();
+	}
+
+	/**
+	 * Returns the number of dead ends encountered by all workers so far.
+	 *
+	 * @return the number of dead ends
+	 */
+	int getDeadEnds() {
+		return deadEnds.get();
+	}
+
+	/**
+	 * Returns the maximal number of subsumptions in the goal of any worker so
+	 * far.
+	 *
+	 * @return the maximal number of subsumptions
+	 */
+	int getMaxSubs() {
+		return maxSubs.get();
+	}
+
+	/**
+	 * Returns the number of nodes of the search tree explored by all workers
+	 * so far.
+	 *
+	 * @return the size of the search tree
+	 */
+	int getTreeSize() {
+		return treeSize.get();
+	}
+
+	/**
+	 * Checks whether the search has been cancelled.
+	 *
+	 * @return true iff {@link #cancel()} has been called
+	 */
+	boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Returns the next unifier found by any of the workers.
+	 *
+	 * @return the next unifier, or <code>null</code> if the whole search tree
+	 *         has been explored
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting for a unifier; in
+	 *             this case, the search is cancelled
+	 */
+	Unifier next() throws InterruptedException {
+		if ((pool == null) || finished) {
+			return null;
+		}
+		try {
+			while (true) {
+				Unifier unifier = unifiers.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (failure != null) {
+					cancel();
+					throw failure;
+				}
+				if ((unifier == null) && (runningTasks.get() == 0)) {
+					// all workers are finished, but may have added a last
+					// unifier
+					unifier = unifiers.poll();
+				}
+				if ((unifier == END_OF_SEARCH) || ((unifier == null) && (runningTasks.get() == 0))) {
+					finished = true;
+					pool.shutdown();
+					return null;
+				}
+				if (unifier != null) {
+					return unifier;
+				}
+			}
+		} catch (InterruptedException e) {
+			cancel();
+			throw e;
+		}
+	}
+
+	/**
+	 * Passes a unifier found by a worker to the caller.
+	 *
+	 * @param unifier
+	 *            the unifier
+	 * @return false iff the search was cancelled before the unifier could be
+	 *         passed on
+	 * @throws InterruptedException
+	 *             if the worker is interrupted while waiting
+	 */
+	boolean offer(Unifier unifier) throws InterruptedException {
+		while (!unifiers.offer(unifier, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+			if (cancelled) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Starts the search.
+	 *
+	 * @param root
+	 *            a worker whose state is at the root of the search tree
+	 */
+	void start(RuleBasedUnificationAlgorithm root) {
+		pool = new ForkJoinPool();
+		runningTasks.set(1);
+		pool.execute(new SearchTask(root, null, 0, Integer.MAX_VALUE));
+	}
+
+}
@@ -10,6 +10,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToIntFunction;
 
 import de.tudresden.inf.lat.uel.rule.rules.DecompositionRule;
 import de.tudresden.inf.lat.uel.rule.rules.EagerConflictRule;
@@ -21,7 +23,6 @@ import de.tudresden.inf.lat.uel.rule.rules.EagerSolving2Rule;
 import de.tudresden.inf.lat.uel.rule.rules.ExtensionRule;
 import de.tudresden.inf.lat.uel.rule.rules.Rule;
 import de.tudresden.inf.lat.uel.rule.rules.Rule.Application;
-import de.tudresden.inf.lat.uel.type.api.Atom;
 import de.tudresden.inf.lat.uel.type.api.AtomManager;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Goal;
@@ -47,6 +48,27 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
  */
 public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
+	/**
+	 * A choice point of the search, consisting of the result of a
+	 * nondeterministic rule application and the range of alternatives that
+	 * remain to be explored.
+	 */
+	private static final class ChoicePoint {
+
+		// the number of the next alternative
+		private final int alternative;
+		// the number of the first alternative that is not explored
+		private final int limit;
+		private final Result result;
+
+		ChoicePoint(Result result, int alternative, int limit) {
+			this.result = result;
+			this.alternative = alternative;
+			this.limit = limit;
+		}
+
+	}
+
 	private static final String keyName = "Name";
 	private static final String keyInitialSubs = "Initial number of subsumptions";
 	private static final String keyMaxSubs = "Max. number of subsumptions (so far)";
@@ -54,6 +76,8 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	private static final String keyDeadEnds = "Number of encountered dead ends (so far)";
 	private static final String keyNumberOfVariables = "Number of variables";
 	private static final String algorithmName = "Rule-based algorithm";
+	// a worker only splits off alternatives if it has fewer surplus tasks
+	private static final int SPLIT_THRESHOLD = 2;
 
 	private List<EagerRule> staticEagerRules;
 	private List<EagerRule> dynamicEagerRules;
@@ -66,41 +90,112 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	private int treeSize = 1;
 	private int deadEnds = 0;
 	private final int numVariables;
+	private final boolean parallel;
+	private ParallelSearch parallelSearch = null;
+	private Unifier unifier = null;
 
-	private Deque<Result> searchStack = null;
+	private Deque<ChoicePoint> searchStack = null;
 
 	/**
-	 * Initialize a new unification problem with goal subsumptions.
+	 * Initialize a new unification problem with goal subsumptions. The
+	 * unsolved subsumptions are chosen according to the strategy
+	 * {@link SubsumptionOrder#FIRST_IN_FIRST_OUT}.
 	 * 
 	 * @param input
 	 *            a UelInput object that will return the subsumptions to be
 	 *            solved
 	 */
 	public RuleBasedUnificationAlgorithm(Goal input) {
-		this.goal = new NormalizedGoal(input);
+		this(input, SubsumptionOrder.FIRST_IN_FIRST_OUT);
+	}
+
+	/**
+	 * Initialize a new unification problem with goal subsumptions.
+	 * 
+	 * @param input
+	 *            a UelInput object that will return the subsumptions to be
+	 *            solved
+	 * @param order
+	 *            the function computing the priorities of unsolved
+	 *            subsumptions; the nondeterministic rules are always applied
+	 *            to an unsolved subsumption with the smallest priority
+	 */
+	public RuleBasedUnificationAlgorithm(Goal input, ToIntFunction<? super FlatSubsumption> order) {
+		this(input, order, false);
+	}
+
+	/**
+	 * Initialize a new unification problem with goal subsumptions.
+	 * 
+	 * @param input
+	 *            a UelInput object that will return the subsumptions to be
+	 *            solved
+	 * @param order
+	 *            the function computing the priorities of unsolved
+	 *            subsumptions; the nondeterministic rules are always applied
+	 *            to an unsolved subsumption with the smallest priority
+	 * @param parallel
+	 *            <code>true</code> iff the search tree should be explored by
+	 *            several threads; in this case, the unifiers are not returned
+	 *            in a fixed order
+	 */
+	public RuleBasedUnificationAlgorithm(Goal input, ToIntFunction<? super FlatSubsumption> order,
+			boolean parallel) {
+		if (order == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		this.goal = new NormalizedGoal(input, order);
 		this.input = input;
 		if (input.hasNegativePart()) {
 			throw new UnsupportedOperationException(
 					"The rule-based algorithm cannot deal with dissubsubmptions or disequations!");
 		}
-		this.assignment = new Assignment();
+		this.assignment = new Assignment(goal.getAtomTable());
 		this.initialSize = goal.size();
 		this.numVariables = input.getAtomManager().getVariables().size();
+		this.parallel = parallel;
 
 		for (FlatSubsumption sub : goal) {
 			if (sub.getHead().isVariable()) {
 				// subsumptions with a variable on the right-hand side are
 				// always solved
-				sub.setSolved(true);
+				goal.setSolved(sub, true);
 			}
 		}
 
 		initRules();
 	}
 
+	/**
+	 * Construct a worker of a parallel search, whose goal and assignment are
+	 * copies of the current ones of another instance.
+	 * 
+	 * @param other
+	 *            the instance to be copied
+	 */
+	private RuleBasedUnificationAlgorithm(RuleBasedUnificationAlgorithm other) {
+		this.input = other.input;
+		this.goal = new NormalizedGoal(other.goal);
+		this.assignment = new Assignment(goal.getAtomTable());
+		this.assignment.addAll(other.assignment);
+		this.initialSize = other.initialSize;
+		this.treeSize = 0;
+		this.numVariables = other.numVariables;
+		this.parallel = false;
+		this.parallelSearch = other.parallelSearch;
+		this.searchStack = new ArrayDeque<>();
+		this.staticEagerRules = other.staticEagerRules;
+		this.dynamicEagerRules = other.dynamicEagerRules;
+		this.nondeterministicRules = other.nondeterministicRules;
+	}
+
 	@Override
 	public void cleanup() {
 		// reset computation of results
+		if (parallel && (parallelSearch != null)) {
+			parallelSearch.cancel();
+		}
+		parallelSearch = null;
 		searchStack = null;
 	}
 
@@ -113,12 +208,20 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	}
 
 	public List<Entry<String, String>> getInfo() {
+		int maxSubs = goal.getMaxSize();
+		int totalTreeSize = treeSize;
+		int totalDeadEnds = deadEnds;
+		if (parallel && (parallelSearch != null)) {
+			maxSubs = Math.max(maxSubs, parallelSearch.getMaxSubs());
+			totalTreeSize += parallelSearch.getTreeSize();
+			totalDeadEnds += parallelSearch.getDeadEnds();
+		}
 		List<Entry<String, String>> ret = new ArrayList<>();
 		addEntry(ret, keyName, algorithmName);
 		addEntry(ret, keyInitialSubs, "" + initialSize);
-		addEntry(ret, keyMaxSubs, "" + goal.getMaxSize());
-		addEntry(ret, keyTreeSize, "" + treeSize);
-		addEntry(ret, keyDeadEnds, "" + deadEnds);
+		addEntry(ret, keyMaxSubs, "" + maxSubs);
+		addEntry(ret, keyTreeSize, "" + totalTreeSize);
+		addEntry(ret, keyDeadEnds, "" + totalDeadEnds);
 		addEntry(ret, keyNumberOfVariables, "" + numVariables);
 		return ret;
 	}
@@ -149,26 +252,22 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	 *         subsumptions
 	 */
 	public boolean computeNextUnifier() throws InterruptedException {
+		if (parallel) {
+			if (parallelSearch == null) {
+				parallelSearch = new ParallelSearch();
+				if (initialize()) {
+					parallelSearch.start(new RuleBasedUnificationAlgorithm(this));
+				}
+			}
+			unifier = parallelSearch.next();
+			return unifier != null;
+		}
+
 		if (searchStack == null) {
 			searchStack = new ArrayDeque<>();
-
-			// apply eager rules to each unsolved subsumption
-			Result res = applyEagerRules(goal, staticEagerRules, null);
-			if (!res.wasSuccessful())
+			if (!initialize()) {
 				return false;
-			for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-				sub.setSolved(true);
 			}
-			Assignment tmp = new Assignment();
-			res = applyEagerRules(goal, dynamicEagerRules, tmp);
-			if (!res.wasSuccessful())
-				return false;
-			if (!commitResult(res, tmp))
-				return false;
-
-			// exhaustively apply eager rules to the result of this initial
-			// iteration
-			applyEagerRules(res);
 		} else {
 			// we already have a search stack --> try to backtrack from last
 			// solution
@@ -179,15 +278,94 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		return solve();
 	}
 
+	/**
+	 * Apply the eager rules to the input goal.
+	 * 
+	 * @return false iff it was detected that there is no unifier
+	 */
+	private boolean initialize() {
+		// apply eager rules to each unsolved subsumption
+		Result res = applyEagerRules(goal, staticEagerRules, null);
+		if (!res.wasSuccessful())
+			return false;
+		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
+			goal.setSolved(sub, true);
+		}
+		assignment = new Assignment(goal.getAtomTable());
+		res = applyEagerRules(goal, dynamicEagerRules, assignment);
+		if (!res.wasSuccessful())
+			return false;
+		if (!commitResult(res, true))
+			return false;
+
+		// exhaustively apply eager rules to the result of this initial
+		// iteration; the changes cannot be rolled back, so a failure means
+		// that there is no unifier
+		if (!applyEagerRules(res)) {
+			deadEnds++;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Explore a part of the search tree as a worker of a parallel search, and
+	 * pass all unifiers found to the search.
+	 * 
+	 * @param sub
+	 *            the subsumption of the goal of this worker that is considered
+	 *            at the root of the part, or 'null' if the whole search tree
+	 *            is to be explored
+	 * @param alternative
+	 *            the number of the first alternative at the root
+	 * @param limit
+	 *            the number of the first alternative at the root that is not
+	 *            to be explored
+	 * @throws InterruptedException
+	 *             if the search was cancelled
+	 */
+	void explore(FlatSubsumption sub, int alternative, int limit) throws InterruptedException {
+		try {
+			boolean found;
+			if (sub == null) {
+				found = solve();
+			} else if (applyNextNondeterministicRule(sub, null, alternative, limit)) {
+				found = solve();
+			} else {
+				deadEnds++;
+				found = false;
+			}
+			while (found) {
+				reportStatistics();
+				if (!parallelSearch.offer(getUnifier())) {
+					return;
+				}
+				found = backtrack() && solve();
+			}
+		} finally {
+			reportStatistics();
+		}
+	}
+
+	private void reportStatistics() {
+		parallelSearch.addStatistics(treeSize, deadEnds, goal.getMaxSize());
+		treeSize = 0;
+		deadEnds = 0;
+	}
+
 	@Override
 	public Unifier getUnifier() {
+		if (parallel) {
+			return unifier;
+		}
+
 		// convert current assignment to a set of definitions
 		AtomManager atomManager = input.getAtomManager();
 		Set<Definition> definitions = new HashSet<>();
 		for (Integer varId : atomManager.getVariables()) {
 			Set<Integer> body = new HashSet<>();
-			for (Atom subsumer : assignment.getSubsumers(atomManager.getAtom(varId))) {
-				body.add(atomManager.getIndex(subsumer));
+			for (int at = assignment.nextSubsumer(varId, 0); at >= 0; at = assignment.nextSubsumer(varId, at + 1)) {
+				body.add(at);
 			}
 			definitions.add(new Definition(varId, body, false));
 		}
@@ -197,14 +375,14 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	private boolean solve() throws InterruptedException {
 		while (true) {
 
-			if (Thread.interrupted()) {
+			if (Thread.interrupted() || ((parallelSearch != null) && parallelSearch.isCancelled())) {
 				throw new InterruptedException();
 			}
 
-			FlatSubsumption sub = chooseUnsolvedSubsumption();
+			FlatSubsumption sub = goal.getNextUnsolvedSubsumption();
 			if (sub == null)
 				return true;
-			if (applyNextNondeterministicRule(sub, null))
+			if (applyNextNondeterministicRule(sub, null, 0, split(sub, 0, Integer.MAX_VALUE)))
 				continue;
 			deadEnds++;
 			if (!backtrack())
@@ -214,21 +392,57 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 	private boolean backtrack() {
 		while (!searchStack.isEmpty()) {
-			Result res = searchStack.pop();
-			rollBackResult(res);
-			if (applyNextNondeterministicRule(res.getSubsumption(), res.getApplication())) {
+			ChoicePoint choice = searchStack.pop();
+			rollBackResult(choice.result);
+			FlatSubsumption sub = choice.result.getSubsumption();
+			if (applyNextNondeterministicRule(sub, choice.result.getApplication(), choice.alternative,
+					split(sub, choice.alternative, choice.limit))) {
 				return true;
 			}
 		}
 		return false;
 	}
 
-	private FlatSubsumption chooseUnsolvedSubsumption() {
-		for (FlatSubsumption sub : goal) {
-			if (!sub.isSolved())
-				return sub;
+	/**
+	 * Count the applications of the nondeterministic rules to a subsumption.
+	 */
+	private int countAlternatives(FlatSubsumption sub) {
+		int count = 0;
+		for (Rule rule : nondeterministicRules) {
+			Rule.Application appl = rule.getFirstApplication(sub, assignment);
+			while (appl != null) {
+				count++;
+				appl = rule.getNextApplication(sub, assignment, appl);
+			}
 		}
-		return null;
+		return count;
+	}
+
+	/**
+	 * If this is a worker of a parallel search and there are idle workers,
+	 * fork a task that explores all alternatives of the current choice point
+	 * except the next one.
+	 * 
+	 * @param sub
+	 *            the subsumption considered at the current choice point
+	 * @param alternative
+	 *            the number of the next alternative
+	 * @param limit
+	 *            the number of the first alternative that is not to be
+	 *            explored
+	 * @return the new limit for this worker
+	 */
+	private int split(FlatSubsumption sub, int alternative, int limit) {
+		if ((parallelSearch == null) || (ForkJoinTask.getSurplusQueuedTaskCount() >= SPLIT_THRESHOLD)) {
+			return limit;
+		}
+		int end = Math.min(limit, countAlternatives(sub));
+		if (end - alternative < 2) {
+			return limit;
+		}
+		RuleBasedUnificationAlgorithm worker = new RuleBasedUnificationAlgorithm(this);
+		parallelSearch.fork(worker, worker.goal.get(sub), alternative + 1, end);
+		return alternative + 1;
 	}
 
 	private Result applyEagerRules(Collection<FlatSubsumption> subs, List<EagerRule> rules,
@@ -243,10 +457,12 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 					if (!r.wasSuccessful())
 						return r;
 					res.getSolvedSubsumptions().add(sub);
-					res.getNewSubsumers().addAll(r.getNewSubsumers());
 					if (currentAssignment != null) {
+						// only record the atoms that are actually new
+						r.getNewSubsumers().removeAll(currentAssignment);
 						currentAssignment.addAll(r.getNewSubsumers());
 					}
+					res.getNewSubsumers().addAll(r.getNewSubsumers());
 					break;
 				}
 			}
@@ -254,24 +470,54 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		return res;
 	}
 
-	private boolean applyNextNondeterministicRule(FlatSubsumption sub, Rule.Application previous) {
+	/**
+	 * Apply the next successful nondeterministic rule application to a
+	 * subsumption, together with the eager rules, and put the result on the
+	 * search stack. The rule applications are numbered consecutively, starting
+	 * from 0.
+	 * 
+	 * @param sub
+	 *            the considered subsumption
+	 * @param previous
+	 *            the rule application with the number 'alternative - 1', or
+	 *            'null' if the applications have to be enumerated from the
+	 *            beginning
+	 * @param alternative
+	 *            the number of the first rule application to be tried
+	 * @param limit
+	 *            the number of the first rule application that is not to be
+	 *            tried
+	 * @return true iff a rule application was successful
+	 */
+	private boolean applyNextNondeterministicRule(FlatSubsumption sub, Rule.Application previous, int alternative,
+			int limit) {
 		Iterator<Rule> iter = nondeterministicRules
 				.listIterator((previous == null) ? 0 : nondeterministicRules.indexOf(previous.rule()));
+		// the number of the next rule application
+		int number = (previous == null) ? 0 : alternative;
 
 		while (iter.hasNext()) {
 			Rule rule = iter.next();
-			while (true) {
-				Result res = tryApplyRule(sub, rule, previous, assignment);
-				if (res == null)
+			while (number < limit) {
+				Rule.Application next = (previous == null) ? rule.getFirstApplication(sub, assignment)
+						: rule.getNextApplication(sub, assignment, previous);
+				if (next == null)
 					break;
-				previous = res.getApplication();
+				previous = next;
+				number++;
+				if (number <= alternative) {
+					// skip the applications before 'alternative'
+					continue;
+				}
+				Result res = rule.apply(sub, assignment, next);
 				if (!res.wasSuccessful())
 					continue;
 
 				// now 'res' is the result of a successful nondeterministic rule
 				// application ->
 				// apply eager rules, put result on the stack
-				if (!commitResult(res, null)) {
+				assignment.newLevel();
+				if (!commitResult(res, false)) {
 					// application of static eager rules failed -> roll back
 					// changes and continue search
 					deadEnds++;
@@ -284,7 +530,7 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 					rollBackResult(res);
 					continue;
 				}
-				searchStack.push(res);
+				searchStack.push(new ChoicePoint(res, number, limit));
 				treeSize++;
 				return true;
 			}
@@ -295,6 +541,8 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 	/**
 	 * Exhaustively apply all applicable eager rules to the goal subsumptions.
+	 * The new subsumers are added directly to the current assignment, where
+	 * they are recorded on the trail of the current level.
 	 * 
 	 * @param parent
 	 *            the previous result of a nondeterministic rule application to
@@ -305,13 +553,13 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	private boolean applyEagerRules(Result parent) {
 		Result currentResult = parent;
 		Result nextResult = new Result(null, null);
-		Assignment tmp = new Assignment(assignment);
 
 		do {
 
 			// apply dynamic eager rules to each new unsolved subsumption
 			{
-				Result res = applyEagerRules(currentResult.getNewUnsolvedSubsumptions(), dynamicEagerRules, tmp);
+				Result res = applyEagerRules(currentResult.getNewUnsolvedSubsumptions(), dynamicEagerRules,
+						assignment);
 				if (!res.wasSuccessful())
 					return false;
 				nextResult.getSolvedSubsumptions().addAll(res.getSolvedSubsumptions());
@@ -320,24 +568,21 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 
 			// apply dynamic eager rules for each new assignment
 			Assignment newSubsumers = currentResult.getNewSubsumers();
-			for (Atom var : newSubsumers.getKeys()) {
-				if (!newSubsumers.getSubsumers(var).isEmpty()) {
-					Result res = applyEagerRules(goal.getSubsumptionsByBodyVariable(var), dynamicEagerRules, tmp);
-					if (!res.wasSuccessful())
-						return false;
-					nextResult.getSolvedSubsumptions().addAll(res.getSolvedSubsumptions());
-					nextResult.getNewSubsumers().addAll(res.getNewSubsumers());
-				}
+			for (int var = newSubsumers.nextVariable(0); var >= 0; var = newSubsumers.nextVariable(var + 1)) {
+				Result res = applyEagerRules(goal.getSubsumptionsByBodyVariable(var), dynamicEagerRules, assignment);
+				if (!res.wasSuccessful())
+					return false;
+				nextResult.getSolvedSubsumptions().addAll(res.getSolvedSubsumptions());
+				nextResult.getNewSubsumers().addAll(res.getNewSubsumers());
 			}
 
-			boolean commitSuccessful = commitResult(nextResult, tmp);
+			boolean commitSuccessful = commitResult(nextResult, true);
 			parent.amend(nextResult);
 			if (!commitSuccessful)
 				return false;
 
 			currentResult = nextResult;
 			nextResult = new Result(null, null);
-			tmp = new Assignment(assignment);
 		} while (!currentResult.getNewSubsumers().isEmpty() || !currentResult.getNewUnsolvedSubsumptions().isEmpty());
 
 		return true;
@@ -381,16 +626,16 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 	 * 
 	 * @param res
 	 *            the result to be considered; will be changed in-place
-	 * @param newAssignment
-	 *            the new assignment that will replace the current assignment;
-	 *            if this is 'null', then the change will be computed from
-	 *            'res.getNewSubsumers()'
+	 * @param assigned
+	 *            <code>true</code> iff the new subsumers of 'res' have already
+	 *            been added to the current assignment; in this case,
+	 *            'res.getNewSubsumers()' must contain exactly the changes
 	 * @return <code>true</code> if and only if the execution was successful
 	 */
-	private boolean commitResult(Result res, Assignment newAssignment) {
+	private boolean commitResult(Result res, boolean assigned) {
 		// solve subsumption that triggered the rule
 		if (res.getSubsumption() != null) {
-			res.getSubsumption().setSolved(true);
+			goal.setSolved(res.getSubsumption(), true);
 		}
 
 		// add new unsolved subsumptions to the goal
@@ -400,7 +645,7 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 			if (sub.getHead().isVariable()) {
 				// subsumptions with a variable on the right-hand side are
 				// always solved
-				sub.setSolved(true);
+				goal.setSolved(sub, true);
 				res.getNewSolvedSubsumptions().add(sub);
 			}
 		}
@@ -412,21 +657,19 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 			 * we can assume that all new solved subsumptions have a variable in
 			 * the head
 			 */
-			Set<FlatSubsumption> newSubs = goal.expand(sub, assignment.getSubsumers(sub.getHead()));
+			Set<FlatSubsumption> newSubs = goal.expand(sub, assignment);
 			res.getNewUnsolvedSubsumptions().addAll(newSubs);
 		}
 
 		// solve subsumptions in 'res.solvedSubsumptions'
 		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-			sub.setSolved(true);
+			goal.setSolved(sub, true);
 		}
 
 		// update current assignment
-		res.getNewSubsumers().removeAll(assignment);
-		if (newAssignment == null) {
+		if (!assigned) {
+			res.getNewSubsumers().removeAll(assignment);
 			assignment.addAll(res.getNewSubsumers());
-		} else {
-			assignment = newAssignment;
 		}
 
 		// goal expansion (II)
@@ -438,29 +681,31 @@ public class RuleBasedUnificationAlgorithm implements UnificationAlgorithm {
 		if (!eagerRes.wasSuccessful())
 			return false;
 		for (FlatSubsumption sub : eagerRes.getSolvedSubsumptions()) {
-			sub.setSolved(true);
+			goal.setSolved(sub, true);
 		}
 		res.amend(eagerRes);
 		return true;
 	}
 
 	/**
-	 * Undo the changes made to the goal by a result.
+	 * Undo the changes made to the goal by a result. The changes to the
+	 * assignment are undone by backtracking to the level that was opened
+	 * before the result was committed.
 	 * 
 	 * @param res
 	 *            the result to undo
 	 */
 	private void rollBackResult(Result res) {
 
-		assignment.removeAll(res.getNewSubsumers());
+		assignment.backtrack();
 		goal.removeAll(res.getNewSolvedSubsumptions());
 		goal.removeAll(res.getNewUnsolvedSubsumptions());
 
 		for (FlatSubsumption sub : res.getSolvedSubsumptions()) {
-			sub.setSolved(false);
+			goal.setSolved(sub, false);
 		}
 
-		res.getSubsumption().setSolved(false);
+		goal.setSolved(res.getSubsumption(), false);
 	}
 
 }
@@ -0,0 +1,53 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.function.ToIntFunction;
+
+import de.tudresden.inf.lat.uel.type.api.Atom;
+import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
+
+/**
+ * Strategies for choosing the next unsolved subsumption to which the
+ * nondeterministic rules are applied. Each strategy assigns a priority to a
+ * subsumption when it becomes unsolved; subsumptions with a smaller priority
+ * are chosen first, and ties are broken in favor of the subsumption that has
+ * been unsolved for the longest time.
+ */
+public enum SubsumptionOrder implements ToIntFunction<FlatSubsumption> {
+
+	/**
+	 * Choose the subsumption with the fewest alternatives for the rules
+	 * 'Decomposition' and 'Extension' first, so that dead ends are detected
+	 * as early as possible. The number of alternatives of the rule 'Extension'
+	 * is over-approximated by the number of variables in the body, since
+	 * whether an extension makes the assignment cyclic changes during the
+	 * search.
+	 */
+	FAIL_FIRST {
+		@Override
+		public int applyAsInt(FlatSubsumption sub) {
+			Atom head = sub.getHead();
+			Integer role = head.isExistentialRestriction() ? ((ExistentialRestriction) head).getRoleId() : null;
+			int alternatives = 0;
+			for (Atom at : sub.getBody()) {
+				if (at.isVariable()) {
+					alternatives++;
+				} else if ((role != null) && at.isExistentialRestriction()
+						&& role.equals(((ExistentialRestriction) at).getRoleId())) {
+					alternatives++;
+				}
+			}
+			return alternatives;
+		}
+	},
+
+	/**
+	 * Choose the subsumptions in the order in which they became unsolved.
+	 */
+	FIRST_IN_FIRST_OUT {
+		@Override
+		public int applyAsInt(FlatSubsumption sub) {
+			return 0;
+		}
+	};
+
+}
@@ -0,0 +1,187 @@
+package de.tudresden.inf.lat.uel.rule;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A priority queue of the unsolved goal subsumptions, implemented as a binary
+ * heap. Each subsumption stores its position in the heap, so that it can be
+ * removed in logarithmic time when it becomes solved.
+ */
+class SubsumptionQueue {
+
+	private FlatSubsumption[] heap = new FlatSubsumption[16];
+	private final ToIntFunction<? super FlatSubsumption> priority;
+	private int[] priorities = new int[16];
+	private long sequence = 0;
+	private long[] sequences = new long[16];
+	private int size = 0;
+
+	/**
+	 * Construct a new empty queue.
+	 *
+	 * @param priority
+	 *            the function computing the priority of a subsumption
+	 */
+	SubsumptionQueue(ToIntFunction<? super FlatSubsumption> priority) {
+		if (priority == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		this.priority = priority;
+	}
+
+	/**
+	 * Construct a copy of another queue that contains copies of its
+	 * subsumptions. The copies keep the priorities and the insertion order of
+	 * the original subsumptions, so that both queues yield corresponding
+	 * subsumptions in the same order.
+	 *
+	 * @param other
+	 *            the queue to be copied
+	 * @param copies
+	 *            a function returning the copy of a subsumption of the other
+	 *            queue
+	 */
+	SubsumptionQueue(SubsumptionQueue other, Function<FlatSubsumption, FlatSubsumption> copies) {
+		if ((other == null) || (copies == null)) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		this.priority = other.priority;
+		this.heap = new FlatSubsumption[other.heap.length];
+		this.priorities = Arrays.copyOf(other.priorities, other.priorities.length);
+		this.sequence = other.sequence;
+		this.sequences = Arrays.copyOf(other.sequences, other.sequences.length);
+		this.size = other.size;
+		for (int i = 0; i < size; i++) {
+			heap[i] = copies.apply(other.heap[i]);
+			heap[i].setQueuePosition(i);
+		}
+	}
+
+	/**
+	 * Insert a subsumption into this queue.
+	 *
+	 * @param sub
+	 *            the new subsumption
+	 * @return true iff the subsumption was not already contained in the queue
+	 */
+	boolean add(FlatSubsumption sub) {
+		if (sub.getQueuePosition() >= 0) {
+			return false;
+		}
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, 2 * size);
+			priorities = Arrays.copyOf(priorities, 2 * size);
+			sequences = Arrays.copyOf(sequences, 2 * size);
+		}
+		set(size, sub, priority.applyAsInt(sub), sequence++);
+		siftUp(size++);
+		return true;
+	}
+
+	/**
+	 * Remove all subsumptions from this queue.
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].setQueuePosition(-1);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	private boolean less(int i, int j) {
+		if (priorities[i] != priorities[j]) {
+			return priorities[i] < priorities[j];
+		}
+		return sequences[i] < sequences[j];
+	}
+
+	/**
+	 * Retrieve the subsumption with the smallest priority.
+	 *
+	 * @return the first subsumption in this queue, or 'null' if the queue is
+	 *         empty
+	 */
+	FlatSubsumption peek() {
+		return (size == 0) ? null : heap[0];
+	}
+
+	/**
+	 * Remove a subsumption from this queue.
+	 *
+	 * @param sub
+	 *            the subsumption to be removed
+	 * @return true iff the subsumption was contained in the queue
+	 */
+	boolean remove(FlatSubsumption sub) {
+		int position = sub.getQueuePosition();
+		if ((position < 0) || (heap[position] != sub)) {
+			return false;
+		}
+		sub.setQueuePosition(-1);
+		size--;
+		if (position < size) {
+			set(position, heap[size], priorities[size], sequences[size]);
+			siftUp(position);
+			siftDown(heap[position].getQueuePosition());
+		}
+		heap[size] = null;
+		return true;
+	}
+
+	private void set(int position, FlatSubsumption sub, int subPriority, long subSequence) {
+		heap[position] = sub;
+		priorities[position] = subPriority;
+		sequences[position] = subSequence;
+		sub.setQueuePosition(position);
+	}
+
+	private void siftDown(int position) {
+		int i = position;
+		while (true) {
+			int smallest = i;
+			for (int child = 2 * i + 1; (child <= 2 * i + 2) && (child < size); child++) {
+				if (less(child, smallest)) {
+					smallest = child;
+				}
+			}
+			if (smallest == i) {
+				return;
+			}
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+
+	private void siftUp(int position) {
+		int i = position;
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (!less(i, parent)) {
+				return;
+			}
+			swap(i, parent);
+			i = parent;
+		}
+	}
+
+	/**
+	 * Returns the number of subsumptions in this queue.
+	 *
+	 * @return the size of the queue
+	 */
+	int size() {
+		return size;
+	}
+
+	private void swap(int i, int j) {
+		FlatSubsumption sub = heap[i];
+		int subPriority = priorities[i];
+		long subSequence = sequences[i];
+		set(i, heap[j], priorities[j], sequences[j]);
+		set(j, sub, subPriority, subSequence);
+	}
+
+}
@@ -1,12 +1,10 @@
 package de.tudresden.inf.lat.uel.rule.rules;
 
-import java.util.Collections;
-
 import de.tudresden.inf.lat.uel.rule.Assignment;
+import de.tudresden.inf.lat.uel.rule.AtomTable;
 import de.tudresden.inf.lat.uel.rule.FlatSubsumption;
 import de.tudresden.inf.lat.uel.rule.Result;
 import de.tudresden.inf.lat.uel.type.api.Atom;
-import de.tudresden.inf.lat.uel.type.impl.ConceptName;
 import de.tudresden.inf.lat.uel.type.impl.ExistentialRestriction;
 
 /**
@@ -23,10 +21,11 @@ public final class DecompositionRule extends Rule {
 			return null;
 		}
 		Integer role = ((ExistentialRestriction) sub.getHead()).getRoleId();
-		for (Atom at : sub.getBody()) {
+		for (int i = 0; i < sub.getBody().size(); i++) {
+			Atom at = sub.getBody().get(i);
 			if (at.isExistentialRestriction()) {
 				if (((ExistentialRestriction) at).getRoleId().equals(role)) {
-					return new Application(role, at);
+					return new Application(role, i, sub.getBodyIds()[i]);
 				}
 			}
 		}
@@ -39,11 +38,12 @@ public final class DecompositionRule extends Rule {
 			throw new IllegalArgumentException("Expected rule application of type DecompositionRule.Application.");
 		}
 		Application appl = (Application) previous;
-		for (int i = sub.getBody().indexOf(appl.at) + 1; i < sub.getBody().size(); i++) {
+		for (int i = appl.position + 1; i < sub.getBody().size(); i++) {
 			Atom at = sub.getBody().get(i);
 			if (at.isExistentialRestriction()) {
 				if (((ExistentialRestriction) at).getRoleId().equals(appl.role)) {
-					appl.at = sub.getBody().get(i);
+					appl.position = i;
+					appl.at = sub.getBodyIds()[i];
 					return appl;
 				}
 			}
@@ -57,9 +57,10 @@ public final class DecompositionRule extends Rule {
 			throw new IllegalArgumentException("Expected rule application of type DecompositionRule.Application.");
 		}
 		Result res = new Result(sub, application);
-		ConceptName head = sub.getHead().getConceptName();
-		ConceptName body = ((Application) application).at.getConceptName();
-		FlatSubsumption newSub = new FlatSubsumption(Collections.<Atom> singletonList(body), head);
+		AtomTable atoms = assign.getAtomTable();
+		int head = atoms.getConceptName(sub.getHeadId());
+		int body = atoms.getConceptName(((Application) application).at);
+		FlatSubsumption newSub = new FlatSubsumption(atoms, body, head);
 		res.getNewUnsolvedSubsumptions().add(newSub);
 		return res;
 	}
@@ -72,10 +73,12 @@ public final class DecompositionRule extends Rule {
 	private final class Application extends Rule.Application {
 
 		protected Integer role;
-		protected Atom at;
+		protected int at;
+		protected int position;
 
-		protected Application(Integer role, Atom at) {
+		protected Application(Integer role, int position, int at) {
 			this.role = role;
+			this.position = position;
 			this.at = at;
 		}
 
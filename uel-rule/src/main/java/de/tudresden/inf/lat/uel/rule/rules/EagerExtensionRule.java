@@ -1,5 +1,7 @@
 package de.tudresden.inf.lat.uel.rule.rules;
 
+import java.util.List;
+
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatSubsumption;
 import de.tudresden.inf.lat.uel.rule.Result;
@@ -17,24 +19,26 @@ public final class EagerExtensionRule extends EagerRule {
 	public Application getFirstApplication(FlatSubsumption sub, Assignment assign) {
 		// extract a variable from the body of sub
 		// if there is more than one such variable, this rule does not apply
-		Atom var = null;
-		for (Atom at : sub.getBody()) {
-			if (at.isVariable()) {
-				if ((var != null) && (!var.equals(at))) {
+		List<Atom> body = sub.getBody();
+		int[] bodyIds = sub.getBodyIds();
+		int var = -1;
+		for (int i = 0; i < bodyIds.length; i++) {
+			if (body.get(i).isVariable()) {
+				if ((var != -1) && (var != bodyIds[i])) {
 					// two different variables have beend found
 					return null;
 				}
-				var = at;
+				var = bodyIds[i];
 			}
 		}
-		if (var == null) {
+		if (var == -1) {
 			// no variable has been found
 			return null;
 		}
 		// check whether the rest of the body is contained in the assignment of
 		// the variable
-		for (Atom at : sub.getBody()) {
-			if (!at.isVariable() && !assign.getSubsumers(var).contains(at)) {
+		for (int i = 0; i < bodyIds.length; i++) {
+			if (!body.get(i).isVariable() && !assign.contains(var, bodyIds[i])) {
 				return null;
 			}
 		}
@@ -47,11 +51,11 @@ public final class EagerExtensionRule extends EagerRule {
 			throw new IllegalArgumentException("Expected rule application of type EagerExtensionRule.Application.");
 		}
 		Application appl = (Application) application;
-		if (assign.makesCyclic(appl.var, sub.getHead())) {
+		if (assign.makesCyclic(appl.var, sub.getHeadId())) {
 			return new Result(sub, application, false);
 		}
 		Result res = new Result(sub, application);
-		res.getNewSubsumers().add(appl.var, sub.getHead());
+		res.getNewSubsumers().add(appl.var, sub.getHeadId());
 		return res;
 	}
 
@@ -62,9 +66,9 @@ public final class EagerExtensionRule extends EagerRule {
 
 	private final class Application extends Rule.Application {
 
-		protected Atom var;
+		protected int var;
 
-		protected Application(Atom var) {
+		protected Application(int var) {
 			this.var = var;
 		}
 
@@ -3,7 +3,6 @@ package de.tudresden.inf.lat.uel.rule.rules;
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatSubsumption;
 import de.tudresden.inf.lat.uel.rule.Result;
-import de.tudresden.inf.lat.uel.type.api.Atom;
 
 /**
  * This class implements the first part of the rule 'Eager Solving' of the
@@ -15,9 +14,8 @@ public final class EagerSolving1Rule extends EagerRule {
 
 	@Override
 	public Application getFirstApplication(FlatSubsumption sub, Assignment assign) {
-		Atom head = sub.getHead();
-		for (Atom at : sub.getBody()) {
-			if (at.equals(head)) {
+		for (int at : sub.getBodyIds()) {
+			if (at == sub.getHeadId()) {
 				return new Application();
 			}
 		}
@@ -1,5 +1,7 @@
 package de.tudresden.inf.lat.uel.rule.rules;
 
+import java.util.List;
+
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatSubsumption;
 import de.tudresden.inf.lat.uel.rule.Result;
@@ -15,10 +17,11 @@ public final class EagerSolving2Rule extends EagerRule {
 
 	@Override
 	public Application getFirstApplication(FlatSubsumption sub, Assignment assign) {
-		Atom head = sub.getHead();
-		for (Atom at : sub.getBody()) {
-			if (at.isVariable()) {
-				if (assign.getSubsumers(at).contains(head)) {
+		List<Atom> body = sub.getBody();
+		int[] bodyIds = sub.getBodyIds();
+		for (int i = 0; i < bodyIds.length; i++) {
+			if (body.get(i).isVariable()) {
+				if (assign.contains(bodyIds[i], sub.getHeadId())) {
 					return new Application();
 				}
 			}
@@ -3,7 +3,6 @@ package de.tudresden.inf.lat.uel.rule.rules;
 import de.tudresden.inf.lat.uel.rule.Assignment;
 import de.tudresden.inf.lat.uel.rule.FlatSubsumption;
 import de.tudresden.inf.lat.uel.rule.Result;
-import de.tudresden.inf.lat.uel.type.api.Atom;
 
 /**
  * This class implements the rule 'Extension' of the rule-based algorithm for
@@ -15,9 +14,9 @@ public final class ExtensionRule extends Rule {
 
 	@Override
 	public Application getFirstApplication(FlatSubsumption sub, Assignment assign) {
-		for (Atom at : sub.getBody()) {
-			if (at.isVariable()) {
-				return new Application(at);
+		for (int i = 0; i < sub.getBody().size(); i++) {
+			if (sub.getBody().get(i).isVariable()) {
+				return new Application(i, sub.getBodyIds()[i]);
 			}
 		}
 		return null;
@@ -29,9 +28,10 @@ public final class ExtensionRule extends Rule {
 			throw new IllegalArgumentException("Expected rule application of type ExtensionRule.Application.");
 		}
 		Application appl = (Application) previous;
-		for (int i = sub.getBody().indexOf(appl.at) + 1; i < sub.getBody().size(); i++) {
+		for (int i = appl.position + 1; i < sub.getBody().size(); i++) {
 			if (sub.getBody().get(i).isVariable()) {
-				appl.at = sub.getBody().get(i);
+				appl.position = i;
+				appl.at = sub.getBodyIds()[i];
 				return appl;
 			}
 		}
@@ -44,11 +44,11 @@ public final class ExtensionRule extends Rule {
 			throw new IllegalArgumentException("Expected rule application of type ExtensionRule.Application.");
 		}
 		Application appl = (Application) application;
-		if (assign.makesCyclic(appl.at, sub.getHead())) {
+		if (assign.makesCyclic(appl.at, sub.getHeadId())) {
 			return new Result(sub, application, false);
 		}
 		Result res = new Result(sub, application);
-		res.getNewSubsumers().add(appl.at, sub.getHead());
+		res.getNewSubsumers().add(appl.at, sub.getHeadId());
 		return res;
 	}
 
@@ -59,9 +59,11 @@ public final class ExtensionRule extends Rule {
 
 	private final class Application extends Rule.Application {
 
-		protected Atom at;
+		protected int at;
+		protected int position;
 
-		protected Application(Atom at) {
+		protected Application(int position, int at) {
+			this.position = position;
 			this.at = at;
 		}
 
@@ -0,0 +1,47 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+/**
+ * An object of this class represents an auxiliary propositional variable
+ * whose negation is added to a group of clauses. The clauses are only
+ * enforced while the literal is assumed to be true, and they are disabled
+ * permanently by adding the negation of the literal as a unit clause.
+ */
+public class ActivationLiteral implements Literal {
+
+	private final int index;
+
+	public ActivationLiteral(int index) {
+		this.index = index;
+	}
+
+	@Override
+	public Integer getFirst() {
+		return null;
+	}
+
+	@Override
+	public Integer getSecond() {
+		return null;
+	}
+
+	@Override
+	public boolean isSubsumption() {
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return index;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		boolean ret = (this == o);
+		if (!ret && o instanceof ActivationLiteral) {
+			ActivationLiteral other = (ActivationLiteral) o;
+			ret = this.index == other.index;
+		}
+		return ret;
+	}
+
+}
@@ -7,7 +7,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
-import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.type.api.IndexedSet;
 
 /**
@@ -16,8 +16,6 @@ import de.tudresden.inf.lat.uel.type.api.IndexedSet;
  */
 public class Choice {
 
-	private static int choiceLiteralCount = 0;
-
 	private Integer[] choiceLiterals;
 	private IndexedSet<Literal> literalManager;
 	private int log;
@@ -51,12 +49,14 @@ public class Choice {
 	}
 
 	private Integer getFreshChoiceLiteral() {
-		Literal literal = new ChoiceLiteral(choiceLiteralCount);
-		choiceLiteralCount++;
+		// the next index of the literal manager is not used by any other
+		// choice literal, and thus the identifiers only depend on the
+		// literal manager and not on other unification problems
+		Literal literal = new ChoiceLiteral(literalManager.getNextIndex());
 		return literalManager.addAndGetIndex(literal);
 	}
 
-	public void ruleOutOtherChoices(SatInput input) {
+	public void ruleOutOtherChoices(ClauseSink input) {
 		for (int j = numberOfChoices; j < Math.pow(2, log); j++) {
 			input.add(addChoiceLiterals(Collections.<Integer> emptySet(), j));
 		}
@@ -0,0 +1,91 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+/**
+ * An object implementing this class is an auxiliary literal of the comparison
+ * of the levels of two variables. It expresses that the levels agree on all
+ * bits above the given position and that the first level is greater than the
+ * second one on the bits up to this position.
+ */
+public class ComparisonLiteral implements Literal {
+
+	private final int bit;
+	private final Integer first;
+	private final int hashCode;
+	private final Integer second;
+
+	/**
+	 * Constructs a comparison literal given two variables and a bit position.
+	 * 
+	 * @param one
+	 *            first variable
+	 * @param two
+	 *            second variable
+	 * @param bit
+	 *            the position of the bit
+	 */
+	public ComparisonLiteral(Integer one, Integer two, int bit) {
+		if (one == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (two == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.first = one;
+		this.second = two;
+		this.bit = bit;
+		this.hashCode = one.hashCode() + 31 * (two.hashCode() + 31 * bit);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		boolean ret = (this == o);
+		if (!ret && o instanceof ComparisonLiteral) {
+			ComparisonLiteral other = (ComparisonLiteral) o;
+			ret = this.first.equals(other.first) && this.second.equals(other.second) && this.bit == other.bit;
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the position of the bit.
+	 * 
+	 * @return the position of the bit
+	 */
+	public int getBit() {
+		return bit;
+	}
+
+	@Override
+	public Integer getFirst() {
+		return first;
+	}
+
+	@Override
+	public Integer getSecond() {
+		return second;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean isSubsumption() {
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sbuf = new StringBuilder("(");
+		sbuf.append(first);
+		sbuf.append(" > ");
+		sbuf.append(second);
+		sbuf.append(" at bit ");
+		sbuf.append(bit);
+		sbuf.append(")");
+		return sbuf.toString();
+	}
+
+}
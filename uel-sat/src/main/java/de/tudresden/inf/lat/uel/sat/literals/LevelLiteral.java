@@ -0,0 +1,71 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+/**
+ * An object implementing this class represents one bit of the binary encoding
+ * of the level of a variable. The levels are used to express the strict order
+ * on the variables without transitivity clauses.
+ */
+public class LevelLiteral implements Literal {
+
+	private final int bit;
+	private final Integer variable;
+
+	/**
+	 * Constructs a level literal for a variable and a bit position.
+	 * 
+	 * @param variable
+	 *            the variable
+	 * @param bit
+	 *            the position of the bit, starting from the least significant
+	 *            bit at position 0
+	 */
+	public LevelLiteral(Integer variable, int bit) {
+		if (variable == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.variable = variable;
+		this.bit = bit;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		boolean ret = (this == o);
+		if (!ret && o instanceof LevelLiteral) {
+			LevelLiteral other = (LevelLiteral) o;
+			ret = this.variable.equals(other.variable) && this.bit == other.bit;
+		}
+		return ret;
+	}
+
+	@Override
+	public Integer getFirst() {
+		return variable;
+	}
+
+	@Override
+	public Integer getSecond() {
+		return bit;
+	}
+
+	@Override
+	public int hashCode() {
+		return variable.hashCode() + 31 * bit;
+	}
+
+	@Override
+	public boolean isSubsumption() {
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sbuf = new StringBuilder("(");
+		sbuf.append(variable);
+		sbuf.append(" bit ");
+		sbuf.append(bit);
+		sbuf.append(")");
+		return sbuf.toString();
+	}
+
+}
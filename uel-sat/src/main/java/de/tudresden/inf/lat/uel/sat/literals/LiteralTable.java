@@ -0,0 +1,237 @@
+package de.tudresden.inf.lat.uel.sat.literals;
+
+import java.util.Collection;
+
+import de.tudresden.inf.lat.uel.type.api.IndexedSet;
+
+/**
+ * An object of this class maps pairs of atoms to the identifiers of the
+ * corresponding subsumption and order literals. The atoms are renumbered
+ * consecutively, and the identifiers are stored in arrays indexed by pairs of
+ * these numbers, so that no literal object has to be created to look up an
+ * identifier. A literal is only registered in the literal manager, which is
+ * used to decode identifiers, when it is requested for the first time.
+ * Literals can be requested concurrently, but the identifiers then depend on
+ * the order in which the threads request them. To obtain reproducible
+ * identifiers, the literals should be allocated in advance.
+ */
+public class LiteralTable {
+
+	private static final int UNALLOCATED = 0;
+	private static final int UNUSED = -1;
+
+	private static int[] createIndex(Collection<Integer> atomIds) {
+		int maxAtomId = 0;
+		for (Integer atomId : atomIds) {
+			if (atomId < 0) {
+				throw new IllegalArgumentException("Invalid atom identifier: " + atomId + ".");
+			}
+			maxAtomId = Math.max(maxAtomId, atomId);
+		}
+		int[] index = new int[maxAtomId + 1];
+		for (int i = 0; i < index.length; i++) {
+			index[i] = UNUSED;
+		}
+		int next = 0;
+		for (Integer atomId : atomIds) {
+			index[atomId] = next++;
+		}
+		return index;
+	}
+
+	private static int[] createTable(int size) {
+		long length = (long) size * size;
+		if (length > Integer.MAX_VALUE - 8) {
+			throw new OutOfMemoryError("Too many atoms for the literal table: " + size + ".");
+		}
+		return new int[(int) length];
+	}
+
+	private static int lookup(int[] index, int atomId) {
+		return (atomId >= 0 && atomId < index.length) ? index[atomId] : UNUSED;
+	}
+
+	private final int[] atomIndex;
+	private final IndexedSet<Literal> literalManager;
+	private int numberOfAllocatedLiterals = 0;
+	private final int numberOfAtoms;
+	private final int numberOfVariables;
+	private final int[] orderLiterals;
+	private final int[] subsumptionLiterals;
+	private final int[] variableIndex;
+
+	/**
+	 * Constructs a new table for the subsumption literals between the given
+	 * atoms and the order literals between the given variables.
+	 *
+	 * @param literalManager
+	 *            the literal manager
+	 * @param atomIds
+	 *            the atoms that can occur in subsumption literals
+	 * @param variableIds
+	 *            the variables that can occur in order literals
+	 */
+	public LiteralTable(IndexedSet<Literal> literalManager, Collection<Integer> atomIds,
+			Collection<Integer> variableIds) {
+		if (literalManager == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (atomIds == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (variableIds == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.literalManager = literalManager;
+		this.atomIndex = createIndex(atomIds);
+		this.numberOfAtoms = atomIds.size();
+		this.subsumptionLiterals = createTable(numberOfAtoms);
+		this.variableIndex = createIndex(variableIds);
+		this.numberOfVariables = variableIds.size();
+		this.orderLiterals = createTable(numberOfVariables);
+	}
+
+	private synchronized int allocate(int[] table, int position, Literal literal) {
+		if (table[position] == UNALLOCATED) {
+			table[position] = literalManager.addAndGetIndex(literal);
+			numberOfAllocatedLiterals++;
+		}
+		return table[position];
+	}
+
+	/**
+	 * Allocates the order literals for all pairs of the given variables.
+	 *
+	 * @param variableIds
+	 *            the variables
+	 */
+	public void allocateOrderLiterals(Collection<Integer> variableIds) {
+		for (Integer atomId1 : variableIds) {
+			for (Integer atomId2 : variableIds) {
+				getOrderLiteral(atomId1, atomId2);
+			}
+		}
+	}
+
+	/**
+	 * Allocates the subsumption literals for all pairs of distinct atoms in
+	 * which the first atom is taken from the first collection and the second
+	 * atom from the second collection.
+	 *
+	 * @param atomIds1
+	 *            the first atoms
+	 * @param atomIds2
+	 *            the second atoms
+	 */
+	public void allocateSubsumptionLiterals(Collection<Integer> atomIds1, Collection<Integer> atomIds2) {
+		for (Integer atomId1 : atomIds1) {
+			for (Integer atomId2 : atomIds2) {
+				if (!atomId1.equals(atomId2)) {
+					getSubsumptionLiteral(atomId1, atomId2);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the literal with the given identifier.
+	 *
+	 * @param literalId
+	 *            the literal identifier
+	 * @return the literal, or <code>null</code> if there is no literal with
+	 *         this identifier
+	 */
+	public Literal getLiteral(int literalId) {
+		return literalManager.get(literalId);
+	}
+
+	/**
+	 * Returns the number of literals in the table that have been allocated.
+	 *
+	 * @return the number of allocated literals
+	 */
+	public synchronized int getNumberOfAllocatedLiterals() {
+		return numberOfAllocatedLiterals;
+	}
+
+	/**
+	 * Returns the number of literals in the table that have not been
+	 * allocated, because they were never requested.
+	 *
+	 * @return the number of skipped literals
+	 */
+	public synchronized long getNumberOfSkippedLiterals() {
+		return (long) subsumptionLiterals.length + orderLiterals.length - numberOfAllocatedLiterals;
+	}
+
+	/**
+	 * Returns the identifier of the order literal [atomId1 &gt; atomId2] and
+	 * allocates it if necessary. Literals for atoms that are not in the table
+	 * are registered in the literal manager directly.
+	 *
+	 * @param atomId1
+	 *            the first variable
+	 * @param atomId2
+	 *            the second variable
+	 * @return the literal identifier
+	 */
+	public int getOrderLiteral(int atomId1, int atomId2) {
+		int index1 = lookup(variableIndex, atomId1);
+		int index2 = lookup(variableIndex, atomId2);
+		if (index1 == UNUSED || index2 == UNUSED) {
+			return literalManager.addAndGetIndex(new OrderLiteral(atomId1, atomId2));
+		}
+		int position = index1 * numberOfVariables + index2;
+		int literalId = orderLiterals[position];
+		if (literalId == UNALLOCATED) {
+			literalId = allocate(orderLiterals, position, new OrderLiteral(atomId1, atomId2));
+		}
+		return literalId;
+	}
+
+	/**
+	 * Returns the identifier of the subsumption literal [atomId1 &#8849;
+	 * atomId2] and allocates it if necessary. Literals for atoms that are not
+	 * in the table are registered in the literal manager directly.
+	 *
+	 * @param atomId1
+	 *            the first atom
+	 * @param atomId2
+	 *            the second atom
+	 * @return the literal identifier
+	 */
+	public int getSubsumptionLiteral(int atomId1, int atomId2) {
+		int index1 = lookup(atomIndex, atomId1);
+		int index2 = lookup(atomIndex, atomId2);
+		if (index1 == UNUSED || index2 == UNUSED) {
+			return literalManager.addAndGetIndex(new SubsumptionLiteral(atomId1, atomId2));
+		}
+		int position = index1 * numberOfAtoms + index2;
+		int literalId = subsumptionLiterals[position];
+		if (literalId == UNALLOCATED) {
+			literalId = allocate(subsumptionLiterals, position, new SubsumptionLiteral(atomId1, atomId2));
+		}
+		return literalId;
+	}
+
+	/**
+	 * Checks whether the subsumption literal [atomId1 &#8849; atomId2] has
+	 * already been allocated.
+	 *
+	 * @param atomId1
+	 *            the first atom
+	 * @param atomId2
+	 *            the second atom
+	 * @return <code>true</code> iff the literal has been allocated
+	 */
+	public boolean hasSubsumptionLiteral(int atomId1, int atomId2) {
+		int index1 = lookup(atomIndex, atomId1);
+		int index2 = lookup(atomIndex, atomId2);
+		if (index1 == UNUSED || index2 == UNUSED) {
+			return literalManager.contains(new SubsumptionLiteral(atomId1, atomId2));
+		}
+		return subsumptionLiterals[index1 * numberOfAtoms + index2] != UNALLOCATED;
+	}
+
+}
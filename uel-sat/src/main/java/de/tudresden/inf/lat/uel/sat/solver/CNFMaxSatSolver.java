@@ -1,17 +1,16 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 
-import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.DimacsClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
 
@@ -39,7 +38,7 @@ public class CNFMaxSatSolver implements Solver {
 
 	private final File inputFile;
 	// private File outputFile;
-	private Integer nbVars;
+	private DimacsClauseSink sink;
 
 	/**
 	 * Construct a new MaxSat solver of the given type.
@@ -97,7 +96,17 @@ public class CNFMaxSatSolver implements Solver {
 		this.commandOptions[CLASP_OPTIONS.length + 1] = this.inputFile.getPath();
 	}
 
-	private Process solve() throws IOException {
+	@Override
+	public ClauseSink createClauseSink() throws IOException {
+		if (sink != null) {
+			sink.close();
+		}
+
+		sink = new DimacsClauseSink(this.inputFile, true);
+		return sink;
+	}
+
+	private Process runSolver() throws IOException {
 		try {
 			ProcessBuilder pb = new ProcessBuilder(this.commandOptions);
 			pb.redirectErrorStream();
@@ -110,33 +119,42 @@ public class CNFMaxSatSolver implements Solver {
 	}
 
 	@Override
-	public SatOutput solve(SatInput input) throws IOException {
-
-		this.nbVars = input.getLastId();
-		BufferedWriter writer = new BufferedWriter(new FileWriter(this.inputFile));
-		writer.write(input.toWCNF(this.nbVars + 1));
-		writer.close();
+	public SatOutput solve() throws IOException {
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
 
-		return convertToSatOutput(solve());
+		sink.close();
+		return convertToSatOutput(runSolver());
 	}
 
 	@Override
 	public SatOutput update(Set<Integer> clause) throws IOException {
-		BufferedReader reader = new BufferedReader(new FileReader(this.inputFile));
-		StringTokenizer stok = new StringTokenizer(reader.readLine());
-		stok.nextToken();
-		stok.nextToken();
-		stok.nextToken();
-		int nbClauses = Integer.parseInt(stok.nextToken());
-		reader.close();
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
 
-		BufferedWriter writer = new BufferedWriter(new FileWriter(this.inputFile));
-		StringBuffer sbuf = new StringBuffer();
-		SatInput.appendWCNFLine(sbuf, nbVars, nbClauses + 1, nbVars + 1);
-		SatInput.appendWCNFClause(sbuf, clause, nbVars + 1);
-		writer.write(sbuf.toString());
-		writer.close();
+		// append the clause and rewrite only the header of the file
+		sink.reopen();
+		sink.add(clause);
+		sink.close();
+		return convertToSatOutput(runSolver());
+	}
 
-		return convertToSatOutput(solve());
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) throws IOException {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		sink.reopen();
+		for (Set<Integer> clause : clauses) {
+			sink.add(clause);
+		}
+		sink.close();
+		return convertToSatOutput(runSolver());
 	}
 }
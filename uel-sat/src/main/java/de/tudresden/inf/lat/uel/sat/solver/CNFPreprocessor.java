@@ -0,0 +1,609 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.sat4j.core.VecInt;
+
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+
+/**
+ * An object of this class simplifies a SAT problem before it is passed to a
+ * solver. It propagates unit clauses, removes satisfied clauses and falsified
+ * literals, removes duplicate and subsumed clauses, and optionally eliminates
+ * variables by resolution if this does not increase the number of clauses.
+ * Models of the simplified problem can be extended to models of the original
+ * problem by {@link #extendModel(Collection)}.
+ *
+ * Variables that are frozen are never eliminated, so that they can still occur
+ * in clauses that are added after the preprocessing, or in the objective of a
+ * MaxSAT problem.
+ */
+public class CNFPreprocessor {
+
+	private static final byte FALSE = -1;
+	// bounds for the variable elimination, to keep its cost linear
+	private static final int MAX_OCCURRENCES = 16;
+	private static final int MAX_RESOLVENT_LENGTH = 16;
+	private static final byte TRUE = 1;
+	private static final byte UNASSIGNED = 0;
+
+	/**
+	 * Maps a literal to a non-negative number such that the literals of a
+	 * variable are adjacent and the positive one comes first.
+	 */
+	private static int encode(int literal) {
+		return (literal > 0) ? 2 * literal : -2 * literal + 1;
+	}
+
+	private static int decode(int code) {
+		return ((code & 1) == 0) ? code >> 1 : -(code >> 1);
+	}
+
+	private static boolean isTautology(int[] clause) {
+		// the literals are sorted by absolute value
+		for (int i = 1; i < clause.length; i++) {
+			if (clause[i] == -clause[i - 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Sorts the first literals of an array by absolute value and removes
+	 * duplicates, without allocating any memory.
+	 *
+	 * @param literals
+	 *            the array containing the clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @return the number of distinct literals, which are now at the beginning
+	 *         of the array
+	 */
+	private static int normalize(int[] literals, int length) {
+		for (int i = 0; i < length; i++) {
+			literals[i] = encode(literals[i]);
+		}
+		Arrays.sort(literals, 0, length);
+		int ret = 0;
+		for (int i = 0; i < length; i++) {
+			if (ret == 0 || literals[ret - 1] != literals[i]) {
+				literals[ret++] = literals[i];
+			}
+		}
+		for (int i = 0; i < ret; i++) {
+			literals[i] = decode(literals[i]);
+		}
+		return ret;
+	}
+
+	private static boolean isSubset(int[] clause1, int[] clause2) {
+		// both clauses are sorted by absolute value
+		int position = 0;
+		for (int literal : clause1) {
+			while (position < clause2.length && encode(clause2[position]) < encode(literal)) {
+				position++;
+			}
+			if (position == clause2.length || clause2[position] != literal) {
+				return false;
+			}
+			position++;
+		}
+		return true;
+	}
+
+	private byte[] assignment;
+	private List<int[]> clauses;
+	// eliminated variables and the clauses that contained them positively, in
+	// the order of elimination
+	private final List<int[][]> eliminatedClauses = new ArrayList<>();
+	private final List<Integer> eliminatedVariables = new ArrayList<>();
+	private boolean[] eliminated;
+	private IntPredicate frozen;
+	private int numberOfEliminatedVariables = 0;
+	private int numberOfFixedVariables = 0;
+	private int numberOfSubsumedClauses = 0;
+	private int numberOfVariables;
+	private VecInt[] occurrences;
+	private int originalNumberOfClauses = 0;
+	private long originalNumberOfLiterals = 0;
+	private int resultNumberOfClauses = 0;
+	private long resultNumberOfLiterals = 0;
+	private boolean unsatisfiable = false;
+	private final boolean variableElimination;
+
+	/**
+	 * Constructs a new preprocessor.
+	 *
+	 * @param useVariableElimination
+	 *            <code>true</code> iff variables should be eliminated by
+	 *            resolution
+	 */
+	public CNFPreprocessor(boolean useVariableElimination) {
+		this.variableElimination = useVariableElimination;
+	}
+
+	private void addClause(int[] clause) {
+		int index = clauses.size();
+		clauses.add(clause);
+		for (int literal : clause) {
+			occurrences(literal).push(index);
+		}
+	}
+
+	private boolean assign(int literal, VecInt queue) {
+		int var = Math.abs(literal);
+		byte value = (literal > 0) ? TRUE : FALSE;
+		if (assignment[var] == value) {
+			return true;
+		}
+		if (assignment[var] != UNASSIGNED) {
+			return false;
+		}
+		assignment[var] = value;
+		numberOfFixedVariables++;
+		queue.push(literal);
+		return true;
+	}
+
+	private void eliminateVariables() throws InterruptedException {
+		for (int var = 1; var <= numberOfVariables; var++) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			if (assignment[var] != UNASSIGNED || frozen.test(var)) {
+				continue;
+			}
+			List<int[]> positive = getClauses(var);
+			List<int[]> negative = getClauses(-var);
+			if (positive.isEmpty() && negative.isEmpty()
+					|| positive.size() + negative.size() > MAX_OCCURRENCES) {
+				continue;
+			}
+
+			List<int[]> resolvents = new ArrayList<>();
+			boolean bounded = true;
+			for (int[] clause1 : positive) {
+				for (int[] clause2 : negative) {
+					int[] resolvent = resolve(clause1, clause2, var);
+					if (resolvent == null) {
+						continue;
+					}
+					if (resolvent.length > MAX_RESOLVENT_LENGTH
+							|| resolvents.size() >= positive.size() + negative.size()) {
+						bounded = false;
+						break;
+					}
+					resolvents.add(resolvent);
+				}
+				if (!bounded) {
+					break;
+				}
+			}
+			if (!bounded) {
+				continue;
+			}
+
+			// store the clauses containing var positively to reconstruct its
+			// value; the ones containing -var are satisfied by the resolvents
+			// whenever the former are
+			eliminatedVariables.add(var);
+			eliminatedClauses.add(positive.toArray(new int[positive.size()][]));
+			eliminated[var] = true;
+			numberOfEliminatedVariables++;
+			removeClauses(var);
+			removeClauses(-var);
+			for (int[] resolvent : resolvents) {
+				if (resolvent.length == 0) {
+					unsatisfiable = true;
+					return;
+				}
+				addClause(resolvent);
+			}
+		}
+	}
+
+	/**
+	 * Extends a model of the simplified problem to a model of the original
+	 * problem, by adding the values of the variables that were fixed or
+	 * eliminated.
+	 *
+	 * @param model
+	 *            the model of the simplified problem, given by the literal
+	 *            identifiers that are true; identifiers of variables not
+	 *            contained in it are considered to be false
+	 * @return the model of the original problem
+	 */
+	public Set<Integer> extendModel(Collection<Integer> model) {
+		if (model == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		int maxVar = numberOfVariables;
+		for (Integer literal : model) {
+			maxVar = Math.max(maxVar, Math.abs(literal));
+		}
+		byte[] values = new byte[maxVar + 1];
+		Arrays.fill(values, FALSE);
+		for (Integer literal : model) {
+			if (literal > 0) {
+				values[literal] = TRUE;
+			}
+		}
+		for (int var = 1; var <= numberOfVariables; var++) {
+			if (assignment[var] != UNASSIGNED) {
+				values[var] = assignment[var];
+			}
+		}
+		for (int i = eliminatedVariables.size() - 1; i >= 0; i--) {
+			int var = eliminatedVariables.get(i);
+			values[var] = FALSE;
+			for (int[] clause : eliminatedClauses.get(i)) {
+				if (!isSatisfied(clause, values, var)) {
+					values[var] = TRUE;
+					break;
+				}
+			}
+		}
+
+		Set<Integer> ret = new HashSet<>();
+		for (int var = 1; var <= maxVar; var++) {
+			ret.add((values[var] == TRUE) ? var : -var);
+		}
+		return ret;
+	}
+
+	private List<int[]> getClauses(int literal) {
+		List<int[]> ret = new ArrayList<>();
+		VecInt occ = occurrences(literal);
+		for (int i = 0; i < occ.size(); i++) {
+			int[] clause = clauses.get(occ.get(i));
+			if (clause != null) {
+				ret.add(clause);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the number of variables that were eliminated by resolution.
+	 *
+	 * @return the number of eliminated variables
+	 */
+	public int getNumberOfEliminatedVariables() {
+		return numberOfEliminatedVariables;
+	}
+
+	/**
+	 * Returns the number of variables whose value was fixed by unit
+	 * propagation.
+	 *
+	 * @return the number of fixed variables
+	 */
+	public int getNumberOfFixedVariables() {
+		return numberOfFixedVariables;
+	}
+
+	/**
+	 * Returns the number of clauses that were removed because they were
+	 * duplicates of or subsumed by other clauses.
+	 *
+	 * @return the number of subsumed clauses
+	 */
+	public int getNumberOfSubsumedClauses() {
+		return numberOfSubsumedClauses;
+	}
+
+	/**
+	 * Returns the number of clauses of the original problem.
+	 *
+	 * @return the number of original clauses
+	 */
+	public int getOriginalNumberOfClauses() {
+		return originalNumberOfClauses;
+	}
+
+	/**
+	 * Returns the number of literal occurrences in the original problem.
+	 *
+	 * @return the number of original literals
+	 */
+	public long getOriginalNumberOfLiterals() {
+		return originalNumberOfLiterals;
+	}
+
+	/**
+	 * Returns the number of clauses of the simplified problem.
+	 *
+	 * @return the number of remaining clauses
+	 */
+	public int getResultNumberOfClauses() {
+		return resultNumberOfClauses;
+	}
+
+	/**
+	 * Returns the number of literal occurrences in the simplified problem.
+	 *
+	 * @return the number of remaining literals
+	 */
+	public long getResultNumberOfLiterals() {
+		return resultNumberOfLiterals;
+	}
+
+	/**
+	 * Returns the value that was fixed for a variable by unit propagation.
+	 *
+	 * @param literal
+	 *            a literal identifier
+	 * @return 1 if the literal is true, -1 if it is false, and 0 if its value
+	 *         was not fixed
+	 */
+	public int getValue(int literal) {
+		int var = Math.abs(literal);
+		if (var > numberOfVariables || assignment[var] == UNASSIGNED) {
+			return UNASSIGNED;
+		}
+		return (literal > 0) ? assignment[var] : -assignment[var];
+	}
+
+	/**
+	 * Checks whether a variable was eliminated by resolution, which means that
+	 * it must not occur in clauses that are added later.
+	 *
+	 * @param literal
+	 *            a literal identifier
+	 * @return <code>true</code> iff the variable of the literal was eliminated
+	 */
+	public boolean isEliminated(int literal) {
+		int var = Math.abs(literal);
+		return var <= numberOfVariables && eliminated[var];
+	}
+
+	private boolean isSatisfied(int[] clause, byte[] values, int ignoredVar) {
+		for (int literal : clause) {
+			int var = Math.abs(literal);
+			if (var != ignoredVar && values[var] == ((literal > 0) ? TRUE : FALSE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether unit propagation or resolution derived the empty clause.
+	 *
+	 * @return <code>true</code> iff the problem was found to be unsatisfiable
+	 */
+	public boolean isUnsatisfiable() {
+		return unsatisfiable;
+	}
+
+	private VecInt occurrences(int literal) {
+		int index = encode(literal);
+		if (occurrences[index] == null) {
+			occurrences[index] = new VecInt();
+		}
+		return occurrences[index];
+	}
+
+	/**
+	 * Simplifies the given SAT problem. The minimize literals of the input are
+	 * frozen and copied to the result, together with their weights.
+	 *
+	 * @param input
+	 *            the SAT problem
+	 * @param frozenVariables
+	 *            tests whether a variable must not be eliminated
+	 * @return the simplified SAT problem, which is empty if the problem was
+	 *         found to be unsatisfiable
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	public SatInput process(SatInput input, IntPredicate frozenVariables) throws InterruptedException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (frozenVariables == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		Set<Integer> minimizeVariables = new HashSet<>();
+		for (Integer literal : input.getMinimizeLiterals()) {
+			minimizeVariables.add(Math.abs(literal));
+		}
+		this.frozen = var -> frozenVariables.test(var) || minimizeVariables.contains(var);
+		this.numberOfVariables = input.getLastId();
+		this.assignment = new byte[numberOfVariables + 1];
+		this.eliminated = new boolean[numberOfVariables + 1];
+		this.occurrences = new VecInt[2 * numberOfVariables + 2];
+		this.clauses = new ArrayList<>(input.getNumberOfClauses());
+		this.originalNumberOfClauses = input.getNumberOfClauses();
+		this.originalNumberOfLiterals = input.getNumberOfLiterals();
+
+		VecInt queue = new VecInt();
+		for (int index = 0; index < input.getNumberOfClauses(); index++) {
+			int[] clause = new int[input.getClauseLength(index)];
+			for (int position = 0; position < clause.length; position++) {
+				clause[position] = input.getLiteral(index, position);
+			}
+			int length = normalize(clause, clause.length);
+			if (length < clause.length) {
+				clause = Arrays.copyOf(clause, length);
+			}
+			if (isTautology(clause)) {
+				continue;
+			}
+			if (clause.length == 1) {
+				if (!assign(clause[0], queue)) {
+					unsatisfiable = true;
+				}
+			} else {
+				addClause(clause);
+			}
+		}
+
+		if (!unsatisfiable) {
+			propagate(queue);
+		}
+		if (!unsatisfiable) {
+			removeSubsumedClauses();
+		}
+		if (!unsatisfiable && variableElimination) {
+			eliminateVariables();
+		}
+
+		SatInput ret = new SatInput();
+		if (!unsatisfiable) {
+			for (int[] clause : clauses) {
+				if (clause != null) {
+					ret.add(clause);
+				}
+			}
+			for (Integer literal : input.getMinimizeLiterals()) {
+				ret.addMinimizeLiteral(literal, input.getMinimizeWeight(literal));
+			}
+		}
+		resultNumberOfClauses = ret.getNumberOfClauses();
+		resultNumberOfLiterals = ret.getNumberOfLiterals();
+		clauses = null;
+		occurrences = null;
+		return ret;
+	}
+
+	private void propagate(VecInt queue) throws InterruptedException {
+		while (!queue.isEmpty()) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			int literal = queue.last();
+			queue.pop();
+			removeClauses(literal);
+			VecInt occ = occurrences(-literal);
+			for (int i = 0; i < occ.size(); i++) {
+				int index = occ.get(i);
+				int[] clause = clauses.get(index);
+				if (clause == null) {
+					continue;
+				}
+				int[] strengthened = new int[clause.length - 1];
+				int length = 0;
+				for (int other : clause) {
+					if (other != -literal) {
+						strengthened[length++] = other;
+					}
+				}
+				if (length == 0) {
+					unsatisfiable = true;
+					return;
+				}
+				if (length == 1) {
+					clauses.set(index, null);
+					if (!assign(strengthened[0], queue)) {
+						unsatisfiable = true;
+						return;
+					}
+				} else {
+					// the occurrence lists of the other literals stay valid
+					clauses.set(index, strengthened);
+				}
+			}
+		}
+	}
+
+	private void removeClauses(int literal) {
+		VecInt occ = occurrences(literal);
+		for (int i = 0; i < occ.size(); i++) {
+			clauses.set(occ.get(i), null);
+		}
+		occ.clear();
+	}
+
+	private void removeSubsumedClauses() throws InterruptedException {
+		// shorter clauses can only subsume longer ones; the length and the index
+		// of each clause are packed into one number to sort them without boxing
+		long[] order = new long[clauses.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = ((long) length(i) << 32) | i;
+		}
+		Arrays.sort(order);
+
+		for (long entry : order) {
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+			int index = (int) entry;
+			int[] clause = clauses.get(index);
+			if (clause == null) {
+				continue;
+			}
+			// only the clauses containing the rarest literal need to be checked
+			VecInt occ = null;
+			for (int literal : clause) {
+				VecInt candidate = occurrences(literal);
+				if (occ == null || candidate.size() < occ.size()) {
+					occ = candidate;
+				}
+			}
+			for (int i = 0; i < occ.size(); i++) {
+				int other = occ.get(i);
+				int[] otherClause = clauses.get(other);
+				if (other == index || otherClause == null || otherClause.length < clause.length) {
+					continue;
+				}
+				if (isSubset(clause, otherClause)) {
+					clauses.set(other, null);
+					numberOfSubsumedClauses++;
+				}
+			}
+		}
+	}
+
+	private int length(int index) {
+		int[] clause = clauses.get(index);
+		return (clause == null) ? Integer.MAX_VALUE : clause.length;
+	}
+
+	private int[] resolve(int[] clause1, int[] clause2, int var) {
+		int[] literals = new int[clause1.length + clause2.length - 2];
+		int length = 0;
+		for (int literal : clause1) {
+			if (literal != var) {
+				literals[length++] = literal;
+			}
+		}
+		for (int literal : clause2) {
+			if (literal != -var) {
+				literals[length++] = literal;
+			}
+		}
+		length = normalize(literals, length);
+		int[] resolvent = (length < literals.length) ? Arrays.copyOf(literals, length) : literals;
+		return isTautology(resolvent) ? null : resolvent;
+	}
+
+	/**
+	 * Returns a string describing the reduction achieved by the preprocessing.
+	 *
+	 * @return a short description of the statistics
+	 */
+	@Override
+	public String toString() {
+		return "clauses " + originalNumberOfClauses + " -> " + resultNumberOfClauses + " ("
+				+ percentage(resultNumberOfClauses, originalNumberOfClauses) + "), literals "
+				+ originalNumberOfLiterals + " -> " + resultNumberOfLiterals + " ("
+				+ percentage(resultNumberOfLiterals, originalNumberOfLiterals) + "), " + numberOfFixedVariables
+				+ " fixed and " + numberOfEliminatedVariables + " eliminated variables, "
+				+ numberOfSubsumedClauses + " subsumed clauses";
+	}
+
+	private static String percentage(long part, long whole) {
+		return ((whole == 0) ? 100 : Math.round(100.0 * part / whole)) + "%";
+	}
+
+}
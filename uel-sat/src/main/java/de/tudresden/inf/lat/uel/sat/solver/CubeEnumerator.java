@@ -0,0 +1,199 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSource;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+
+/**
+ * An object of this class enumerates the models of a SAT problem in parallel.
+ * The search space is split into disjoint cubes by fixing the values of a few
+ * literals in all possible ways, and the models of each cube are enumerated
+ * independently by a separate Sat4j solver. Two models are considered equal if
+ * they agree on the projection literals, and each model is blocked only
+ * w.r.t. these literals. Since the cube literals are projection literals, the
+ * cubes do not share any models.
+ */
+class CubeEnumerator {
+
+	private static final int QUEUE_CAPACITY = 1024;
+	private static final long POLL_INTERVAL = 100;
+
+	private final Set<Sat4jSolver> activeSolvers = ConcurrentHashMap.newKeySet();
+	private volatile boolean cancelled = false;
+	private final int[] cubeLiterals;
+	private ExecutorService executor;
+	private final ClauseSource input;
+	private final boolean minimizeProjection;
+	private final Set<Integer> projection;
+	private final BlockingQueue<Set<Integer>> models = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final int numberOfThreads;
+	private final AtomicInteger runningCubes = new AtomicInteger();
+	private volatile RuntimeException failure;
+
+	/**
+	 * Constructs a new enumerator.
+	 *
+	 * @param input
+	 *            the SAT problem, which is not modified
+	 * @param projection
+	 *            the literals that determine whether two models are equal
+	 * @param cubeLiterals
+	 *            the projection literals used to split the search space
+	 * @param numberOfThreads
+	 *            the maximal number of cubes that are enumerated at the same
+	 *            time
+	 * @param minimizeProjection
+	 *            <code>true</code> iff the blocking clauses should be
+	 *            shortened by {@link Sat4jSolver#minimizeProjection(Set)}
+	 */
+	CubeEnumerator(ClauseSource input, Set<Integer> projection, int[] cubeLiterals, int numberOfThreads,
+			boolean minimizeProjection) {
+		this.input = input;
+		this.projection = projection;
+		this.cubeLiterals = cubeLiterals;
+		this.numberOfThreads = numberOfThreads;
+		this.minimizeProjection = minimizeProjection;
+	}
+
+	/**
+	 * Stops the enumeration. Solvers that are currently searching for a model
+	 * abort their search.
+	 */
+	void cancel() {
+		cancelled = true;
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		for (Sat4jSolver solver : activeSolvers) {
+			solver.interrupt();
+		}
+		models.clear();
+	}
+
+	private void enumerate(int cube) throws IOException, InterruptedException {
+		Sat4jSolver solver = new Sat4jSolver();
+		activeSolvers.add(solver);
+		try {
+			if (cancelled) {
+				// cancel() may not have seen this solver
+				return;
+			}
+			ClauseSink sink = solver.createClauseSink();
+			input.writeTo(sink);
+			for (int i = 0; i < cubeLiterals.length; i++) {
+				sink.add(((cube >> i) & 1) == 1 ? cubeLiterals[i] : -cubeLiterals[i]);
+			}
+
+			SatOutput output = solver.solve();
+			while (output.isSatisfiable() && !cancelled) {
+				Set<Integer> model = output.getOutput();
+				Set<Integer> trueLiterals = new HashSet<>();
+				for (Integer literal : projection) {
+					trueLiterals.add(model.contains(literal) ? literal : -literal);
+				}
+				while (!models.offer(model, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+					if (cancelled) {
+						return;
+					}
+				}
+
+				if (minimizeProjection) {
+					trueLiterals = solver.minimizeProjection(trueLiterals);
+				}
+				if (trueLiterals.isEmpty()) {
+					// there is no other model in this cube
+					break;
+				}
+				Set<Integer> clause = new HashSet<>();
+				for (Integer literal : trueLiterals) {
+					clause.add(-literal);
+				}
+				output = solver.update(clause);
+			}
+		} finally {
+			activeSolvers.remove(solver);
+			solver.cleanup();
+		}
+	}
+
+	/**
+	 * Returns the number of cubes.
+	 *
+	 * @return the number of cubes
+	 */
+	int getNumberOfCubes() {
+		return 1 << cubeLiterals.length;
+	}
+
+	/**
+	 * Returns the next model found by any of the solvers.
+	 *
+	 * @return the next model, or <code>null</code> if all models have been
+	 *         enumerated
+	 * @throws InterruptedException
+	 *             if the thread is interrupted while waiting for a model
+	 */
+	Set<Integer> next() throws InterruptedException {
+		if (executor == null) {
+			start();
+		}
+		while (true) {
+			Set<Integer> model = models.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			if (failure != null) {
+				cancel();
+				throw failure;
+			}
+			if (model != null) {
+				return model;
+			}
+			if (runningCubes.get() == 0) {
+				// all solvers are finished, but may have added a last model
+				model = models.poll();
+				if (model == null) {
+					executor.shutdown();
+				}
+				return model;
+			}
+		}
+	}
+
+	private void start() {
+		executor = Executors.newFixedThreadPool(Math.min(getNumberOfCubes(), numberOfThreads), runnable -> {
+			Thread thread = new Thread(runnable, "uel-cube");
+			thread.setDaemon(true);
+			return thread;
+		});
+		runningCubes.set(getNumberOfCubes());
+		for (int cube = 0; cube < getNumberOfCubes(); cube++) {
+			int currentCube = cube;
+			executor.execute(() -> {
+				try {
+					if (!cancelled) {
+						enumerate(currentCube);
+					}
+				} catch (InterruptedException | CancellationException e) {
+					// the enumeration was cancelled
+				} catch (IOException e) {
+					failure = new RuntimeException(e);
+				} catch (RuntimeException e) {
+					failure = e;
+				} finally {
+					runningCubes.decrementAndGet();
+				}
+			});
+		}
+	}
+
+}
@@ -0,0 +1,278 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.Set;
+
+import de.tudresden.inf.lat.uel.type.api.AtomManager;
+import de.tudresden.inf.lat.uel.type.api.Definition;
+import de.tudresden.inf.lat.uel.type.api.Disequation;
+import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
+import de.tudresden.inf.lat.uel.type.api.Equation;
+import de.tudresden.inf.lat.uel.type.api.Goal;
+import de.tudresden.inf.lat.uel.type.api.Subsumption;
+
+/**
+ * An object of this class contains a prediction of the size of the SAT
+ * encoding of a unification problem, as computed by
+ * {@link SatUnificationAlgorithm}. The numbers are obtained from the numbers
+ * of atoms and the axioms of the goal, without allocating any literals or
+ * clauses. The numbers of clauses and literals are upper bounds for the
+ * encoding that is constructed before the first unifier is computed; the
+ * transitivity clauses that are added lazily are not taken into account. The
+ * heap size is only a rough approximation of the memory needed for the
+ * literal tables, the literal manager and the clauses stored in the SAT
+ * solver.
+ */
+public class EncodingSizeEstimate {
+
+	/**
+	 * Approximate number of bytes needed for one clause object in the SAT
+	 * solver, excluding its literals.
+	 */
+	private static final long BYTES_PER_CLAUSE = 64;
+
+	/**
+	 * Approximate number of bytes needed for one literal of a clause in the
+	 * SAT solver, including the watches and the buffer of the SAT input.
+	 */
+	private static final long BYTES_PER_LITERAL_OCCURRENCE = 12;
+
+	/**
+	 * Approximate number of bytes needed for one literal in the literal
+	 * manager and the data structures of the SAT solver.
+	 */
+	private static final long BYTES_PER_LITERAL = 160;
+
+	private static int log2(long number) {
+		int ret = 0;
+		while ((1L << ret) < number) {
+			ret++;
+		}
+		return ret;
+	}
+
+	private long numberOfClauses = 0;
+	private long numberOfLiteralOccurrences = 0;
+	private long numberOfLiterals = 0;
+	private final long numberOfNonVariableAtoms;
+	private final long tableSize;
+
+	/**
+	 * Predicts the size of the SAT encoding of a goal.
+	 *
+	 * @param goal
+	 *            the unification problem
+	 * @param useMinimalAssignments
+	 *            <code>true</code> iff only minimal assignments should be
+	 *            computed
+	 * @param useLazyTransitivity
+	 *            <code>true</code> iff the transitivity clauses of step 2.5 are
+	 *            not encoded in advance
+	 * @param useBinaryOrder
+	 *            <code>true</code> iff the order on the variables is encoded by
+	 *            comparing binary levels
+	 */
+	EncodingSizeEstimate(Goal goal, boolean useMinimalAssignments, boolean useLazyTransitivity,
+			boolean useBinaryOrder) {
+		if (goal == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		AtomManager atomManager = goal.getAtomManager();
+		long numberOfConstants = atomManager.getConstants().size();
+		long numberOfExistentialRestrictions = atomManager.getExistentialRestrictions().size();
+		this.numberOfNonVariableAtoms = numberOfConstants + numberOfExistentialRestrictions;
+		long numberOfVariables = atomManager.getVariables().size();
+		long numberOfUsedAtoms = numberOfNonVariableAtoms + numberOfVariables;
+		long numberOfUserVariables = atomManager.getUserVariables().size();
+		long variableChildren = 0;
+		for (Integer atomId : atomManager.getExistentialRestrictions()) {
+			if (atomManager.getVariables().contains(atomManager.getChild(atomId))) {
+				variableChildren++;
+			}
+		}
+
+		this.tableSize = 4 * (numberOfUsedAtoms * numberOfUsedAtoms + numberOfVariables * numberOfVariables);
+
+		// subsumption literals
+		if (useLazyTransitivity) {
+			// most clauses only refer to pairs with a non-variable atom, except
+			// for the clauses for disunification
+			long pairs = numberOfUsedAtoms * numberOfNonVariableAtoms
+					+ numberOfExistentialRestrictions * numberOfExistentialRestrictions;
+			if (goal.hasNegativePart()) {
+				pairs += numberOfUsedAtoms * numberOfVariables;
+			}
+			numberOfLiterals += Math.min(numberOfUsedAtoms * numberOfUsedAtoms, pairs);
+		} else {
+			numberOfLiterals += numberOfUsedAtoms * numberOfUsedAtoms;
+		}
+
+		// step 1
+		for (Definition d : goal.getDefinitions()) {
+			addStep1(d.getLeft(), d.getRight(), atomManager);
+			if (!d.isPrimitive()) {
+				addStep1(d.getRight(), d.getLeft(), atomManager);
+			}
+		}
+		for (Equation e : goal.getEquations()) {
+			addStep1(e.getLeft(), e.getRight(), atomManager);
+			addStep1(e.getRight(), e.getLeft(), atomManager);
+		}
+		for (Subsumption s : goal.getSubsumptions()) {
+			addStep1(s.getLeft(), s.getRight(), atomManager);
+		}
+		for (Disequation e : goal.getDisequations()) {
+			numberOfLiterals += 1;
+			addStep1Dissubsumption(1, e.getLeft(), e.getRight(), atomManager);
+			addStep1Dissubsumption(1, e.getRight(), e.getLeft(), atomManager);
+		}
+		for (Dissubsumption e : goal.getDissubsumptions()) {
+			addStep1Dissubsumption(0, e.getLeft(), e.getRight(), atomManager);
+		}
+
+		// steps 2.1 to 2.4
+		addClauses(numberOfConstants * numberOfConstants, 1);
+		addClauses(numberOfExistentialRestrictions * numberOfExistentialRestrictions, 2);
+		addClauses(2 * numberOfConstants * numberOfExistentialRestrictions, 1);
+		if (goal.hasNegativePart()) {
+			addClauses(numberOfExistentialRestrictions * numberOfExistentialRestrictions, 2);
+			addClauses(numberOfNonVariableAtoms, 1);
+		}
+
+		// step 2.5
+		if (!useLazyTransitivity) {
+			addClauses(numberOfUsedAtoms * (numberOfUsedAtoms - 1) * (numberOfUsedAtoms - 2), 3);
+		}
+
+		// steps 3.1 and 3.2
+		if (useBinaryOrder) {
+			long numberOfBits = Math.max(1, log2(numberOfVariables));
+			long comparedPairs = variableChildren * numberOfVariables;
+			numberOfLiterals += comparedPairs * numberOfBits + numberOfVariables * numberOfBits;
+			addClauses(comparedPairs * (3 * (numberOfBits - 1) + 2), 3);
+		} else {
+			numberOfLiterals += numberOfVariables * numberOfVariables;
+			addClauses(numberOfVariables, 1);
+			addClauses(numberOfVariables * (numberOfVariables - 1) * (numberOfVariables - 1), 3);
+		}
+		addClauses(variableChildren * numberOfVariables, 2);
+
+		// clauses for disunification
+		if (goal.hasNegativePart()) {
+			addStep1DissubsumptionVariable(numberOfUsedAtoms * numberOfVariables, 1, 1);
+		}
+
+		if (useMinimalAssignments) {
+			addClauses(numberOfUserVariables * numberOfNonVariableAtoms, 1);
+		}
+	}
+
+	private void addClauses(long number, long length) {
+		if (number > 0) {
+			numberOfClauses += number;
+			numberOfLiteralOccurrences += number * length;
+		}
+	}
+
+	private void addStep1(Set<Integer> leftIds, Set<Integer> rightIds, AtomManager atomManager) {
+		for (Integer rightId : rightIds) {
+			if (atomManager.getVariables().contains(rightId)) {
+				addClauses(numberOfNonVariableAtoms, leftIds.size() + 1);
+			} else if (atomManager.getConstants().contains(rightId)
+					|| atomManager.getExistentialRestrictions().contains(rightId)) {
+				addClauses(1, leftIds.size());
+			}
+		}
+	}
+
+	private void addStep1Dissubsumption(long numberOfChoiceLiterals, Set<Integer> leftIds, Set<Integer> rightIds,
+			AtomManager atomManager) {
+		if (rightIds.isEmpty()) {
+			addClauses(1, numberOfChoiceLiterals);
+			return;
+		}
+		long choiceLiterals = numberOfChoiceLiterals;
+		if (rightIds.size() > 1) {
+			int log = log2(rightIds.size());
+			numberOfLiterals += log;
+			choiceLiterals += log;
+			addClauses((1L << log) - rightIds.size(), log);
+		}
+		for (Integer rightId : rightIds) {
+			if (atomManager.getVariables().contains(rightId)) {
+				addStep1DissubsumptionVariable(1, choiceLiterals, leftIds.size());
+			} else {
+				addClauses(leftIds.size(), choiceLiterals + 1);
+			}
+		}
+	}
+
+	private void addStep1DissubsumptionVariable(long number, long numberOfChoiceLiterals, long numberOfLeftIds) {
+		int log = log2(numberOfNonVariableAtoms);
+		numberOfLiterals += number * log;
+		long choiceLiterals = numberOfChoiceLiterals + log;
+		addClauses(number * numberOfNonVariableAtoms * (1 + numberOfLeftIds), choiceLiterals + 1);
+		addClauses(number * ((1L << log) - numberOfNonVariableAtoms), log);
+	}
+
+	/**
+	 * Returns the approximate number of bytes needed for the encoding, i.e.,
+	 * for the literal tables, the literals and the clauses stored in the SAT
+	 * solver.
+	 *
+	 * @return the estimated heap size in bytes
+	 */
+	public long getEstimatedHeapSize() {
+		return tableSize + numberOfLiterals * BYTES_PER_LITERAL + numberOfClauses * BYTES_PER_CLAUSE
+				+ numberOfLiteralOccurrences * BYTES_PER_LITERAL_OCCURRENCE;
+	}
+
+	/**
+	 * Returns an upper bound on the number of clauses of the encoding.
+	 *
+	 * @return the number of clauses
+	 */
+	public long getNumberOfClauses() {
+		return numberOfClauses;
+	}
+
+	/**
+	 * Returns an upper bound on the total length of all clauses of the
+	 * encoding.
+	 *
+	 * @return the number of literal occurrences
+	 */
+	public long getNumberOfLiteralOccurrences() {
+		return numberOfLiteralOccurrences;
+	}
+
+	/**
+	 * Returns an upper bound on the number of propositional variables of the
+	 * encoding.
+	 *
+	 * @return the number of literals
+	 */
+	public long getNumberOfLiterals() {
+		return numberOfLiterals;
+	}
+
+	/**
+	 * Checks whether the encoding is expected to fit into the given amount of
+	 * memory.
+	 *
+	 * @param bytes
+	 *            the available memory in bytes
+	 * @return <code>true</code> iff the estimated heap size does not exceed
+	 *         the given number of bytes
+	 */
+	public boolean fitsInto(long bytes) {
+		return getEstimatedHeapSize() <= bytes;
+	}
+
+	@Override
+	public String toString() {
+		return numberOfLiterals + " literals, " + numberOfClauses + " clauses, "
+				+ (getEstimatedHeapSize() >> 20) + " MB";
+	}
+
+}
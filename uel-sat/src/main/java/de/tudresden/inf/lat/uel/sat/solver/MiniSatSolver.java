@@ -3,19 +3,22 @@ package de.tudresden.inf.lat.uel.sat.solver;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 
-import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.DimacsClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
 
 /**
  * An object of this class uses the MiniSat solver to solve a SAT problem.
+ * MiniSat cannot be kept running to receive further clauses, and therefore
+ * the input file is kept after solving, later clauses are appended to it, and
+ * the solver is run again on the whole file.
  * 
  * @author Julian Mendez
  */
@@ -25,6 +28,8 @@ public class MiniSatSolver implements Solver {
 	private static final String tempPrefix = "uelMiniSat";
 	private static final String tempSuffix = ".tmp";
 
+	private DimacsClauseSink sink;
+
 	/**
 	 * Constructs a new solver.
 	 */
@@ -32,6 +37,22 @@ public class MiniSatSolver implements Solver {
 	}
 
 	public void cleanup() {
+		if (sink != null) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				// the file is deleted anyway
+			}
+			sink.getFile().delete();
+			sink = null;
+		}
+	}
+
+	@Override
+	public ClauseSink createClauseSink() throws IOException {
+		cleanup();
+		sink = new DimacsClauseSink(File.createTempFile(tempPrefix, tempSuffix), false);
+		return sink;
 	}
 
 	private void runMiniSat(File satinput, File satoutput) throws IOException {
@@ -46,20 +67,15 @@ public class MiniSatSolver implements Solver {
 	}
 
 	@Override
-	public SatOutput solve(SatInput input) throws IOException {
-		if (input == null) {
-			throw new IllegalArgumentException("Null argument.");
+	public SatOutput solve() throws IOException {
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
 		}
 
-		File satinput = File.createTempFile(tempPrefix, tempSuffix);
+		sink.close();
 		File satoutput = File.createTempFile(tempPrefix, tempSuffix);
 
-		PrintWriter satinputWriter = new PrintWriter(new FileWriter(satinput));
-		satinputWriter.println(input.toCNF());
-		satinputWriter.flush();
-		satinputWriter.close();
-
-		runMiniSat(satinput, satoutput);
+		runMiniSat(sink.getFile(), satoutput);
 
 		BufferedReader satoutputReader = new BufferedReader(new FileReader(satoutput));
 		String line = satoutputReader.readLine();
@@ -74,7 +90,6 @@ public class MiniSatSolver implements Solver {
 			clause.remove(Solver.END_OF_CLAUSE);
 		}
 
-		satinput.delete();
 		satoutput.delete();
 		satoutputReader.close();
 
@@ -83,7 +98,30 @@ public class MiniSatSolver implements Solver {
 
 	@Override
 	public SatOutput update(Set<Integer> clause) throws IOException {
-		throw new UnsupportedOperationException();
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		// append the clause and rewrite only the header of the file
+		sink.reopen();
+		sink.add(clause);
+		return solve();
+	}
+
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) throws IOException {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		sink.reopen();
+		for (Set<Integer> clause : clauses) {
+			sink.add(clause);
+		}
+		return solve();
 	}
 
 }
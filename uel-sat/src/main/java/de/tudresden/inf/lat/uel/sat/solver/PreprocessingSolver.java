@@ -0,0 +1,206 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+
+/**
+ * An object of this class collects the clauses of a SAT problem, simplifies
+ * them by a {@link CNFPreprocessor}, and passes the result to another solver.
+ * The models returned by that solver are extended to the original variables.
+ * Clauses added by later updates are simplified w.r.t. the variables fixed by
+ * the preprocessing; they must not contain eliminated variables, which is
+ * ensured by freezing all variables that can occur in updates.
+ */
+public class PreprocessingSolver implements Solver {
+
+	private SatInput input;
+	private SatOutput lastOutput;
+	private CNFPreprocessor preprocessor;
+	private final IntPredicate frozenVariables;
+	private final Solver solver;
+	private boolean unsatisfiable = false;
+	private final boolean variableElimination;
+
+	/**
+	 * Constructs a new preprocessing solver.
+	 *
+	 * @param solver
+	 *            the solver for the simplified problems
+	 * @param useVariableElimination
+	 *            <code>true</code> iff variables should be eliminated by
+	 *            resolution
+	 * @param frozenVariables
+	 *            tests whether a variable may occur in clauses added by later
+	 *            updates, and hence must not be eliminated
+	 */
+	public PreprocessingSolver(Solver solver, boolean useVariableElimination, IntPredicate frozenVariables) {
+		if (solver == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (frozenVariables == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.solver = solver;
+		this.variableElimination = useVariableElimination;
+		this.frozenVariables = frozenVariables;
+	}
+
+	@Override
+	public void cleanup() {
+		solver.cleanup();
+	}
+
+	@Override
+	public ClauseSink createClauseSink() {
+		input = new SatInput();
+		preprocessor = null;
+		lastOutput = null;
+		unsatisfiable = false;
+		return input;
+	}
+
+	/**
+	 * Extends a model of the simplified problem, e.g. one that was obtained
+	 * directly from the underlying solver, to the original variables.
+	 *
+	 * @param output
+	 *            the output of the underlying solver
+	 * @return the output for the original problem
+	 */
+	public SatOutput extend(SatOutput output) {
+		if (output == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (preprocessor == null) {
+			throw new IllegalStateException("The SAT problem has not been solved yet.");
+		}
+
+		if (output.isSatisfiable()) {
+			lastOutput = new SatOutput(true, preprocessor.extendModel(output.getOutput()));
+		} else {
+			unsatisfiable = true;
+			lastOutput = output;
+		}
+		return lastOutput;
+	}
+
+	@Override
+	public int getNumberOfVariables() {
+		return solver.getNumberOfVariables();
+	}
+
+	/**
+	 * Returns the preprocessor used for the current problem, which contains
+	 * statistics about the simplification.
+	 *
+	 * @return the preprocessor, or <code>null</code> if the current problem
+	 *         has not been solved yet
+	 */
+	public CNFPreprocessor getPreprocessor() {
+		return preprocessor;
+	}
+
+	@Override
+	public Set<Integer> minimizeProjection(Set<Integer> literals) throws IOException, InterruptedException {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (preprocessor == null) {
+			throw new IllegalStateException("The SAT problem has not been solved yet.");
+		}
+
+		// literals fixed by the preprocessing are true in all models
+		Set<Integer> unfixed = new HashSet<>();
+		for (Integer literal : literals) {
+			if (preprocessor.getValue(literal) == 0) {
+				unfixed.add(literal);
+			}
+		}
+		return solver.minimizeProjection(unfixed);
+	}
+
+	private Set<Integer> simplify(Set<Integer> clause) {
+		Set<Integer> ret = new HashSet<>();
+		for (Integer literal : clause) {
+			if (preprocessor.isEliminated(literal)) {
+				throw new IllegalStateException("Variable " + Math.abs(literal) + " was eliminated.");
+			}
+			int value = preprocessor.getValue(literal);
+			if (value > 0) {
+				// the clause is already satisfied
+				return null;
+			}
+			if (value == 0) {
+				ret.add(literal);
+			}
+		}
+		return ret;
+	}
+
+	@Override
+	public SatOutput solve() throws IOException, InterruptedException {
+		if (input == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		preprocessor = new CNFPreprocessor(variableElimination);
+		SatInput simplified = preprocessor.process(input, frozenVariables);
+		input = null;
+		if (preprocessor.isUnsatisfiable()) {
+			unsatisfiable = true;
+			lastOutput = new SatOutput(false, Collections.<Integer> emptySet());
+			return lastOutput;
+		}
+		return extend(solver.solve(simplified));
+	}
+
+	@Override
+	public SatOutput update(Set<Integer> clause) throws IOException, InterruptedException {
+		return updateAll(Collections.singleton(clause));
+	}
+
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) throws IOException, InterruptedException {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (preprocessor == null) {
+			throw new IllegalStateException("The SAT problem has not been solved yet.");
+		}
+
+		if (unsatisfiable) {
+			return lastOutput;
+		}
+		List<Set<Integer>> simplified = new ArrayList<>();
+		for (Set<Integer> clause : clauses) {
+			Set<Integer> literals = simplify(clause);
+			if (literals == null) {
+				continue;
+			}
+			if (literals.isEmpty()) {
+				unsatisfiable = true;
+				lastOutput = new SatOutput(false, Collections.<Integer> emptySet());
+				return lastOutput;
+			}
+			simplified.add(literals);
+		}
+		if (simplified.isEmpty()) {
+			// the problem has not changed
+			return lastOutput;
+		}
+		return extend(solver.updateAll(simplified));
+	}
+
+}
@@ -0,0 +1,139 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+
+/**
+ * An object of this class passes clauses directly to a Sat4j solver, without
+ * storing them in between. If one of the clauses makes the problem trivially
+ * unsatisfiable, all further clauses are ignored.
+ */
+class Sat4jClauseSink implements ClauseSink {
+
+	// the solver copies the literals, so one buffer is enough for all clauses
+	private final VecInt clause = new VecInt();
+	private int lastId = 0;
+	private final Map<Integer, Integer> minimizeLiterals = new LinkedHashMap<>();
+	private int numberOfClauses = 0;
+	private final ISolver solver;
+	private boolean unsatisfiable = false;
+
+	/**
+	 * Constructs a new sink for the given solver.
+	 *
+	 * @param solver
+	 *            the Sat4j solver
+	 */
+	Sat4jClauseSink(ISolver solver) {
+		this.solver = solver;
+	}
+
+	@Override
+	public boolean add(int[] literals, int offset, int length) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+
+		clause.clear();
+		for (int position = offset; position < offset + length; position++) {
+			int literal = literals[position];
+			if (literal == Solver.END_OF_CLAUSE) {
+				throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+			}
+			int absLiteral = literal < 0 ? (-1) * literal : literal;
+			if (absLiteral > lastId) {
+				lastId = absLiteral;
+			}
+			clause.push(literal);
+		}
+		numberOfClauses++;
+
+		if (unsatisfiable) {
+			return false;
+		}
+		try {
+			addClause(clause);
+		} catch (ContradictionException e) {
+			unsatisfiable = true;
+		}
+		return true;
+	}
+
+	/**
+	 * Passes one clause to the solver.
+	 *
+	 * @param clause
+	 *            the clause
+	 * @throws ContradictionException
+	 *             if the clause makes the problem trivially unsatisfiable
+	 */
+	protected void addClause(IVecInt clause) throws ContradictionException {
+		solver.addClause(clause);
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		return addMinimizeLiteral(literal, 1);
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight must be positive.");
+		}
+
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
+		Integer oldWeight = this.minimizeLiterals.put(literal, weight);
+		return oldWeight == null || oldWeight != weight;
+	}
+
+	/**
+	 * Returns the greatest propositional variable identifier added so far.
+	 *
+	 * @return the greatest propositional variable identifier
+	 */
+	int getLastId() {
+		return lastId;
+	}
+
+	/**
+	 * Retrieve the literals that are to be minimized, together with their
+	 * weights.
+	 *
+	 * @return a map from the literals to be minimized to their weights
+	 */
+	Map<Integer, Integer> getMinimizeLiterals() {
+		return minimizeLiterals;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return numberOfClauses;
+	}
+
+	/**
+	 * Checks whether one of the clauses made the problem trivially
+	 * unsatisfiable.
+	 *
+	 * @return <code>true</code> iff a contradiction was detected while adding
+	 *         the clauses
+	 */
+	boolean isUnsatisfiable() {
+		return unsatisfiable;
+	}
+
+}
@@ -1,17 +1,22 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
+import java.math.BigInteger;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.sat4j.core.Vec;
 import org.sat4j.core.VecInt;
 import org.sat4j.maxsat.SolverFactory;
 import org.sat4j.maxsat.WeightedMaxSatDecorator;
-import org.sat4j.pb.PseudoOptDecorator;
 import org.sat4j.specs.ContradictionException;
-import org.sat4j.specs.IOptimizationProblem;
+import org.sat4j.specs.IConstr;
+import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
@@ -19,19 +24,96 @@ import de.tudresden.inf.lat.uel.sat.type.Solver;
 /**
  * An object of this class uses the Sat4j MaxSAT solver to solve a SAT problem
  * in which a given subset of the propositional variables should be minimized
- * (minimal number of variables set to 1 (true)).
+ * (minimal sum of the weights of the variables set to 1 (true)). If no weights
+ * are given, each variable has weight 1. Optionally, the optimization
+ * can be bounded by a timeout, after which the best model found so far is
+ * returned even if it has not been proven to be optimal. The optimization of
+ * such a model can be resumed later by calling {@link #improve(long)}.
+ * <p>
+ * Each better model is searched for under the constraint that its objective
+ * value is smaller than that of the last model. Since Sat4j cannot undo the
+ * consequences of a constraint that is removed later, this constraint is
+ * guarded by a selector variable that is assumed to be true, and it is
+ * disabled permanently once the optimization is finished. Therefore, the
+ * models of further updates are not restricted by previous optimizations.
+ * During one optimization, the bound only becomes stronger, and hence each
+ * new bound replaces the previous one under the same selector variable. Only
+ * one bound is stored at any time, and each optimization leaves behind only
+ * its disabled selector variable.
  * 
  * @author Stefan Borgwardt
  */
 public class Sat4jMaxSatSolver implements Solver {
 
-	private Integer nbVars;
+	private int bound = 0;
+	private IConstr boundConstraint;
+	// true iff no other constraint has been added after the current bound
+	private boolean boundIsLast = false;
+	private Set<Integer> model;
+	private int nbVars;
+	private VecInt objectiveLiterals;
+	private Vec<BigInteger> objectiveWeights;
+	private boolean optimal = true;
+	private final long optimizationTimeout;
+	private boolean satisfiable = false;
+	private Sat4jClauseSink sink;
 	private WeightedMaxSatDecorator solver;
+	private BigInteger totalWeight;
 
 	/**
-	 * Constructs a new solver.
+	 * Constructs a new solver that always computes optimal models.
 	 */
 	public Sat4jMaxSatSolver() {
+		this(0);
+	}
+
+	/**
+	 * Constructs a new solver that stops optimizing a model after the given
+	 * time. The first model is always computed, regardless of the timeout.
+	 *
+	 * @param optimizationTimeout
+	 *            the time (in milliseconds) available for improving a model,
+	 *            or 0 if the optimization should not be bounded
+	 */
+	public Sat4jMaxSatSolver(long optimizationTimeout) {
+		if (optimizationTimeout < 0) {
+			throw new IllegalArgumentException("Negative timeout.");
+		}
+
+		this.optimizationTimeout = optimizationTimeout;
+	}
+
+	/**
+	 * Restricts the following models to those whose objective value is
+	 * smaller than the given one. The constraint replaces the bound of the
+	 * previous model, which it implies, and is guarded by the same selector
+	 * variable. The consequences learned from the previous bound therefore
+	 * remain valid.
+	 *
+	 * @param objectiveValue
+	 *            the objective value of the last model
+	 * @throws ContradictionException
+	 *             if the constraint makes the problem trivially
+	 *             unsatisfiable
+	 */
+	private void addBound(BigInteger objectiveValue) throws ContradictionException {
+		if (bound == 0) {
+			bound = solver.nVars() + 1;
+			solver.newVar(bound);
+		}
+		removeBoundConstraint();
+
+		// if the selector variable is false, the constraint is satisfied by
+		// every model
+		VecInt literals = new VecInt(objectiveLiterals.size() + 1);
+		objectiveLiterals.copyTo(literals);
+		literals.push(bound);
+		Vec<BigInteger> weights = new Vec<>(objectiveWeights.size() + 1);
+		objectiveWeights.copyTo(weights);
+		weights.push(totalWeight);
+		boundConstraint = solver.addPseudoBoolean(literals, weights, false,
+				totalWeight.add(objectiveValue).subtract(BigInteger.ONE));
+		boundIsLast = true;
 	}
 
 	public void cleanup() {
@@ -40,64 +122,241 @@ public class Sat4jMaxSatSolver implements Solver {
 		}
 	}
 
+	@Override
+	public int getNumberOfVariables() {
+		return (solver == null) ? 0 : solver.nVars();
+	}
+
 	private SatOutput getSatOutput() {
-		IOptimizationProblem problem = new PseudoOptDecorator(solver, false);
-		Set<Integer> model = new TreeSet<>();
-		boolean satisfiable = false;
-		// int counter = 0;
+		releaseBound();
+		satisfiable = false;
+		model = Collections.emptySet();
+		return optimize(optimizationTimeout);
+	}
+
+	/**
+	 * Continues the optimization of the last model that was returned without
+	 * having been proven to be optimal.
+	 *
+	 * @param timeout
+	 *            the additional time (in milliseconds) available for improving
+	 *            the model, or 0 if the optimization should not be bounded
+	 * @return the best model found so far
+	 */
+	public SatOutput improve(long timeout) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Negative timeout.");
+		}
+		if (model == null) {
+			throw new IllegalStateException("No SAT problem has been solved.");
+		}
+
+		if (optimal) {
+			return getModel();
+		}
+		return optimize(timeout);
+	}
+
+	/**
+	 * Checks whether the last model has been proven to be optimal, i.e. the
+	 * optimization did not stop because of the timeout.
+	 *
+	 * @return <code>true</code> iff the last model is optimal
+	 */
+	public boolean isOptimal() {
+		return optimal;
+	}
+
+	private SatOutput getModel() {
+		return new SatOutput(satisfiable, model);
+	}
+
+	private SatOutput optimize(long timeout) {
+		long deadline = System.currentTimeMillis() + timeout;
+		optimal = false;
 		try {
-			while (problem.admitABetterSolution()) {
+			while (true) {
+				if (satisfiable && timeout > 0) {
+					// the first model is computed without a timeout
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						return getModel();
+					}
+					solver.setTimeoutMs(remaining);
+				} else {
+					solver.setTimeout(Integer.MAX_VALUE);
+				}
+				VecInt assumptions = new VecInt();
+				if (bound != 0) {
+					assumptions.push(bound);
+				}
+				if (!solver.isSatisfiable(assumptions)) {
+					break;
+				}
 				satisfiable = true;
-				// counter++;
-				problem.discardCurrentSolution();
+				BigInteger objectiveValue = readModel();
+				if (objectiveValue.signum() == 0) {
+					// the model cannot be improved
+					break;
+				}
+				addBound(objectiveValue);
 			}
 		} catch (TimeoutException e) {
-			throw new RuntimeException(e);
+			// return the best model found so far
+			return getModel();
 		} catch (ContradictionException e) {
 			// this means that the current model is optimal
 		}
-		// if (counter > 2) {
-		// System.out.println(counter);
-		// }
-		if (satisfiable) {
-			for (int i = 1; i <= nbVars; i++) {
-				if (problem.model(i)) {
-					model.add(i);
-				}
+		optimal = true;
+		releaseBound();
+		return getModel();
+	}
+
+	/**
+	 * Stores the model found by the solver as the best model so far.
+	 *
+	 * @return the objective value of the model
+	 */
+	private BigInteger readModel() {
+		model = new TreeSet<>();
+		for (int i = 1; i <= nbVars; i++) {
+			if (solver.model(i)) {
+				model.add(i);
 			}
 		}
 
-		return new SatOutput(satisfiable, model);
+		BigInteger ret = BigInteger.ZERO;
+		for (int i = 0; i < objectiveLiterals.size(); i++) {
+			int literal = objectiveLiterals.get(i);
+			if (solver.model(Math.abs(literal)) == (literal > 0)) {
+				ret = ret.add(objectiveWeights.get(i));
+			}
+		}
+		return ret;
 	}
 
-	@Override
-	public SatOutput solve(SatInput input) {
-		if (input == null) {
-			throw new IllegalArgumentException("Null argument.");
+	/**
+	 * Disables the constraint of the current bound on the objective value.
+	 */
+	private void releaseBound() {
+		if (bound != 0) {
+			removeBoundConstraint();
+			try {
+				solver.addHardClause(new VecInt(new int[] { -bound }));
+			} catch (ContradictionException e) {
+				// the selector variable cannot be true in any model
+			}
+			bound = 0;
+		}
+	}
+
+	/**
+	 * Removes the constraint of the current bound from the solver, if it is
+	 * still the last constraint. Sat4j can only remove the last constraint
+	 * without discarding all learned clauses. Otherwise, the constraint is
+	 * kept, and it is satisfied by every model once the selector variable is
+	 * disabled.
+	 */
+	private void removeBoundConstraint() {
+		if (boundConstraint != null && boundIsLast) {
+			solver.removeSubsumedConstr(boundConstraint);
 		}
+		boundConstraint = null;
+		boundIsLast = false;
+	}
 
+	@Override
+	public ClauseSink createClauseSink() {
 		// TODO: use own VarOrder and PhaseSelectionStrategy?
 
 		solver = new WeightedMaxSatDecorator(SolverFactory.newDefault());
-		nbVars = input.getLastId();
-		solver.newVar(nbVars);
-		solver.addLiteralsToMinimize(new VecInt(SatInput.toArray(input.getMinimizeLiterals())));
-		for (Set<Integer> clause : input.getClauses()) {
-			try {
-				solver.addHardClause(new VecInt(SatInput.toArray(clause)));
-			} catch (ContradictionException e) {
-				return new SatOutput(false, Collections.<Integer> emptySet());
+		sink = new Sat4jClauseSink(solver) {
+			@Override
+			protected void addClause(IVecInt clause) throws ContradictionException {
+				solver.addHardClause(clause);
 			}
+		};
+		model = null;
+		bound = 0;
+		boundConstraint = null;
+		boundIsLast = false;
+		return sink;
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		if (sink.isUnsatisfiable()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		nbVars = sink.getLastId();
+		solver.newVar(nbVars);
+		objectiveLiterals = new VecInt();
+		objectiveWeights = new Vec<>();
+		totalWeight = BigInteger.ZERO;
+		VecInt weights = new VecInt();
+		for (Entry<Integer, Integer> entry : sink.getMinimizeLiterals().entrySet()) {
+			BigInteger weight = BigInteger.valueOf(entry.getValue());
+			objectiveLiterals.push(entry.getKey());
+			objectiveWeights.push(weight);
+			weights.push(entry.getValue());
+			totalWeight = totalWeight.add(weight);
 		}
+		solver.addWeightedLiteralsToMinimize(objectiveLiterals, weights);
 		return getSatOutput();
 	}
 
 	public SatOutput update(Set<Integer> clause) {
+		boundIsLast = false;
+		try {
+			solver.addHardClause(toVecInt(clause));
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		return getSatOutput();
+	}
+
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		boundIsLast = false;
 		try {
-			solver.addHardClause(new VecInt(SatInput.toArray(clause)));
+			for (Set<Integer> clause : clauses) {
+				solver.addHardClause(toVecInt(clause));
+			}
 		} catch (ContradictionException e) {
 			return new SatOutput(false, Collections.<Integer> emptySet());
 		}
 		return getSatOutput();
 	}
+
+	/**
+	 * Converts a clause that is added after the problem was solved. The
+	 * optimization only considers variables that have been declared before,
+	 * and therefore new variables occurring in the clause are declared here.
+	 *
+	 * @param clause
+	 *            the clause
+	 * @return the literals of the clause
+	 */
+	private VecInt toVecInt(Set<Integer> clause) {
+		int[] literals = SatInput.toArray(clause);
+		int lastId = nbVars;
+		for (int literal : literals) {
+			lastId = Math.max(lastId, Math.abs(literal));
+		}
+		if (lastId > nbVars) {
+			nbVars = lastId;
+			if (nbVars > solver.nVars()) {
+				solver.newVar(nbVars);
+			}
+		}
+		return new VecInt(literals);
+	}
 }
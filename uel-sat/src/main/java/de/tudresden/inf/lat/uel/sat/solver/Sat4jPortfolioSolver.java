@@ -0,0 +1,353 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+import de.tudresden.inf.lat.uel.sat.type.Solver;
+
+/**
+ * An object of this class runs several differently configured Sat4j solvers on
+ * the same SAT problem in parallel. The first answer is taken and the other
+ * solvers are stopped. Since the fastest configuration is likely to also be
+ * fast on the extended problems, only the winning solver is kept to answer
+ * later updates.
+ */
+public class Sat4jPortfolioSolver implements Solver {
+
+	private static final Map<String, Supplier<ISolver>> configurations = new LinkedHashMap<>();
+	private static final long POLL_INTERVAL = 10;
+
+	static {
+		configurations.put("default", SolverFactory::newDefault);
+		configurations.put("glucose", SolverFactory::newGlucose21);
+		configurations.put("luby restarts", SolverFactory::newMiniLearningHeapRsatExpSimpLuby);
+		configurations.put("phase saving", SolverFactory::newDefaultMS21PhaseSaving);
+		configurations.put("best HT", SolverFactory::newBestHT);
+		configurations.put("no restarts", SolverFactory::newMiniLearningHeapEZSimpNoRestarts);
+	}
+
+	/**
+	 * Returns the names of the solver configurations that can be used in a
+	 * portfolio, in the order in which they are selected.
+	 *
+	 * @return the configuration names
+	 */
+	public static List<String> getConfigurationNames() {
+		return Collections.unmodifiableList(new ArrayList<>(configurations.keySet()));
+	}
+
+	private final List<String> names = new ArrayList<>();
+	private final int numberOfSolvers;
+	private final List<Sat4jClauseSink> sinks = new ArrayList<>();
+	private final List<ISolver> solvers = new ArrayList<>();
+	private String winner;
+
+	/**
+	 * Constructs a new portfolio with one solver configuration per available
+	 * processor.
+	 */
+	public Sat4jPortfolioSolver() {
+		this(Math.min(configurations.size(), Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Constructs a new portfolio with the given number of solver
+	 * configurations.
+	 *
+	 * @param numberOfSolvers
+	 *            the number of solvers running in parallel
+	 */
+	public Sat4jPortfolioSolver(int numberOfSolvers) {
+		if (numberOfSolvers < 1 || numberOfSolvers > configurations.size()) {
+			throw new IllegalArgumentException("Invalid number of solvers: " + numberOfSolvers + ".");
+		}
+
+		this.numberOfSolvers = numberOfSolvers;
+	}
+
+	public void cleanup() {
+		for (ISolver solver : solvers) {
+			solver.reset();
+		}
+	}
+
+	@Override
+	public ClauseSink createClauseSink() {
+		cleanup();
+		names.clear();
+		sinks.clear();
+		solvers.clear();
+		winner = null;
+
+		for (Map.Entry<String, Supplier<ISolver>> configuration : configurations.entrySet()) {
+			if (solvers.size() == numberOfSolvers) {
+				break;
+			}
+			ISolver solver = configuration.getValue().get();
+			names.add(configuration.getKey());
+			solvers.add(solver);
+			sinks.add(new Sat4jClauseSink(solver));
+		}
+		return new ClauseSink() {
+			private int numberOfClauses = 0;
+
+			@Override
+			public boolean add(int[] literals, int offset, int length) {
+				for (Sat4jClauseSink sink : sinks) {
+					sink.add(literals, offset, length);
+				}
+				numberOfClauses++;
+				return true;
+			}
+
+			@Override
+			public boolean addMinimizeLiteral(Integer literal) {
+				return false;
+			}
+
+			@Override
+			public int getNumberOfClauses() {
+				return numberOfClauses;
+			}
+		};
+	}
+
+	/**
+	 * Returns the name of the configuration that answered first and is used
+	 * for all further updates.
+	 *
+	 * @return the name of the winning configuration, or <code>null</code> if
+	 *         the problem has not been solved yet
+	 */
+	public String getWinningConfiguration() {
+		return winner;
+	}
+
+	@Override
+	public int getNumberOfVariables() {
+		int ret = 0;
+		for (ISolver solver : solvers) {
+			ret = Math.max(ret, solver.nVars());
+		}
+		return ret;
+	}
+
+	private SatOutput getSatOutput(ISolver solver) throws TimeoutException {
+		Set<Integer> model = new TreeSet<>();
+		boolean satisfiable = solver.isSatisfiable();
+		if (satisfiable) {
+			for (Integer e : solver.model()) {
+				model.add(e);
+			}
+		}
+
+		return new SatOutput(satisfiable, model);
+	}
+
+	private SatOutput race() throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(solvers.size());
+		CompletionService<Integer> service = new ExecutorCompletionService<>(executor);
+		List<Future<Integer>> futures = new ArrayList<>();
+		SatOutput[] outputs = new SatOutput[solvers.size()];
+		// set as soon as the race is over; solvers that have not started yet
+		// are not run anymore
+		AtomicBoolean decided = new AtomicBoolean(false);
+		for (int i = 0; i < solvers.size(); i++) {
+			int index = i;
+			futures.add(service.submit(() -> {
+				if (decided.get()) {
+					return -1;
+				}
+				outputs[index] = getSatOutput(solvers.get(index));
+				return index;
+			}));
+		}
+
+		int winningIndex = -1;
+		try {
+			for (int i = 0; i < solvers.size() && winningIndex < 0; i++) {
+				try {
+					winningIndex = service.take().get();
+				} catch (ExecutionException e) {
+					// this solver failed, but the others may still succeed
+					if (i == solvers.size() - 1) {
+						throw new RuntimeException(e.getCause());
+					}
+				}
+			}
+		} finally {
+			decided.set(true);
+			stopAll(futures, winningIndex);
+			executor.shutdown();
+		}
+
+		keepOnly(winningIndex);
+		return outputs[winningIndex];
+	}
+
+	/**
+	 * Stops the solvers that lost the race and waits until they have
+	 * finished, since they are reset afterwards. A solver ignores a timeout
+	 * that expires before its search has started, and therefore the timeouts
+	 * are expired again until all searches have ended. Solvers that had not
+	 * started their search when the race was decided finish immediately.
+	 * 
+	 * @param futures
+	 *            the results of the solvers
+	 * @param winningIndex
+	 *            the index of the winning solver, or -1 if there is none
+	 */
+	private void stopAll(List<Future<Integer>> futures, int winningIndex) {
+		boolean interrupted = false;
+		boolean running = true;
+		while (running) {
+			for (int i = 0; i < solvers.size(); i++) {
+				if (i != winningIndex && !futures.get(i).isDone()) {
+					solvers.get(i).expireTimeout();
+				}
+			}
+			running = false;
+			for (Future<Integer> future : futures) {
+				try {
+					future.get(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (java.util.concurrent.TimeoutException e) {
+					running = true;
+				} catch (ExecutionException e) {
+					// the solver was stopped
+				} catch (InterruptedException e) {
+					// the solvers have to be stopped in any case
+					interrupted = true;
+					running = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void keepOnly(int index) {
+		ISolver solver = solvers.get(index);
+		winner = names.get(index);
+		for (int i = 0; i < solvers.size(); i++) {
+			if (i != index) {
+				solvers.get(i).reset();
+			}
+		}
+		solvers.clear();
+		solvers.add(solver);
+		sinks.clear();
+	}
+
+	@Override
+	public Set<Integer> minimizeProjection(Set<Integer> literals) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (solvers.size() != 1) {
+			throw new IllegalStateException("The SAT problem has not been solved yet.");
+		}
+
+		return Sat4jSolver.minimizeProjection(solvers.get(0), literals);
+	}
+
+	@Override
+	public SatOutput solve() throws InterruptedException {
+		if (sinks.isEmpty()) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		// all solvers received the same clauses
+		Sat4jClauseSink sink = sinks.get(0);
+		if (sink.isUnsatisfiable()) {
+			keepOnly(0);
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		for (ISolver solver : solvers) {
+			// clauses may contain variables that were not declared before
+			solver.newVar(sink.getLastId());
+		}
+		if (solvers.size() == 1) {
+			keepOnly(0);
+			try {
+				return getSatOutput(solvers.get(0));
+			} catch (TimeoutException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		return race();
+	}
+
+	public SatOutput update(Set<Integer> clause) {
+		return updateAll(Collections.singleton(clause));
+	}
+
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (solvers.size() != 1) {
+			throw new IllegalStateException("The SAT problem has not been solved yet.");
+		}
+
+		ISolver solver = solvers.get(0);
+		try {
+			for (Set<Integer> clause : clauses) {
+				solver.addClause(toVecInt(solver, clause));
+			}
+			return getSatOutput(solver);
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		} catch (TimeoutException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Converts a clause that is added after the problem was solved, declaring
+	 * new variables occurring in the clause.
+	 *
+	 * @param solver
+	 *            the solver
+	 * @param clause
+	 *            the clause
+	 * @return the literals of the clause
+	 */
+	private VecInt toVecInt(ISolver solver, Set<Integer> clause) {
+		int[] literals = SatInput.toArray(clause);
+		int lastId = solver.nVars();
+		for (int literal : literals) {
+			lastId = Math.max(lastId, Math.abs(literal));
+		}
+		if (lastId > solver.nVars()) {
+			solver.newVar(lastId);
+		}
+		return new VecInt(literals);
+	}
+
+}
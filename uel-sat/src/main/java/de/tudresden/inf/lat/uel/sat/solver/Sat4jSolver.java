@@ -1,16 +1,21 @@
 package de.tudresden.inf.lat.uel.sat.solver;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
 import org.sat4j.specs.ContradictionException;
 import org.sat4j.specs.IProblem;
 import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
@@ -22,7 +27,10 @@ import de.tudresden.inf.lat.uel.sat.type.Solver;
  */
 public class Sat4jSolver implements Solver {
 
-	private ISolver solver;
+	private int[] assumptions = new int[0];
+	private volatile boolean interrupted = false;
+	private Sat4jClauseSink sink;
+	private volatile ISolver solver;
 
 	/**
 	 * Constructs a new solver.
@@ -40,9 +48,16 @@ public class Sat4jSolver implements Solver {
 		IProblem problem = solver;
 		Set<Integer> model = new TreeSet<>();
 		boolean satisfiable;
+		if (interrupted) {
+			throw new CancellationException();
+		}
 		try {
-			satisfiable = problem.isSatisfiable();
+			satisfiable = (assumptions.length == 0) ? problem.isSatisfiable()
+					: problem.isSatisfiable(new VecInt(assumptions));
 		} catch (TimeoutException e) {
+			if (interrupted) {
+				throw new CancellationException();
+			}
 			throw new RuntimeException(e);
 		}
 		if (satisfiable) {
@@ -54,34 +69,228 @@ public class Sat4jSolver implements Solver {
 		return new SatOutput(satisfiable, model);
 	}
 
+	/**
+	 * Stops this solver from another thread. A search that is currently
+	 * running is aborted, and every further search fails immediately; in both
+	 * cases, a {@link CancellationException} is thrown.
+	 */
+	public void interrupt() {
+		interrupted = true;
+		ISolver current = solver;
+		if (current != null) {
+			current.expireTimeout();
+		}
+	}
+
+	/**
+	 * Returns the number of propositional variables that have been declared in
+	 * the current problem. This includes the selector variables introduced by
+	 * {@link #minimizeProjection(Set)}, which must not be reused for other
+	 * purposes.
+	 *
+	 * @return the number of declared variables
+	 */
 	@Override
-	public SatOutput solve(SatInput input) throws InterruptedException {
-		if (input == null) {
-			throw new IllegalArgumentException("Null argument.");
+	public int getNumberOfVariables() {
+		return (solver == null) ? 0 : solver.nVars();
+	}
+
+	/**
+	 * Computes a subset of the given literals that implies all of them in the
+	 * current problem. The clause excluding the assignment of all literals is
+	 * added temporarily, guarded by a fresh selector variable, and the problem
+	 * is solved under the assumption that the literals are true. The
+	 * assumptions that are responsible for the unsatisfiability form the
+	 * result. Afterwards, the clause is disabled by setting the selector
+	 * variable to true.
+	 *
+	 * @param solver
+	 *            the Sat4j solver for the current problem
+	 * @param literals
+	 *            the literals that are true in the last model
+	 * @return a subset of the literals that implies all of them
+	 */
+	static Set<Integer> minimizeProjection(ISolver solver, Set<Integer> literals) {
+		return minimizeProjection(solver, literals, new int[0]);
+	}
+
+	/**
+	 * Computes a subset of the given literals that implies all of them in the
+	 * current problem under the given additional assumptions, which are never
+	 * part of the result.
+	 *
+	 * @param solver
+	 *            the Sat4j solver for the current problem
+	 * @param literals
+	 *            the literals that are true in the last model
+	 * @param assumptions
+	 *            the literals that are assumed to be true in every model
+	 * @return a subset of the literals that implies all of them
+	 * @see #minimizeProjection(ISolver, Set)
+	 */
+	static Set<Integer> minimizeProjection(ISolver solver, Set<Integer> literals, int[] assumptions) {
+		if (literals.isEmpty()) {
+			return literals;
 		}
 
-		solver = SolverFactory.newDefault();
-		solver.newVar(input.getLastId());
-		for (Set<Integer> clause : input.getClauses()) {
+		int selector = solver.nVars() + 1;
+		solver.newVar(selector);
+		VecInt clause = new VecInt(literals.size() + 1);
+		VecInt allAssumptions = new VecInt(literals.size() + assumptions.length + 1);
+		clause.push(selector);
+		allAssumptions.push(-selector);
+		for (Integer literal : literals) {
+			clause.push(-literal);
+			allAssumptions.push(literal);
+		}
+		for (int literal : assumptions) {
+			allAssumptions.push(literal);
+		}
+
+		try {
+			solver.addClause(clause);
+		} catch (ContradictionException e) {
+			// the current problem is unsatisfiable
+			return literals;
+		}
+		try {
+			if (solver.isSatisfiable(allAssumptions)) {
+				// cannot happen if the literals were taken from the last model
+				return literals;
+			}
+			IVecInt explanation = solver.unsatExplanation();
+			if (explanation == null) {
+				return literals;
+			}
+			Set<Integer> ret = new HashSet<>();
+			for (int i = 0; i < explanation.size(); i++) {
+				if (literals.contains(explanation.get(i))) {
+					ret.add(explanation.get(i));
+				}
+			}
+			return ret;
+		} catch (TimeoutException e) {
+			throw new RuntimeException(e);
+		} finally {
 			try {
-				solver.addClause(new VecInt(SatInput.toArray(clause)));
+				solver.addClause(new VecInt(new int[] { selector }));
 			} catch (ContradictionException e) {
-				return new SatOutput(false, Collections.<Integer> emptySet());
+				// the selector variable cannot be false in any model
 			}
+		}
+	}
 
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
+	@Override
+	public Set<Integer> minimizeProjection(Set<Integer> literals) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (interrupted) {
+			throw new CancellationException();
+		}
+		try {
+			return minimizeProjection(solver, literals, assumptions);
+		} catch (RuntimeException e) {
+			if (interrupted) {
+				throw new CancellationException();
 			}
+			throw e;
 		}
+	}
+
+	/**
+	 * Sets the literals that are assumed to be true whenever the problem is
+	 * solved in the future. In contrast to unit clauses, assumptions can be
+	 * withdrawn later. This allows to enable and disable groups of clauses
+	 * that contain the negation of the same activation literal.
+	 *
+	 * @param literals
+	 *            the literals that are assumed to be true
+	 */
+	public void setAssumptions(Set<Integer> literals) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (solver == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		this.assumptions = SatInput.toArray(literals);
+		// assumptions may refer to variables that do not occur in any clause
+		int lastId = solver.nVars();
+		for (int literal : assumptions) {
+			lastId = Math.max(lastId, Math.abs(literal));
+		}
+		if (lastId > solver.nVars()) {
+			solver.newVar(lastId);
+		}
+	}
+
+	@Override
+	public ClauseSink createClauseSink() {
+		solver = SolverFactory.newDefault();
+		sink = new Sat4jClauseSink(solver);
+		return sink;
+	}
+
+	@Override
+	public SatOutput solve() {
+		if (sink == null) {
+			throw new IllegalStateException("No SAT problem has been created.");
+		}
+
+		if (sink.isUnsatisfiable()) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		// clauses may contain variables that were not declared before
+		solver.newVar(sink.getLastId());
 		return getSatOutput();
 	}
 
 	public SatOutput update(Set<Integer> clause) {
 		try {
-			solver.addClause(new VecInt(SatInput.toArray(clause)));
+			solver.addClause(toVecInt(clause));
 		} catch (ContradictionException e) {
 			return new SatOutput(false, Collections.<Integer> emptySet());
 		}
 		return getSatOutput();
 	}
+
+	@Override
+	public SatOutput updateAll(Collection<Set<Integer>> clauses) {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		try {
+			for (Set<Integer> clause : clauses) {
+				solver.addClause(toVecInt(clause));
+			}
+		} catch (ContradictionException e) {
+			return new SatOutput(false, Collections.<Integer> emptySet());
+		}
+		return getSatOutput();
+	}
+
+	/**
+	 * Converts a clause that is added after the problem was solved. The model
+	 * only contains variables that have been declared before, and therefore
+	 * new variables occurring in the clause are declared here.
+	 *
+	 * @param clause
+	 *            the clause
+	 * @return the literals of the clause
+	 */
+	private VecInt toVecInt(Set<Integer> clause) {
+		int[] literals = SatInput.toArray(clause);
+		int lastId = solver.nVars();
+		for (int literal : literals) {
+			lastId = Math.max(lastId, Math.abs(literal));
+		}
+		if (lastId > solver.nVars()) {
+			solver.newVar(lastId);
+		}
+		return new VecInt(literals);
+	}
 }
@@ -0,0 +1,149 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+/**
+ * An object of this class collects the options of a
+ * {@link SatUnificationAlgorithm}. All options are disabled initially, and
+ * each of them can be enabled by the corresponding method, e.g.,
+ * <code>new SatConfiguration().useLazyTransitivity(true)</code>. Some options
+ * are ignored in combination with others, as described for each method.
+ */
+public class SatConfiguration {
+
+	private boolean binaryOrder = false;
+	private boolean cubes = false;
+	private boolean lazyTransitivity = false;
+	private boolean minimalAssignments = false;
+	private boolean portfolio = false;
+	private boolean preprocessing = false;
+	private boolean projectedEnumeration = false;
+
+	/**
+	 * Specifies whether the order on the variables should be encoded by
+	 * comparing binary levels instead of using the transitivity clauses of
+	 * step 3.1.
+	 *
+	 * @param value
+	 *            <code>true</code> iff the binary order encoding should be
+	 *            used
+	 * @return this configuration
+	 */
+	public SatConfiguration useBinaryOrder(boolean value) {
+		this.binaryOrder = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether the search space should be split into cubes over a
+	 * few subsumption literals, whose unifiers are enumerated in parallel.
+	 * This is ignored if only minimal assignments are computed. The unifiers
+	 * of each cube are excluded by blocking clauses as specified by
+	 * {@link #useProjectedEnumeration(boolean)}.
+	 *
+	 * @param value
+	 *            <code>true</code> iff cubes should be used
+	 * @return this configuration
+	 */
+	public SatConfiguration useCubes(boolean value) {
+		this.cubes = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether the transitivity clauses of step 2.5 should not be
+	 * encoded in advance, but only added when a model of the SAT solver
+	 * violates them. This is ignored if cubes are used.
+	 *
+	 * @param value
+	 *            <code>true</code> iff lazy transitivity should be used
+	 * @return this configuration
+	 */
+	public SatConfiguration useLazyTransitivity(boolean value) {
+		this.lazyTransitivity = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether only minimal assignments should be computed.
+	 *
+	 * @param value
+	 *            <code>true</code> iff only minimal assignments should be
+	 *            computed
+	 * @return this configuration
+	 */
+	public SatConfiguration useMinimalAssignments(boolean value) {
+		this.minimalAssignments = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether several Sat4j configurations should be run in
+	 * parallel on the SAT problem. This is ignored if only minimal assignments
+	 * are computed or cubes are used.
+	 *
+	 * @param value
+	 *            <code>true</code> iff a portfolio of solvers should be used
+	 * @return this configuration
+	 */
+	public SatConfiguration usePortfolio(boolean value) {
+		this.portfolio = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether the SAT problem should be simplified by a
+	 * {@link CNFPreprocessor} before it is solved. This is ignored if cubes
+	 * are used.
+	 *
+	 * @param value
+	 *            <code>true</code> iff preprocessing should be used
+	 * @return this configuration
+	 */
+	public SatConfiguration usePreprocessing(boolean value) {
+		this.preprocessing = value;
+		return this;
+	}
+
+	/**
+	 * Specifies whether the clauses excluding previous unifiers should only
+	 * contain the projection literals that determine the unifier, as computed
+	 * by {@link de.tudresden.inf.lat.uel.sat.type.Solver#minimizeProjection}.
+	 * This is ignored if only minimal assignments are computed.
+	 *
+	 * @param value
+	 *            <code>true</code> iff projected enumeration should be used
+	 * @return this configuration
+	 */
+	public SatConfiguration useProjectedEnumeration(boolean value) {
+		this.projectedEnumeration = value;
+		return this;
+	}
+
+	public boolean usesBinaryOrder() {
+		return binaryOrder;
+	}
+
+	public boolean usesCubes() {
+		return cubes;
+	}
+
+	public boolean usesLazyTransitivity() {
+		return lazyTransitivity;
+	}
+
+	public boolean usesMinimalAssignments() {
+		return minimalAssignments;
+	}
+
+	public boolean usesPortfolio() {
+		return portfolio;
+	}
+
+	public boolean usesPreprocessing() {
+		return preprocessing;
+	}
+
+	public boolean usesProjectedEnumeration() {
+		return projectedEnumeration;
+	}
+
+}
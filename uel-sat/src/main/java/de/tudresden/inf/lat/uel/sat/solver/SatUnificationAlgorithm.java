@@ -2,24 +2,40 @@ package de.tudresden.inf.lat.uel.sat.solver;
 
 import java.io.IOException;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntBiFunction;
 import java.util.logging.Logger;
 
+import de.tudresden.inf.lat.uel.sat.literals.ActivationLiteral;
 import de.tudresden.inf.lat.uel.sat.literals.Choice;
+import de.tudresden.inf.lat.uel.sat.literals.ComparisonLiteral;
+import de.tudresden.inf.lat.uel.sat.literals.LevelLiteral;
 import de.tudresden.inf.lat.uel.sat.literals.Literal;
-import de.tudresden.inf.lat.uel.sat.literals.OrderLiteral;
-import de.tudresden.inf.lat.uel.sat.literals.SubsumptionLiteral;
+import de.tudresden.inf.lat.uel.sat.literals.LiteralTable;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.ClauseSource;
+import de.tudresden.inf.lat.uel.sat.type.DimacsClauseSink;
+import de.tudresden.inf.lat.uel.sat.type.OffHeapClauseStore;
 import de.tudresden.inf.lat.uel.sat.type.SatInput;
 import de.tudresden.inf.lat.uel.sat.type.SatOutput;
 import de.tudresden.inf.lat.uel.sat.type.Solver;
+import de.tudresden.inf.lat.uel.type.api.Axiom;
 import de.tudresden.inf.lat.uel.type.api.Definition;
 import de.tudresden.inf.lat.uel.type.api.Disequation;
 import de.tudresden.inf.lat.uel.type.api.Dissubsumption;
@@ -119,7 +135,12 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
  * where X, Y are concept variables occurring in &Gamma; and &exist;r<i>.</i>Y
  * is an atom of &Gamma;.</li>
  * </ul>
- * </li>
+ * Alternatively, every variable X can be assigned a level between 0 and
+ * 2<sup>k</sup>-1 that is encoded by k propositional variables, where
+ * 2<sup>k</sup> is at least the number of variables. Then [X &gt; Y] only
+ * implies that the level of X is greater than the level of Y, which is
+ * expressed by O(k) comparator clauses for each pair (X, Y) used in 2. This
+ * makes the clauses in 1. superfluous.</li>
  * </ul>
  * </div>
  *
@@ -128,31 +149,95 @@ import de.tudresden.inf.lat.uel.type.impl.Unifier;
  */
 public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
+	private static final String keyBlockingClauses = "Blocking clauses";
 	private static final String keyConfiguration = "Configuration";
+	private static final String keyCubes = "Cubes";
+	private static final String keyEstimatedSize = "Estimated encoding size";
+	private static final String keyMaxNumberOfUnifiers = "Maximal number of unifiers";
+	private static final String keyMinimality = "Minimality";
 	private static final String keyName = "Name";
+	private static final String keyOrderEncoding = "Order encoding";
+	private static final String keyPreprocessing = "Preprocessing";
+	private static final String keySatSolver = "SAT solver";
+	private static final String keyTransitivity = "Transitivity";
 	private static final String keyNumberOfClauses = "Number of clauses";
 	private static final String keyNumberOfPropositions = "Number of propositions";
+	private static final String keyNumberOfSkippedPropositions = "Number of skipped propositions";
 	private static final String keyNumberOfVariables = "Number of variables";
 	private static final Logger logger = Logger.getLogger(SatUnificationAlgorithm.class.getName());
+	private static final String notProvenMinimal = "not proven minimal";
 	private static final String notUsingMinimalAssignments = "all local assignments";
+	private static final String notUsingPreprocessing = "none";
+	private static final String provenMinimal = "proven minimal";
 	private static final String algorithmName = "SAT-based algorithm";
+	private static final String usingBinaryOrder = "binary levels";
+	private static final String usingFullBlockingClauses = "all projection literals";
+	private static final String usingProjectedBlockingClauses = "minimized projection literals";
+	private static final String usingTransitiveOrder = "transitivity clauses";
+	private static final String usingEagerTransitivity = "all clauses";
+	private static final String usingLazyTransitivity = "only violated clauses";
+	private static final int tasksPerThread = 4;
 	private static final String usingMinimalAssignments = "only minimal assignments";
-
+	private static final String usingWeightedMinimalAssignments = "only minimal assignments, by increasing cost";
+	private static final String usingPortfolio = "Sat4j portfolio";
+	private static final String usingSingleSolver = "Sat4j";
+
+	private final Deque<Integer> activationLiterals = new ArrayDeque<>();
+	private ToIntBiFunction<Integer, Integer> assignmentCosts;
+	private final boolean binaryOrder;
+	private OffHeapClauseStore cubeClauses;
+	private CubeEnumerator cubeEnumerator;
+	private EncodingSizeEstimate encodingSizeEstimate;
+	private final boolean cubes;
+	private final Set<BitSet> enumeratedProjections = new HashSet<>();
+	private Set<Integer> projectionLiterals;
 	private boolean firstTime = true;
+	private boolean incremental = false;
+	private final boolean lazyTransitivity;
 	private final IndexedSet<Literal> literalManager = new IndexedSetImpl<>();
+	private LiteralTable literalTable;
+	private int maxNumberOfUnifiers = 0;
+	private Sat4jMaxSatSolver maxSatSolver;
+	private long numberOfBlockingClauses = 0;
+	private long numberOfBlockingLiterals = 0;
 	private long numberOfClauses = 0;
+	private int numberOfUnifiers = 0;
+	private boolean negativePartEncoded;
+	private int negativePartLiteral = 0;
 	private final boolean onlyMinimalAssignments;
+	private long optimizationTimeout = 0;
+	private Sat4jPortfolioSolver portfolioSolver;
+	private final boolean portfolio;
+	private final boolean preprocessing;
+	private final List<Set<Integer>> pendingClauses = new ArrayList<>();
+	private final boolean projectedEnumeration;
+	private PreprocessingSolver preprocessingSolver;
 	private Unifier result;
+	private int roundLiteral = 0;
+	private Sat4jSolver sat4jSolver;
 	private Solver solver;
 	private final Map<Integer, Set<Integer>> subsumers = new HashMap<>();
-	private final Set<Integer> trueLiterals = new HashSet<>();
+	private final BitSet trueLiterals = new BitSet();
 	private final Set<Integer> nonVariableAtoms = new HashSet<>();
 	private final Set<Integer> usedAtomIds = new HashSet<>();
 	private final Goal goal;
 	private Set<Integer> update = new HashSet<>();
 
 	public SatUnificationAlgorithm(Goal goal, boolean useMinimalAssignments) {
-		if (goal == null) {
+		this(goal, new SatConfiguration().useMinimalAssignments(useMinimalAssignments));
+	}
+
+	/**
+	 * Constructs a new SAT-based unification algorithm.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param configuration
+	 *            the options of the algorithm; later changes of the
+	 *            configuration do not affect the algorithm
+	 */
+	public SatUnificationAlgorithm(Goal goal, SatConfiguration configuration) {
+		if (goal == null || configuration == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
@@ -161,11 +246,41 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		this.nonVariableAtoms.addAll(goal.getAtomManager().getExistentialRestrictions());
 		this.usedAtomIds.addAll(nonVariableAtoms);
 		this.usedAtomIds.addAll(goal.getAtomManager().getVariables());
-		this.onlyMinimalAssignments = useMinimalAssignments;
+		this.onlyMinimalAssignments = configuration.usesMinimalAssignments();
+		this.cubes = configuration.usesCubes() && !onlyMinimalAssignments;
+		// the violated transitivity clauses cannot be detected by the solvers
+		// of the cubes
+		this.lazyTransitivity = configuration.usesLazyTransitivity() && !cubes;
+		this.binaryOrder = configuration.usesBinaryOrder();
+		this.portfolio = configuration.usesPortfolio() && !onlyMinimalAssignments && !cubes;
+		this.preprocessing = configuration.usesPreprocessing() && !cubes;
+		this.projectedEnumeration = configuration.usesProjectedEnumeration() && !onlyMinimalAssignments;
 		setLiterals();
 	}
 
-	private void addClausesForDisunification(SatInput input) throws InterruptedException {
+	/**
+	 * Predicts the numbers of literals and clauses of the SAT encoding of a
+	 * goal and the memory needed for it, without constructing the encoding.
+	 * This allows to reject a goal, or to choose a different configuration or
+	 * algorithm, before any memory is allocated for the encoding.
+	 * 
+	 * @param goal
+	 *            the unification problem
+	 * @param configuration
+	 *            the options of the algorithm
+	 * @return the estimated size of the encoding
+	 */
+	public static EncodingSizeEstimate estimateEncodingSize(Goal goal, SatConfiguration configuration) {
+		if (configuration == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		boolean minimal = configuration.usesMinimalAssignments();
+		boolean lazy = configuration.usesLazyTransitivity() && !(configuration.usesCubes() && !minimal);
+		return new EncodingSizeEstimate(goal, minimal, lazy, configuration.usesBinaryOrder());
+	}
+
+	private void addClausesForDisunification(ClauseSink input) {
 		for (Integer atomId : getUsedAtomIds()) {
 			for (Integer varId : getVariables()) {
 				runStep1DissubsumptionVariable(Collections.singleton(getSubsumptionLiteral(atomId, varId)),
@@ -174,6 +289,62 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
+	/**
+	 * Adds dissubsumptions and disequations to the SAT problem of a previous
+	 * computation, e.g., to exclude atoms from the unifiers after the user has
+	 * inspected them. Only the clauses for the new axioms are encoded, and
+	 * they are added to the existing SAT solver together with the negation of
+	 * a fresh activation literal, which is assumed to be true in all further
+	 * calls of the solver. The clauses excluding the unifiers computed so far
+	 * are disabled in the same way, so that the next call of
+	 * {@link #computeNextUnifier()} starts the enumeration of the unifiers of
+	 * the extended goal. The given axioms should already have been added to
+	 * the goal of this algorithm.
+	 * 
+	 * This is only possible if refinement has been enabled by
+	 * {@link #setRefinable(boolean)}, all atoms of the new axioms already
+	 * occur in the goal, and at least one unifier has been computed. In all
+	 * other cases, the SAT problem has to be encoded again.
+	 * 
+	 * @param dissubsumptions
+	 *            the new dissubsumptions
+	 * @param disequations
+	 *            the new disequations
+	 * @return <code>true</code> iff the axioms could be added to the existing
+	 *         SAT problem
+	 * @see #removeLastNegativeAxioms()
+	 */
+	public boolean addNegativeAxioms(Set<Dissubsumption> dissubsumptions, Set<Disequation> disequations) {
+		if (dissubsumptions == null || disequations == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		if (!this.incremental || this.firstTime || !usesOnlyKnownAtoms(dissubsumptions)
+				|| !usesOnlyKnownAtoms(disequations)) {
+			return false;
+		}
+
+		int activationLiteral = createActivationLiteral();
+		ClauseSink sink = createGuardedClauseSink(activationLiteral);
+		if (!this.negativePartEncoded) {
+			// the goal did not have a negative part before, and thus the
+			// clauses needed for soundness of disunification are missing
+			runNegativeSteps2_1_N_2_3(sink);
+			addClausesForDisunification(sink);
+			this.negativePartEncoded = true;
+			this.negativePartLiteral = activationLiteral;
+		}
+		for (Disequation e : disequations) {
+			runStep1(e, sink);
+		}
+		for (Dissubsumption s : dissubsumptions) {
+			runStep1(s, sink);
+		}
+		this.activationLiterals.push(activationLiteral);
+		restartEnumeration();
+		return true;
+	}
+
 	private boolean addEntry(List<Entry<String, String>> list, String key, String value) {
 		return list.add(new SimpleEntry<String, String>(key, value));
 	}
@@ -187,29 +358,111 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return ret.add(atomId2);
 	}
 
+	/**
+	 * Adds the transitivity clauses of step 2.5 that are violated by the
+	 * current model and solves the extended problem again, until a model is
+	 * found that satisfies all transitivity clauses or the problem becomes
+	 * unsatisfiable.
+	 * 
+	 * @param satoutput
+	 *            the output of the SAT solver for the current problem
+	 * @return the output of the SAT solver for the extended problem
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private SatOutput addViolatedTransitivityClauses(SatOutput satoutput) throws IOException, InterruptedException {
+		SatOutput ret = satoutput;
+		while (ret.isSatisfiable()) {
+			reset();
+			setValuesForLiterals(ret.getOutput());
+			reserveSolverVariables();
+			List<Set<Integer>> clauses = getViolatedTransitivityClauses();
+			if (clauses.isEmpty()) {
+				break;
+			}
+
+			logger.finer("adding " + clauses.size() + " violated transitivity clauses ...");
+			this.numberOfClauses += clauses.size();
+			ret = this.solver.updateAll(clauses);
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+		}
+		return ret;
+	}
+
 	@Override
 	public void cleanup() {
 		if (solver != null) {
 			solver.cleanup();
 		}
+		if (cubeEnumerator != null) {
+			cubeEnumerator.cancel();
+		}
+		if (cubeClauses != null) {
+			try {
+				cubeClauses.close();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
 	}
 
 	@Override
 	public boolean computeNextUnifier() throws InterruptedException {
+		if (this.maxNumberOfUnifiers > 0 && this.numberOfUnifiers >= this.maxNumberOfUnifiers) {
+			return false;
+		}
+
+		boolean unifiable = this.cubes ? computeNextUnifierInCubes() : computeNextUnifierInSolver();
+		if (unifiable) {
+			this.numberOfUnifiers++;
+		}
+		return unifiable;
+	}
+
+	/**
+	 * Computes the next unifier using a single SAT solver, which keeps the
+	 * clauses excluding the previous unifiers.
+	 * 
+	 * @return <code>true</code> iff another unifier was found
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private boolean computeNextUnifierInSolver() throws InterruptedException {
 		SatOutput satoutput = null;
 		boolean unifiable = false;
 		try {
 			if (this.firstTime) {
 				if (this.onlyMinimalAssignments) {
-					this.solver = new Sat4jMaxSatSolver();
+					this.maxSatSolver = new Sat4jMaxSatSolver(optimizationTimeout);
+					this.solver = maxSatSolver;
+				} else if (this.portfolio) {
+					this.portfolioSolver = new Sat4jPortfolioSolver();
+					this.solver = portfolioSolver;
 				} else {
-					this.solver = new Sat4jSolver();
+					this.sat4jSolver = new Sat4jSolver();
+					this.solver = sat4jSolver;
 				}
-				SatInput satInput = computeSatInput();
-				//// DEBUG
+				if (this.preprocessing) {
+					// subsumption literals occur in updates and in the
+					// objective, and therefore cannot be eliminated
+					this.preprocessingSolver = new PreprocessingSolver(this.solver, true,
+							literalId -> isSubsumptionLiteral(literalId));
+					this.solver = preprocessingSolver;
+				}
+				ClauseSink sink = this.solver.createClauseSink();
+				computeSatInput(sink);
+				//// DEBUG (pass a SatInput as sink to inspect the clauses)
 				// StringBuffer sbuf = new StringBuffer();
-				// for (Set<Integer> clause : satInput.getClauses()) {
-				// for (Integer literalId : clause) {
+				// for (int index = 0; index < satInput.getNumberOfClauses();
+				// index++) {
+				// for (int position = 0; position <
+				// satInput.getClauseLength(index); position++) {
+				// int literalId = satInput.getLiteral(index, position);
 				// if (literalId < 0) {
 				// sbuf.append("-");
 				// }
@@ -239,19 +492,47 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 				// }
 				// sbuf.append(Solver.NEWLINE);
 				// }
-				this.numberOfClauses = satInput.getClauses().size();
-				satoutput = this.solver.solve(satInput);
+				this.numberOfClauses = sink.getNumberOfClauses();
+				this.negativePartEncoded = goal.hasNegativePart();
+				satoutput = this.solver.solve();
+				unifiable = satoutput.isSatisfiable();
+			} else if (!this.pendingClauses.isEmpty()) {
+				// the negative axioms have changed since the last unifier was
+				// computed
+				this.numberOfClauses += this.pendingClauses.size();
+				this.sat4jSolver.setAssumptions(getAssumptions());
+				satoutput = this.solver.updateAll(this.pendingClauses);
+				this.pendingClauses.clear();
 				unifiable = satoutput.isSatisfiable();
 			} else {
+				if (this.incremental) {
+					// the clauses excluding unifiers are only valid until the
+					// negative axioms change
+					getRoundLiteral();
+					this.sat4jSolver.setAssumptions(getAssumptions());
+				}
 				Set<Integer> update = getUpdate();
+				if (this.projectedEnumeration && !update.isEmpty()) {
+					update = minimizeUpdate(update);
+				}
 				if (update.isEmpty()) {
 					unifiable = false;
 				} else {
 					this.numberOfClauses++;
+					this.numberOfBlockingClauses++;
+					this.numberOfBlockingLiterals += update.size();
+					if (this.incremental) {
+						update = new HashSet<>(update);
+						update.add((-1) * this.roundLiteral);
+					}
 					satoutput = this.solver.update(update);
 					unifiable = satoutput.isSatisfiable();
 				}
 			}
+			if (unifiable && this.lazyTransitivity) {
+				satoutput = addViolatedTransitivityClauses(satoutput);
+				unifiable = satoutput.isSatisfiable();
+			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
@@ -259,9 +540,9 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		reset();
 		if (unifiable) {
 			this.result = new Unifier(toDefinitions(satoutput.getOutput()));
-		} else {
+		} else if (!this.incremental) {
 			// release resources used by the solver after all unifiers have been
-			// computed
+			// computed, unless negative axioms can still be added
 			solver.cleanup();
 		}
 
@@ -269,6 +550,46 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return unifiable;
 	}
 
+	/**
+	 * Computes the next unifier found by the solvers of the cubes. Unifiers
+	 * that agree on the projection literals of the user variables are only
+	 * returned once.
+	 * 
+	 * @return <code>true</code> iff another unifier was found
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private boolean computeNextUnifierInCubes() throws InterruptedException {
+		if (this.firstTime) {
+			// the clauses are read once by each cube, and are therefore kept
+			// outside of the heap
+			try {
+				this.cubeClauses = new OffHeapClauseStore();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			computeSatInput(this.cubeClauses);
+			this.numberOfClauses = this.cubeClauses.getNumberOfClauses();
+			this.projectionLiterals = getProjectionLiterals();
+			this.cubeEnumerator = new CubeEnumerator(this.cubeClauses, this.projectionLiterals,
+					selectCubeLiterals(this.cubeClauses, this.projectionLiterals), getNumberOfThreads(),
+					this.projectedEnumeration);
+			this.firstTime = false;
+		}
+
+		Set<Integer> model;
+		do {
+			model = this.cubeEnumerator.next();
+			if (model == null) {
+				return false;
+			}
+		} while (!this.enumeratedProjections.add(getProjectionKey(model)));
+
+		reset();
+		this.result = new Unifier(toDefinitions(model));
+		return true;
+	}
+
 	//// DEBUG
 	// private void appendAtom(StringBuffer sbuf, Integer atomId) {
 	// if (goal.getAtomManager().getExistentialRestrictions().contains(atomId))
@@ -294,14 +615,17 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * clause is on one line. The end of a clause is marked by 0. Example of a
 	 * clause in DIMACS format: 1 -3 0
 	 *
-	 * @return an object representing the DIMACS CNF encoding of the input
-	 *         subsumptions
+	 * The clauses are passed to the given sink as soon as they are created,
+	 * so they do not have to be stored before they reach the SAT solver.
+	 *
+	 * @param ret
+	 *            the sink receiving the DIMACS CNF encoding of the input
+	 *            subsumptions
 	 * 
 	 * @throws InterruptedException
 	 *             if the process is interrupted
 	 */
-	private SatInput computeSatInput() throws InterruptedException {
-		SatInput ret = new SatInput();
+	private void computeSatInput(ClauseSink ret) throws InterruptedException {
 
 		logger.finer("computing SAT input ...");
 
@@ -333,14 +657,18 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			throw new InterruptedException();
 		}
 
-		logger.finer("running step 2.5 ...");
-		runStep2_5(ret);
+		if (!this.lazyTransitivity) {
+			logger.finer("running step 2.5 ...");
+			runStep2_5(ret);
+		}
 
-		logger.finer("running step 3.1 reflexivity ...");
-		runStep3_1_r(ret);
+		if (!this.binaryOrder) {
+			logger.finer("running step 3.1 reflexivity ...");
+			runStep3_1_r(ret);
 
-		logger.finer("running step 3.1 transitivity ...");
-		runStep3_1_t(ret);
+			logger.finer("running step 3.1 transitivity ...");
+			runStep3_1_t(ret);
+		}
 
 		logger.finer("running step 3.2 ...");
 		runStep3_2(ret);
@@ -358,9 +686,20 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
 		if (this.onlyMinimalAssignments) {
 			logger.finer("adding literals to be minimized ...");
+			long totalCost = 0;
 			for (Integer varId : getUserVariables()) {
 				for (Integer atomId : getNonVariableAtoms()) {
-					ret.addMinimizeLiteral(getSubsumptionLiteral(varId, atomId));
+					if (this.assignmentCosts == null) {
+						ret.addMinimizeLiteral(getSubsumptionLiteral(varId, atomId));
+					} else {
+						int cost = this.assignmentCosts.applyAsInt(varId, atomId);
+						totalCost += cost;
+						if (totalCost >= DimacsClauseSink.TOP_WEIGHT) {
+							throw new IllegalArgumentException("The total cost of all atoms must be smaller than "
+									+ DimacsClauseSink.TOP_WEIGHT + ".");
+						}
+						ret.addMinimizeLiteral(getSubsumptionLiteral(varId, atomId), cost);
+					}
 				}
 			}
 		}
@@ -370,21 +709,92 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 
 		logger.finer("SAT input computed.");
+	}
 
-		return ret;
+	/**
+	 * Allocates a new activation literal. Its identifier is not used by the
+	 * literal manager nor by the variables that the SAT solver has introduced
+	 * on its own.
+	 * 
+	 * @return the identifier of the new literal
+	 */
+	private int createActivationLiteral() {
+		reserveSolverVariables();
+		int index = literalManager.getNextIndex();
+		literalManager.add(new ActivationLiteral(index), index);
+		return index;
+	}
+
+	/**
+	 * Constructs a sink that stores clauses in the list of clauses that are
+	 * added to the SAT solver before the next unifier is computed. The
+	 * negation of the given activation literal is added to each clause.
+	 * 
+	 * @param activationLiteral
+	 *            the activation literal
+	 * @return the clause sink
+	 */
+	private ClauseSink createGuardedClauseSink(int activationLiteral) {
+		return new ClauseSink() {
+
+			@Override
+			public boolean add(int[] literals, int offset, int length) {
+				Set<Integer> clause = new HashSet<>();
+				for (int position = offset; position < offset + length; position++) {
+					clause.add(literals[position]);
+				}
+				clause.add((-1) * activationLiteral);
+				return pendingClauses.add(clause);
+			}
+
+			/**
+			 * Does nothing, since the literals to be minimized are only added
+			 * when the whole SAT problem is encoded, and negative axioms
+			 * cannot be added if only minimal assignments are computed.
+			 */
+			@Override
+			public boolean addMinimizeLiteral(Integer literal) {
+				return false;
+			}
+
+			@Override
+			public int getNumberOfClauses() {
+				return pendingClauses.size();
+			}
+
+		};
 	}
 
 	private void createUpdate() {
+		if (this.onlyMinimalAssignments) {
+			// only the true projection literals are excluded
+			for (int literalId = trueLiterals.nextSetBit(0); literalId >= 0; literalId = trueLiterals
+					.nextSetBit(literalId + 1)) {
+				Literal literal = this.literalManager.get(literalId);
+				if (getUserVariables().contains(literal.getFirst())
+						&& getNonVariableAtoms().contains(literal.getSecond())) {
+					update.add((-1) * literalId);
+				}
+			}
+			return;
+		}
+
 		for (Integer firstAtomId : getUserVariables()) {
 			for (Integer secondAtomId : getNonVariableAtoms()) {
 				Integer literalId = getSubsumptionLiteral(firstAtomId, secondAtomId);
-				if (!this.onlyMinimalAssignments || getLiteralValue(literalId)) {
-					update.add(getLiteralValue(literalId) ? (-1) * literalId : literalId);
-				}
+				update.add(getLiteralValue(literalId) ? (-1) * literalId : literalId);
 			}
 		}
 	}
 
+	private Set<Integer> getAssumptions() {
+		Set<Integer> ret = new HashSet<>(activationLiterals);
+		if (roundLiteral != 0) {
+			ret.add(roundLiteral);
+		}
+		return ret;
+	}
+
 	private Set<Integer> getConstants() {
 		return goal.getAtomManager().getConstants();
 	}
@@ -393,6 +803,16 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return goal.getAtomManager().getExistentialRestrictions();
 	}
 
+	/**
+	 * Returns the number of threads used for encoding the SAT problem and for
+	 * enumerating the cubes in parallel.
+	 * 
+	 * @return the number of available processors
+	 */
+	private static int getNumberOfThreads() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
 	private Set<Integer> getNonVariableAtoms() {
 		return nonVariableAtoms;
 	}
@@ -403,19 +823,85 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		addEntry(ret, keyName, algorithmName);
 
 		if (this.onlyMinimalAssignments) {
-			addEntry(ret, keyConfiguration, usingMinimalAssignments);
+			addEntry(ret, keyConfiguration,
+					(this.assignmentCosts == null) ? usingMinimalAssignments : usingWeightedMinimalAssignments);
+			if (this.result != null) {
+				addEntry(ret, keyMinimality, isProvenMinimal() ? provenMinimal : notProvenMinimal);
+			}
 		} else {
 			addEntry(ret, keyConfiguration, notUsingMinimalAssignments);
 		}
 
+		if (this.lazyTransitivity) {
+			addEntry(ret, keyTransitivity, usingLazyTransitivity);
+		} else {
+			addEntry(ret, keyTransitivity, usingEagerTransitivity);
+		}
+
+		if (this.binaryOrder) {
+			addEntry(ret, keyOrderEncoding, usingBinaryOrder);
+		} else {
+			addEntry(ret, keyOrderEncoding, usingTransitiveOrder);
+		}
+
+		if (this.cubeEnumerator != null) {
+			addEntry(ret, keyCubes, "" + this.cubeEnumerator.getNumberOfCubes());
+		}
+
+		if (this.preprocessing) {
+			CNFPreprocessor preprocessor = (this.preprocessingSolver == null) ? null
+					: this.preprocessingSolver.getPreprocessor();
+			if (preprocessor != null) {
+				addEntry(ret, keyPreprocessing, preprocessor.toString());
+			}
+		} else {
+			addEntry(ret, keyPreprocessing, notUsingPreprocessing);
+		}
+
+		if (this.portfolio) {
+			String winner = (this.portfolioSolver == null) ? null : this.portfolioSolver.getWinningConfiguration();
+			addEntry(ret, keySatSolver, usingPortfolio + ((winner == null) ? "" : " (" + winner + ")"));
+		} else {
+			addEntry(ret, keySatSolver, usingSingleSolver);
+		}
+
+		String blocking = this.projectedEnumeration ? usingProjectedBlockingClauses : usingFullBlockingClauses;
+		if (this.numberOfBlockingClauses > 0) {
+			blocking += String.format(" (average length %.1f)",
+					(double) this.numberOfBlockingLiterals / this.numberOfBlockingClauses);
+		}
+		addEntry(ret, keyBlockingClauses, blocking);
+		if (this.maxNumberOfUnifiers > 0) {
+			addEntry(ret, keyMaxNumberOfUnifiers, "" + this.maxNumberOfUnifiers);
+		}
+
+		addEntry(ret, keyEstimatedSize, getEncodingSizeEstimate().toString());
 		if (this.literalManager != null) {
 			addEntry(ret, keyNumberOfPropositions, "" + this.literalManager.size());
 		}
+		if (this.literalTable != null) {
+			addEntry(ret, keyNumberOfSkippedPropositions, "" + this.literalTable.getNumberOfSkippedLiterals());
+		}
 		addEntry(ret, keyNumberOfClauses, "" + this.numberOfClauses);
 		addEntry(ret, keyNumberOfVariables, "" + getVariables().size());
 		return Collections.unmodifiableList(ret);
 	}
 
+	/**
+	 * Predicts the size of the SAT encoding that this algorithm computes for
+	 * its goal.
+	 * 
+	 * @return the estimated size of the encoding
+	 * @see #estimateEncodingSize(Goal, SatConfiguration)
+	 */
+	public EncodingSizeEstimate getEncodingSizeEstimate() {
+		if (this.encodingSizeEstimate == null) {
+			this.encodingSizeEstimate = new EncodingSizeEstimate(goal, onlyMinimalAssignments, lazyTransitivity,
+					binaryOrder);
+		}
+		return this.encodingSizeEstimate;
+	}
+
 	@Override
 	public Goal getGoal() {
 		return goal;
@@ -426,21 +912,39 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		return this.trueLiterals.contains(literalId);
+		return this.trueLiterals.get(literalId);
 	}
 
-	private Integer getMinusOrderLiteral(Integer atomId1, Integer atomId2) {
+	private int getMinusOrderLiteral(Integer atomId1, Integer atomId2) {
 		return (-1) * getOrderLiteral(atomId1, atomId2);
 	}
 
-	private Integer getSubsumptionLiteral(Integer atomId1, Integer atomId2) {
-		Literal literal = new SubsumptionLiteral(atomId1, atomId2);
-		return literalManager.addAndGetIndex(literal);
+	private int getRoundLiteral() {
+		if (this.roundLiteral == 0) {
+			this.roundLiteral = createActivationLiteral();
+		}
+		return this.roundLiteral;
+	}
+
+	private int getSubsumptionLiteral(Integer atomId1, Integer atomId2) {
+		return literalTable.getSubsumptionLiteral(atomId1, atomId2);
+	}
+
+	private int getComparisonLiteral(Integer atomId1, Integer atomId2, int bit) {
+		return literalManager.addAndGetIndex(new ComparisonLiteral(atomId1, atomId2, bit));
 	}
 
-	private Integer getOrderLiteral(Integer atomId1, Integer atomId2) {
-		Literal literal = new OrderLiteral(atomId1, atomId2);
-		return this.literalManager.addAndGetIndex(literal);
+	private int getLevelLiteral(Integer atomId, int bit) {
+		return literalManager.addAndGetIndex(new LevelLiteral(atomId, bit));
+	}
+
+	private int getNumberOfLevelBits() {
+		int numberOfVariables = getVariables().size();
+		return Math.max(1, (int) Math.ceil(Math.log(numberOfVariables) / Math.log(2)));
+	}
+
+	private int getOrderLiteral(Integer atomId1, Integer atomId2) {
+		return literalTable.getOrderLiteral(atomId1, atomId2);
 	}
 
 	private Set<Integer> getSetOfSubsumers(Integer atomId) {
@@ -452,7 +956,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return list;
 	}
 
-	private Integer getMinusSubsumptionLiteral(Integer atomId1, Integer atomId2) {
+	private int getMinusSubsumptionLiteral(Integer atomId1, Integer atomId2) {
 		return (-1) * getSubsumptionLiteral(atomId1, atomId2);
 	}
 
@@ -477,6 +981,44 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return usedAtomIds;
 	}
 
+	/**
+	 * Computes the transitivity clauses of step 2.5 that are violated by the
+	 * current values of the subsumption literals.
+	 * 
+	 * @return the violated clauses
+	 */
+	private List<Set<Integer>> getViolatedTransitivityClauses() {
+		Map<Integer, Set<Integer>> trueSubsumers = new HashMap<>();
+		for (int literalId = trueLiterals.nextSetBit(0); literalId >= 0; literalId = trueLiterals
+				.nextSetBit(literalId + 1)) {
+			Literal literal = this.literalManager.get(literalId);
+			Integer atomId1 = literal.getFirst();
+			Integer atomId2 = literal.getSecond();
+			if (!atomId1.equals(atomId2) && getUsedAtomIds().contains(atomId1)
+					&& getUsedAtomIds().contains(atomId2)) {
+				trueSubsumers.computeIfAbsent(atomId1, key -> new HashSet<>()).add(atomId2);
+			}
+		}
+
+		List<Set<Integer>> ret = new ArrayList<>();
+		for (Entry<Integer, Set<Integer>> entry : trueSubsumers.entrySet()) {
+			Integer atomId1 = entry.getKey();
+			Set<Integer> subsumers1 = entry.getValue();
+			for (Integer atomId2 : subsumers1) {
+				for (Integer atomId3 : trueSubsumers.getOrDefault(atomId2, Collections.emptySet())) {
+					if (!atomId1.equals(atomId3) && !subsumers1.contains(atomId3)) {
+						Set<Integer> clause = new HashSet<>();
+						clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
+						clause.add(getMinusSubsumptionLiteral(atomId2, atomId3));
+						clause.add(getSubsumptionLiteral(atomId1, atomId3));
+						ret.add(clause);
+					}
+				}
+			}
+		}
+		return ret;
+	}
+
 	private Set<Integer> getVariables() {
 		return goal.getAtomManager().getVariables();
 	}
@@ -485,6 +1027,130 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return goal.getAtomManager().getUserVariables();
 	}
 
+	/**
+	 * Shortens the clause excluding the current unifier to the negations of
+	 * the projection literals that already determine all others.
+	 * 
+	 * @param update
+	 *            the negations of the projection literals in the current model
+	 * @return the shortened clause, which is empty if there is no other
+	 *         unifier
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	private Set<Integer> minimizeUpdate(Set<Integer> update) throws IOException, InterruptedException {
+		Set<Integer> literals = new HashSet<>();
+		for (Integer literal : update) {
+			literals.add((-1) * literal);
+		}
+		Set<Integer> ret = new HashSet<>();
+		for (Integer literal : this.solver.minimizeProjection(literals)) {
+			ret.add((-1) * literal);
+		}
+		return ret;
+	}
+
+	private BitSet getProjectionKey(Set<Integer> model) {
+		BitSet ret = new BitSet();
+		for (Integer literalId : this.projectionLiterals) {
+			if (model.contains(literalId)) {
+				ret.set(literalId);
+			}
+		}
+		return ret;
+	}
+
+	private Set<Integer> getProjectionLiterals() {
+		Set<Integer> ret = new HashSet<>();
+		for (Integer firstAtomId : getUserVariables()) {
+			for (Integer secondAtomId : getNonVariableAtoms()) {
+				ret.add(getSubsumptionLiteral(firstAtomId, secondAtomId));
+			}
+		}
+		return ret;
+	}
+
+	private boolean isSubsumptionLiteral(int literalId) {
+		Literal literal = this.literalManager.get(literalId);
+		return literal != null && literal.isSubsumption();
+	}
+
+	/**
+	 * Continues the optimization of the current unifier if it has not been
+	 * proven to be minimal because the optimization timeout was reached.
+	 * 
+	 * @param timeout
+	 *            the additional time (in milliseconds) available for improving
+	 *            the unifier, or 0 if the optimization should not be bounded
+	 * @return <code>true</code> iff the current unifier is now proven to be
+	 *         minimal
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	public boolean improveUnifier(long timeout) throws InterruptedException {
+		if (this.result == null) {
+			throw new IllegalStateException("No unifier has been computed.");
+		}
+		if (isProvenMinimal()) {
+			return true;
+		}
+
+		try {
+			SatOutput satoutput = this.maxSatSolver.improve(timeout);
+			if (this.preprocessing) {
+				satoutput = this.preprocessingSolver.extend(satoutput);
+			}
+			if (this.lazyTransitivity) {
+				satoutput = addViolatedTransitivityClauses(satoutput);
+			}
+			reset();
+			this.result = new Unifier(toDefinitions(satoutput.getOutput()));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return isProvenMinimal();
+	}
+
+	/**
+	 * Checks whether the current unifier is guaranteed to be minimal. This is
+	 * not the case if only minimal assignments should be computed, but the
+	 * optimization timeout was reached before minimality was proven.
+	 * 
+	 * @return <code>true</code> iff the current unifier has been proven to be
+	 *         minimal, or only minimal assignments are not required
+	 */
+	public boolean isProvenMinimal() {
+		return this.maxSatSolver == null || this.maxSatSolver.isOptimal();
+	}
+
+	/**
+	 * Removes the dissubsumptions and disequations that were added by the last
+	 * successful call of {@link #addNegativeAxioms(Set, Set)}. Their clauses
+	 * are disabled by adding the negation of their activation literal to the
+	 * SAT solver, and the next call of {@link #computeNextUnifier()} starts
+	 * the enumeration of the unifiers again. The axioms should also be
+	 * removed from the goal of this algorithm.
+	 * 
+	 * @return <code>true</code> iff there were negative axioms that could be
+	 *         removed
+	 */
+	public boolean removeLastNegativeAxioms() {
+		if (this.activationLiterals.isEmpty()) {
+			return false;
+		}
+
+		int activationLiteral = this.activationLiterals.pop();
+		this.pendingClauses.add(Collections.singleton((-1) * activationLiteral));
+		if (activationLiteral == this.negativePartLiteral) {
+			this.negativePartEncoded = false;
+			this.negativePartLiteral = 0;
+		}
+		restartEnumeration();
+		return true;
+	}
+
 	/**
 	 * Resets string update values for literals and S(X) for each X, before the
 	 * next unifier is computed.
@@ -493,15 +1159,40 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
 		update = new HashSet<>();
 
-		for (Integer key : literalManager.getIndices()) {
-			setLiteralValue(key, false);
-		}
+		trueLiterals.clear();
 
 		for (Integer atomId : getVariables()) {
 			resetSetOfSubsumers(atomId);
 		}
 	}
 
+	/**
+	 * Disables the clauses excluding the unifiers computed so far, since they
+	 * may be unifiers of the changed goal.
+	 */
+	private void restartEnumeration() {
+		if (this.roundLiteral != 0) {
+			this.pendingClauses.add(Collections.singleton((-1) * this.roundLiteral));
+			this.roundLiteral = 0;
+		}
+		this.numberOfUnifiers = 0;
+		this.result = null;
+	}
+
+	/**
+	 * Reserves the identifiers of the auxiliary variables that the SAT solver
+	 * has introduced on its own, e.g. selector variables, such that they are
+	 * not used for new literals. This has to be called before literals are
+	 * allocated for clauses that are added to a solved problem.
+	 */
+	private void reserveSolverVariables() {
+		int lastId = this.solver.getNumberOfVariables();
+		if (lastId >= literalManager.getNextIndex()) {
+			// selector variables are used like activation literals
+			literalManager.add(new ActivationLiteral(lastId), lastId);
+		}
+	}
+
 	private void resetSetOfSubsumers(Integer atomId) {
 		Set<Integer> list = subsumers.get(atomId);
 		if (list == null) {
@@ -511,13 +1202,66 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		list.clear();
 	}
 
+	/**
+	 * Generates the clauses of one encoding step in parallel. The step is
+	 * split into one task per outer atom, and each task writes to its own
+	 * buffer. The buffers are passed to the sink in the iteration order of the
+	 * given atoms, so the resulting clauses are the same as for a sequential
+	 * run. Only a bounded number of buffers is kept in memory at the same time.
+	 * The literals needed by the step should have been allocated beforehand,
+	 * since otherwise their identifiers depend on the scheduling of the tasks.
+	 * 
+	 * @param outerAtomIds
+	 *            the atoms by which the step is partitioned
+	 * @param step
+	 *            the clauses generated for one outer atom
+	 * @param input
+	 *            input
+	 * @throws InterruptedException
+	 *             if the thread was interrupted
+	 */
+	private void runInParallel(Collection<Integer> outerAtomIds, BiConsumer<Integer, ClauseSink> step,
+			ClauseSink input) throws InterruptedException {
+		int numberOfThreads = getNumberOfThreads();
+		int batchSize = numberOfThreads * tasksPerThread;
+		// a dedicated pool, since tasks of the common pool are not interrupted
+		// when they are cancelled
+		ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "uel-encoding");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Deque<Future<SatInput>> tasks = new ArrayDeque<>();
+		try {
+			for (Integer atomId1 : outerAtomIds) {
+				tasks.addLast(pool.submit(() -> {
+					SatInput buffer = new SatInput();
+					step.accept(atomId1, buffer);
+					return buffer;
+				}));
+				if (tasks.size() >= batchSize) {
+					tasks.removeFirst().get().writeTo(input);
+				}
+			}
+			while (!tasks.isEmpty()) {
+				tasks.removeFirst().get().writeTo(input);
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			// interrupts the remaining tasks if the computation was
+			// interrupted
+			pool.shutdownNow();
+		}
+	}
+
 	/**
 	 * Clauses created in Step 1
 	 * 
 	 * @param input
 	 *            input
 	 */
-	private void runStep1(SatInput input) {
+	private void runStep1(ClauseSink input) {
 		// encode positive part of the goal
 		for (Definition d : goal.getDefinitions()) {
 			runStep1(d, input);
@@ -537,19 +1281,19 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1(Definition d, SatInput input) {
+	private void runStep1(Definition d, ClauseSink input) {
 		runStep1(new Subsumption(d.getLeft(), d.getRight()), input);
 		if (!d.isPrimitive()) {
 			runStep1(new Subsumption(d.getRight(), d.getLeft()), input);
 		}
 	}
 
-	private void runStep1(Equation e, SatInput input) {
+	private void runStep1(Equation e, ClauseSink input) {
 		runStep1(new Subsumption(e.getLeft(), e.getRight()), input);
 		runStep1(new Subsumption(e.getRight(), e.getLeft()), input);
 	}
 
-	private void runStep1(Subsumption s, SatInput input) {
+	private void runStep1(Subsumption s, ClauseSink input) {
 		for (Integer rightId : s.getRight()) {
 			if (getVariables().contains(rightId)) {
 				runStep1SubsumptionVariable(s.getLeft(), rightId, input);
@@ -560,39 +1304,41 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		}
 	}
 
-	private void runStep1SubsumptionVariable(Set<Integer> leftIds, Integer rightId, SatInput input) {
+	private void runStep1SubsumptionVariable(Set<Integer> leftIds, Integer rightId, ClauseSink input) {
 		for (Integer atomId : getNonVariableAtoms()) {
 			if (!leftIds.contains(atomId)) {
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getMinusSubsumptionLiteral(rightId, atomId));
+				int[] clause = new int[leftIds.size() + 1];
+				int position = 0;
+				clause[position++] = getMinusSubsumptionLiteral(rightId, atomId);
 				for (Integer leftId : leftIds) {
-					clause.add(getSubsumptionLiteral(leftId, atomId));
+					clause[position++] = getSubsumptionLiteral(leftId, atomId);
 				}
 				input.add(clause);
 			}
 		}
 	}
 
-	private void runStep1SubsumptionNonVariableAtom(Set<Integer> leftIds, Integer rightId, SatInput input) {
-		Set<Integer> clause = new HashSet<>();
+	private void runStep1SubsumptionNonVariableAtom(Set<Integer> leftIds, Integer rightId, ClauseSink input) {
+		int[] clause = new int[leftIds.size()];
+		int position = 0;
 		for (Integer leftId : leftIds) {
-			clause.add(getSubsumptionLiteral(leftId, rightId));
+			clause[position++] = getSubsumptionLiteral(leftId, rightId);
 		}
 		input.add(clause);
 	}
 
-	private void runStep1(Disequation e, SatInput input) {
+	private void runStep1(Disequation e, ClauseSink input) {
 		// choose which direction of the equation does not hold
 		Choice c = new Choice(literalManager, 2);
 		runStep1(c.getChoiceLiterals(0), new Dissubsumption(e.getLeft(), e.getRight()), input);
 		runStep1(c.getChoiceLiterals(1), new Dissubsumption(e.getRight(), e.getLeft()), input);
 	}
 
-	private void runStep1(Dissubsumption e, SatInput input) {
+	private void runStep1(Dissubsumption e, ClauseSink input) {
 		runStep1(Collections.<Integer> emptySet(), e, input);
 	}
 
-	private void runStep1(Set<Integer> choiceLiterals, Dissubsumption e, SatInput input) {
+	private void runStep1(Set<Integer> choiceLiterals, Dissubsumption e, ClauseSink input) {
 		if (e.getRight().size() == 0) {
 			input.add(choiceLiterals);
 		} else if (e.getRight().size() == 1) {
@@ -611,7 +1357,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	}
 
 	private void runStep1Dissubsumption(Set<Integer> choiceLiterals, Set<Integer> leftIds, Integer rightId,
-			SatInput input) {
+			ClauseSink input) {
 		if (getVariables().contains(rightId))
 			runStep1DissubsumptionVariable(choiceLiterals, leftIds, rightId, input);
 		else {
@@ -622,7 +1368,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	}
 
 	private void runStep1DissubsumptionVariable(Set<Integer> choiceLiterals, Set<Integer> leftIds, Integer rightId,
-			SatInput input) {
+			ClauseSink input) {
 		// choose which non-variable atom solves the dissubsumption
 		Choice c = new Choice(literalManager, getNonVariableAtoms().size());
 		int j = 0;
@@ -631,9 +1377,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 
 			// Under the current choice, 'rightId' is subsumed by 'atomId'
 			// ...
-			Set<Integer> clause = new HashSet<>(currentChoiceLiterals);
-			clause.add(getSubsumptionLiteral(rightId, atomId));
-			input.add(clause);
+			input.add(toClause(currentChoiceLiterals, getSubsumptionLiteral(rightId, atomId)));
 
 			// ... and 'atomId' does not subsume any of the 'leftIds'.
 			runStep1DissubsumptionNonVariableAtom(currentChoiceLiterals, leftIds, atomId, input);
@@ -645,12 +1389,9 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	}
 
 	private void runStep1DissubsumptionNonVariableAtom(Set<Integer> choiceLiterals, Set<Integer> leftIds,
-			Integer rightId, SatInput input) {
-		Set<Integer> clause;
+			Integer rightId, ClauseSink input) {
 		for (Integer leftId : leftIds) {
-			clause = new HashSet<>(choiceLiterals);
-			clause.add(getMinusSubsumptionLiteral(leftId, rightId));
-			input.add(clause);
+			input.add(toClause(choiceLiterals, getMinusSubsumptionLiteral(leftId, rightId)));
 		}
 	}
 
@@ -660,47 +1401,61 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep2_1(SatInput input) {
+	private void runStep2_1(ClauseSink input) {
 		for (Integer atomId1 : getConstants()) {
 
 			for (Integer atomId2 : getConstants()) {
 				if (!atomId1.equals(atomId2)) {
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-					input.add(clause);
+					input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
 				}
 			}
 
 			if (goal.hasNegativePart()) {
 				// positive clause needed for soundness of disunification
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getSubsumptionLiteral(atomId1, atomId1));
-				input.add(clause);
+				input.add(getSubsumptionLiteral(atomId1, atomId1));
 			}
 
 		}
 	}
 
 	/**
-	 * Step 2.4
+	 * The positive clauses of Step 2.1 and the converse clauses of Step 2.3,
+	 * which are only needed if the goal has a negative part
 	 * 
 	 * @param input
 	 *            input
 	 */
-	private void runStep2_4(SatInput input) {
+	private void runNegativeSteps2_1_N_2_3(ClauseSink input) {
 		for (Integer atomId1 : getConstants()) {
-
+			input.add(getSubsumptionLiteral(atomId1, atomId1));
+		}
+		for (Integer atomId1 : getExistentialRestrictions()) {
 			for (Integer atomId2 : getExistentialRestrictions()) {
-				{
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-					input.add(clause);
+				if (!atomId1.equals(atomId2)) {
+					ExistentialRestriction ex1 = goal.getAtomManager().getExistentialRestriction(atomId1);
+					ExistentialRestriction ex2 = goal.getAtomManager().getExistentialRestriction(atomId2);
+					if (ex1.getRoleId().equals(ex2.getRoleId())) {
+						input.add(getSubsumptionLiteral(atomId1, atomId2), getMinusSubsumptionLiteral(
+								goal.getAtomManager().getChild(atomId1), goal.getAtomManager().getChild(atomId2)));
+					}
 				}
+			}
+			input.add(getSubsumptionLiteral(atomId1, atomId1));
+		}
+	}
 
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getMinusSubsumptionLiteral(atomId2, atomId1));
-				input.add(clause);
+	/**
+	 * Step 2.4
+	 * 
+	 * @param input
+	 *            input
+	 */
+	private void runStep2_4(ClauseSink input) {
+		for (Integer atomId1 : getConstants()) {
 
+			for (Integer atomId2 : getExistentialRestrictions()) {
+				input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
+				input.add(getMinusSubsumptionLiteral(atomId2, atomId1));
 			}
 
 		}
@@ -711,35 +1466,41 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 *
 	 * Transitivity of dis-subsumption
 	 * 
+	 * If there are at least three atoms, these clauses mention the subsumption
+	 * literals of all pairs of distinct atoms, and hence all of them are
+	 * allocated here. Only lazy transitivity avoids this.
+	 * 
 	 * @param input
 	 *            input
 	 * @throws InterruptedException
 	 *             if the thread was interrupted
 	 */
-	private void runStep2_5(SatInput input) throws InterruptedException {
+	private void runStep2_5(ClauseSink input) throws InterruptedException {
 		Collection<Integer> atomIds = getUsedAtomIds();
+		if (atomIds.size() < 3) {
+			return;
+		}
+		// allocate the literals in a deterministic order
+		literalTable.allocateSubsumptionLiterals(atomIds, atomIds);
+		runInParallel(atomIds, (atomId1, buffer) -> runStep2_5(atomId1, atomIds, buffer), input);
+	}
 
-		for (Integer atomId1 : atomIds) {
+	private void runStep2_5(Integer atomId1, Collection<Integer> atomIds, ClauseSink input) {
+		for (Integer atomId2 : atomIds) {
+			if (Thread.currentThread().isInterrupted()) {
+				// the encoding was cancelled, and the clauses are discarded
+				return;
+			}
 
-			for (Integer atomId2 : atomIds) {
+			if (!atomId1.equals(atomId2)) {
+				for (Integer atomId3 : atomIds) {
 
-				if (!atomId1.equals(atomId2)) {
-					for (Integer atomId3 : atomIds) {
-
-						if (!atomId1.equals(atomId3) && !atomId2.equals(atomId3)) {
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-							clause.add(getMinusSubsumptionLiteral(atomId2, atomId3));
-							clause.add(getSubsumptionLiteral(atomId1, atomId3));
-							input.add(clause);
-						}
+					if (!atomId1.equals(atomId3) && !atomId2.equals(atomId3)) {
+						input.add(getMinusSubsumptionLiteral(atomId1, atomId2),
+								getMinusSubsumptionLiteral(atomId2, atomId3), getSubsumptionLiteral(atomId1, atomId3));
 					}
 				}
 			}
-
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
-			}
 		}
 	}
 
@@ -752,11 +1513,9 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 *            input
 	 * 
 	 */
-	private void runStep3_1_r(SatInput input) {
+	private void runStep3_1_r(ClauseSink input) {
 		for (Integer atomId1 : getVariables()) {
-			Set<Integer> clause = new HashSet<>();
-			clause.add(getMinusOrderLiteral(atomId1, atomId1));
-			input.add(clause);
+			input.add(getMinusOrderLiteral(atomId1, atomId1));
 		}
 	}
 
@@ -765,37 +1524,74 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 *
 	 * Transitivity for order literals
 	 * 
+	 * Together with the reflexivity clauses, these clauses mention the order
+	 * literals of all pairs of variables, and hence all of them are allocated
+	 * here. Only the binary order encoding avoids this.
+	 * 
 	 * @param input
 	 *            input
 	 * @throws InterruptedException
 	 *             if the thread was interrupted
 	 * 
 	 */
-	private void runStep3_1_t(SatInput input) throws InterruptedException {
-		for (Integer atomId1 : getVariables()) {
-
-			for (Integer atomId2 : getVariables()) {
+	private void runStep3_1_t(ClauseSink input) throws InterruptedException {
+		// allocate the literals in a deterministic order
+		literalTable.allocateOrderLiterals(getVariables());
+		runInParallel(getVariables(), this::runStep3_1_t, input);
+	}
 
-				for (Integer atomId3 : getVariables()) {
+	private void runStep3_1_t(Integer atomId1, ClauseSink input) {
+		for (Integer atomId2 : getVariables()) {
+			if (Thread.currentThread().isInterrupted()) {
+				// the encoding was cancelled, and the clauses are discarded
+				return;
+			}
 
-					if (!atomId1.equals(atomId2) && !atomId2.equals(atomId3)) {
-
-						Set<Integer> clause = new HashSet<>();
-						clause.add(getMinusOrderLiteral(atomId1, atomId2));
-						clause.add(getMinusOrderLiteral(atomId2, atomId3));
-						clause.add(getOrderLiteral(atomId1, atomId3));
-						input.add(clause);
-					}
+			for (Integer atomId3 : getVariables()) {
 
+				if (!atomId1.equals(atomId2) && !atomId2.equals(atomId3)) {
+					input.add(getMinusOrderLiteral(atomId1, atomId2), getMinusOrderLiteral(atomId2, atomId3),
+							getOrderLiteral(atomId1, atomId3));
 				}
 
 			}
 
-			if (Thread.interrupted()) {
-				throw new InterruptedException();
-			}
+		}
+	}
 
+	/**
+	 * Step 3.1 using binary levels
+	 *
+	 * Comparator for the levels of two variables. The order literal [atomId1
+	 * &gt; atomId2] implies that the level of 'atomId1' is greater than the
+	 * level of 'atomId2'. Starting from the most significant bit, the
+	 * comparison literal for a bit position states that the levels agree on
+	 * the bits above it and that the first level is greater on the remaining
+	 * bits.
+	 * 
+	 * @param atomId1
+	 *            the first variable
+	 * @param atomId2
+	 *            the second variable
+	 * @param input
+	 *            input
+	 */
+	private void runStep3_1_b(Integer atomId1, Integer atomId2, ClauseSink input) {
+		int numberOfBits = getNumberOfLevelBits();
+		int current = getOrderLiteral(atomId1, atomId2);
+		for (int bit = numberOfBits - 1; bit > 0; bit--) {
+			int next = getComparisonLiteral(atomId1, atomId2, bit - 1);
+			// the current bit of the first level is at least as large ...
+			input.add(-current, getLevelLiteral(atomId1, bit), -getLevelLiteral(atomId2, bit));
+			// ... and if it is not larger, the comparison continues with the
+			// next bit
+			input.add(-current, getLevelLiteral(atomId1, bit), next);
+			input.add(-current, -getLevelLiteral(atomId2, bit), next);
+			current = next;
 		}
+		// the last bit has to be larger
+		input.add(-current, getLevelLiteral(atomId1, 0));
+		input.add(-current, -getLevelLiteral(atomId2, 0));
 	}
 
 	/**
@@ -804,17 +1600,19 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runStep3_2(SatInput input) {
+	private void runStep3_2(ClauseSink input) {
+		Set<Integer> comparedPairs = new HashSet<>();
 		for (Integer atomId1 : getExistentialRestrictions()) {
 
 			Integer childId = goal.getAtomManager().getChild(atomId1);
 
 			if (getVariables().contains(childId)) {
 				for (Integer atomId2 : getVariables()) {
-					Set<Integer> clause = new HashSet<>();
-					clause.add(getOrderLiteral(atomId2, childId));
-					clause.add(getMinusSubsumptionLiteral(atomId2, atomId1));
-					input.add(clause);
+					int orderLiteral = getOrderLiteral(atomId2, childId);
+					if (this.binaryOrder && comparedPairs.add(orderLiteral)) {
+						runStep3_1_b(atomId2, childId, input);
+					}
+					input.add(orderLiteral, getMinusSubsumptionLiteral(atomId2, atomId1));
 				}
 			}
 		}
@@ -826,7 +1624,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 	 * @param input
 	 *            input
 	 */
-	private void runSteps2_2_N_2_3(SatInput input) {
+	private void runSteps2_2_N_2_3(ClauseSink input) {
 		for (Integer atomId1 : getExistentialRestrictions()) {
 
 			for (Integer atomId2 : getExistentialRestrictions()) {
@@ -843,9 +1641,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 					 */
 
 					if (!role1.equals(role2)) {
-						Set<Integer> clause = new HashSet<>();
-						clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-						input.add(clause);
+						input.add(getMinusSubsumptionLiteral(atomId1, atomId2));
 
 						/*
 						 * if the roles are equal, then clause in Step 2.3
@@ -856,19 +1652,13 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 						Integer child2 = goal.getAtomManager().getChild(atomId2);
 
 						if (!child1.equals(child2)) {
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getSubsumptionLiteral(child1, child2));
-							clause.add(getMinusSubsumptionLiteral(atomId1, atomId2));
-							input.add(clause);
+							input.add(getSubsumptionLiteral(child1, child2), getMinusSubsumptionLiteral(atomId1, atomId2));
 						}
 
 						if (goal.hasNegativePart()) {
 							// converse clause needed for soundness of
 							// disunification
-							Set<Integer> clause = new HashSet<>();
-							clause.add(getSubsumptionLiteral(atomId1, atomId2));
-							clause.add(getMinusSubsumptionLiteral(child1, child2));
-							input.add(clause);
+							input.add(getSubsumptionLiteral(atomId1, atomId2), getMinusSubsumptionLiteral(child1, child2));
 						}
 
 					}
@@ -880,41 +1670,168 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			if (goal.hasNegativePart()) {
 				// converse clause (as above) for trival subsumption
 				// between an existential restriction and itself
-				Set<Integer> clause = new HashSet<>();
-				clause.add(getSubsumptionLiteral(atomId1, atomId1));
-				input.add(clause);
+				input.add(getSubsumptionLiteral(atomId1, atomId1));
 			}
 
 		}
 	}
 
 	/**
-	 * Creates dis-subsumptions and order literals from all pairs of atoms of
-	 * the goal
+	 * Selects the projection literals that occur most often in the SAT
+	 * problem, so that the cubes obtained by fixing their values are
+	 * sufficiently many to keep all threads busy.
+	 * 
+	 * @param input
+	 *            the SAT problem
+	 * @param projection
+	 *            the projection literals
+	 * @return the literals for splitting the search space
+	 * @throws InterruptedException
+	 *             if the process is interrupted
 	 */
-	private void setLiterals() {
-		// TODO is this necessary?
+	private int[] selectCubeLiterals(ClauseSource input, Set<Integer> projection) throws InterruptedException {
+		Map<Integer, Integer> occurrences = new HashMap<>();
+		for (Integer literalId : projection) {
+			occurrences.put(literalId, 0);
+		}
+		input.writeTo(new ClauseSink() {
+
+			@Override
+			public boolean add(int[] literals, int offset, int length) {
+				for (int position = offset; position < offset + length; position++) {
+					Integer literalId = Math.abs(literals[position]);
+					Integer count = occurrences.get(literalId);
+					if (count != null) {
+						occurrences.put(literalId, count + 1);
+					}
+				}
+				return false;
+			}
 
-		/*
-		 * Literals for dis-subsumptions
-		 */
+			@Override
+			public boolean addMinimizeLiteral(Integer literal) {
+				return false;
+			}
 
-		for (Integer atomId1 : getUsedAtomIds()) {
-			for (Integer atomId2 : getUsedAtomIds()) {
-				getSubsumptionLiteral(atomId1, atomId2);
+			@Override
+			public int getNumberOfClauses() {
+				return input.getNumberOfClauses();
 			}
+
+		});
+
+		int numberOfCubes = getNumberOfThreads() * tasksPerThread;
+		int numberOfLiterals = 0;
+		while ((1 << numberOfLiterals) < numberOfCubes) {
+			numberOfLiterals++;
 		}
+		numberOfLiterals = Math.min(numberOfLiterals, projection.size());
+		return occurrences.keySet().stream()
+				.sorted((l1, l2) -> occurrences.get(l1).equals(occurrences.get(l2)) ? l1.compareTo(l2)
+						: occurrences.get(l2).compareTo(occurrences.get(l1)))
+				.limit(numberOfLiterals).mapToInt(Integer::intValue).toArray();
+	}
 
-		/*
-		 * 
-		 * Literals for order on variables
-		 */
+	/**
+	 * Sets the costs of the atoms in the assignments of the user variables if
+	 * only minimal assignments should be computed. The MaxSAT solver then
+	 * minimizes the sum of the costs of all atoms in the assignments, instead
+	 * of their number, and therefore the unifiers are computed in the order of
+	 * increasing cost, as long as the optimization timeout is not reached. This
+	 * allows, e.g., to prefer constants over existential restrictions. This
+	 * has to be set before the first unifier is computed.
+	 * 
+	 * @param costs
+	 *            a function that returns the positive cost of adding the
+	 *            non-variable atom with the second identifier to the
+	 *            assignment of the user variable with the first identifier, or
+	 *            <code>null</code> if each atom costs 1; the sum of the costs
+	 *            of all pairs has to be smaller than
+	 *            {@link DimacsClauseSink#TOP_WEIGHT}, since otherwise the
+	 *            clauses of the goal cannot be distinguished from the costs
+	 *            in WCNF format, and an {@link IllegalArgumentException} is
+	 *            thrown when the SAT problem is encoded
+	 * @see #setMaxNumberOfUnifiers(int)
+	 */
+	public void setAssignmentCosts(ToIntBiFunction<Integer, Integer> costs) {
+		this.assignmentCosts = costs;
+	}
 
-		for (Integer atomId1 : getVariables()) {
-			for (Integer atomId2 : getVariables()) {
-				getOrderLiteral(atomId1, atomId2);
-			}
+	/**
+	 * Limits the number of unifiers that are computed. After the given number
+	 * of unifiers has been found, {@link #computeNextUnifier()} returns
+	 * <code>false</code> without calling the SAT solver again. Since the
+	 * minimal assignments are computed in the order of increasing cost, this
+	 * yields the given number of cheapest unifiers without enumerating all of
+	 * them. The limit applies again after the enumeration has been restarted
+	 * by adding or removing negative axioms.
+	 * 
+	 * @param maxNumberOfUnifiers
+	 *            the maximal number of unifiers, or 0 if the number should not
+	 *            be bounded
+	 * @see #setAssignmentCosts(ToIntBiFunction)
+	 */
+	public void setMaxNumberOfUnifiers(int maxNumberOfUnifiers) {
+		if (maxNumberOfUnifiers < 0) {
+			throw new IllegalArgumentException("Negative number of unifiers.");
+		}
+
+		this.maxNumberOfUnifiers = maxNumberOfUnifiers;
+	}
+
+	/**
+	 * Allows to add and remove negative axioms by
+	 * {@link #addNegativeAxioms(Set, Set)} and
+	 * {@link #removeLastNegativeAxioms()} after unifiers have been computed.
+	 * In this case, the SAT solver is kept after all unifiers have been
+	 * found, and the clauses excluding unifiers are guarded by an activation
+	 * literal that is assumed in each call of the solver. Refinement is not
+	 * possible if minimal assignments, several solvers, preprocessing, or
+	 * cubes are used. This has to be set before the first unifier is
+	 * computed.
+	 * 
+	 * @param refinable
+	 *            <code>true</code> iff negative axioms should be added to the
+	 *            existing SAT problem
+	 */
+	public void setRefinable(boolean refinable) {
+		if (!this.firstTime) {
+			throw new IllegalStateException("Unifiers have already been computed.");
+		}
+
+		// clauses can only be added to and removed from a single Sat4j solver
+		this.incremental = refinable && !onlyMinimalAssignments && !portfolio && !preprocessing && !cubes;
+	}
+
+	/**
+	 * Sets the time that the MaxSAT solver may spend on improving each
+	 * unifier if only minimal assignments should be computed. When the time
+	 * runs out, the best unifier found so far is returned, and
+	 * {@link #isProvenMinimal()} returns <code>false</code>. This has to be set
+	 * before the first unifier is computed.
+	 * 
+	 * @param timeout
+	 *            the time in milliseconds, or 0 if the optimization should not
+	 *            be bounded
+	 */
+	public void setOptimizationTimeout(long timeout) {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Negative timeout.");
 		}
+
+		this.optimizationTimeout = timeout;
+	}
+
+	/**
+	 * Prepares the table of dis-subsumptions and order literals for all pairs
+	 * of atoms of the goal. Apart from the literals needed to read off the
+	 * unifiers, the literals are only allocated when a clause refers to them.
+	 * However, the eager transitivity clauses of steps 2.5 and 3.1 refer to
+	 * all subsumption and order literals, respectively.
+	 */
+	private void setLiterals() {
+		this.literalTable = new LiteralTable(literalManager, getUsedAtomIds(), getVariables());
+		this.literalTable.allocateSubsumptionLiterals(getUserVariables(), getNonVariableAtoms());
 	}
 
 	private void setLiteralValue(Integer literalId, boolean value) {
@@ -922,11 +1839,7 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		if (value) {
-			this.trueLiterals.add(literalId);
-		} else {
-			this.trueLiterals.remove(literalId);
-		}
+		this.trueLiterals.set(literalId, value);
 	}
 
 	private void setValuesForLiterals(Set<Integer> val) {
@@ -941,12 +1854,33 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 				value = false;
 			}
 			Literal literal = literalManager.get(literalId);
-			if (literal.isSubsumption()) {
+			// auxiliary variables introduced by the solver are ignored
+			if (literal != null && literal.isSubsumption()) {
 				setLiteralValue(literalId, value);
 			}
 		}
 	}
 
+	/**
+	 * Constructs a clause consisting of the given choice literals and one
+	 * additional literal.
+	 * 
+	 * @param choiceLiterals
+	 *            the choice literals
+	 * @param literal
+	 *            the additional literal
+	 * @return an array containing the literals of the clause
+	 */
+	private static int[] toClause(Set<Integer> choiceLiterals, int literal) {
+		int[] clause = new int[choiceLiterals.size() + 1];
+		int position = 0;
+		for (Integer choiceLiteral : choiceLiterals) {
+			clause[position++] = choiceLiteral;
+		}
+		clause[position] = literal;
+		return clause;
+	}
+
 	/**
 	 * Updates the translator with the SAT solver output, returning a new
 	 * unifier.
@@ -963,24 +1897,28 @@ public class SatUnificationAlgorithm implements UnificationAlgorithm {
 		return ret;
 	}
 
+	private boolean usesOnlyKnownAtoms(Set<? extends Axiom> axioms) {
+		for (Axiom axiom : axioms) {
+			if (!getUsedAtomIds().containsAll(axiom.getLeft()) || !getUsedAtomIds().containsAll(axiom.getRight())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private void updateTBox() {
 		/*
-		 * Define S_X for each variable X
+		 * Define S_X for each variable X; only the subsumption literals that
+		 * are true in the current model are visited
 		 */
 
-		for (Integer i : this.literalManager.getIndices()) {
-
-			if (this.literalManager.get(i).isSubsumption()) {
-				if (getLiteralValue(i)) {
-
-					Integer atomId1 = this.literalManager.get(i).getFirst();
-					Integer atomId2 = this.literalManager.get(i).getSecond();
-					if (getVariables().contains(atomId1)) {
-						if (getNonVariableAtoms().contains(atomId2)) {
-							addToSetOfSubsumers(atomId1, atomId2);
-						}
-					}
-
+		for (int i = trueLiterals.nextSetBit(0); i >= 0; i = trueLiterals.nextSetBit(i + 1)) {
+			Literal literal = this.literalManager.get(i);
+			Integer atomId1 = literal.getFirst();
+			Integer atomId2 = literal.getSecond();
+			if (getVariables().contains(atomId1)) {
+				if (getNonVariableAtoms().contains(atomId2)) {
+					addToSetOfSubsumers(atomId1, atomId2);
 				}
 			}
 		}
@@ -0,0 +1,95 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.util.Set;
+
+/**
+ * An object implementing this interface receives the clauses of a SAT problem
+ * while they are being generated. Depending on the implementation, the clauses
+ * are stored in memory, written to a file, or passed directly to a SAT solver.
+ */
+public interface ClauseSink {
+
+	/**
+	 * Adds a new non-empty clause.
+	 *
+	 * @param clause
+	 *            the literal identifiers of the new non-empty clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(int... clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return add(clause, 0, clause.length);
+	}
+
+	/**
+	 * Adds a new non-empty clause that is stored in a section of an array. The
+	 * array is not retained by the sink.
+	 *
+	 * @param literals
+	 *            an array containing the literal identifiers
+	 * @param offset
+	 *            the position of the first literal of the clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	boolean add(int[] literals, int offset, int length);
+
+	/**
+	 * Adds a new non-empty clause.
+	 *
+	 * @param clause
+	 *            new non-empty clause
+	 * @return a value indicating whether the sink was changed
+	 */
+	default boolean add(Set<Integer> clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return add(SatInput.toArray(clause));
+	}
+
+	/**
+	 * Adds a literal to the set of literals that are to be minimized. Sinks
+	 * that do not support optimization ignore these literals.
+	 *
+	 * @param literal
+	 *            the literal identifier
+	 * @return true iff the set changed as a result of this operation
+	 */
+	boolean addMinimizeLiteral(Integer literal);
+
+	/**
+	 * Adds a literal with the given weight to the set of literals that are to
+	 * be minimized. The objective is then the sum of the weights of the
+	 * literals that are true. If the literal has been added before, its weight
+	 * is replaced. Sinks that support optimization, but not weights, treat all
+	 * literals as having weight 1.
+	 *
+	 * @param literal
+	 *            the literal identifier
+	 * @param weight
+	 *            the positive weight of the literal
+	 * @return true iff the set or the weight changed as a result of this
+	 *         operation
+	 */
+	default boolean addMinimizeLiteral(Integer literal, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight must be positive.");
+		}
+
+		return addMinimizeLiteral(literal);
+	}
+
+	/**
+	 * Returns the number of clauses that have been added so far.
+	 *
+	 * @return the number of clauses
+	 */
+	int getNumberOfClauses();
+
+}
@@ -0,0 +1,53 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.util.Set;
+
+/**
+ * An object implementing this interface stores the clauses of a SAT problem
+ * and can pass them to a {@link ClauseSink} any number of times, e.g. to load
+ * them into a SAT solver or to write them to a file in DIMACS format.
+ */
+public interface ClauseSource {
+
+	/**
+	 * Returns the greatest propositional variable identifier.
+	 *
+	 * @return the greatest propositional variable identifier
+	 */
+	Integer getLastId();
+
+	/**
+	 * Retrieve the set of literals that are to be minimized.
+	 *
+	 * @return the literals to be minimized
+	 */
+	Set<Integer> getMinimizeLiterals();
+
+	/**
+	 * Returns the weight of a literal that is to be minimized.
+	 *
+	 * @param literal
+	 *            a literal contained in {@link #getMinimizeLiterals()}
+	 * @return the weight of the literal
+	 */
+	int getMinimizeWeight(Integer literal);
+
+	/**
+	 * Returns the number of clauses that are stored.
+	 *
+	 * @return the number of clauses
+	 */
+	int getNumberOfClauses();
+
+	/**
+	 * Passes all clauses and literals to be minimized, together with their
+	 * weights, to a clause sink, in the order in which they were added.
+	 *
+	 * @param sink
+	 *            the clause sink
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	void writeTo(ClauseSink sink) throws InterruptedException;
+
+}
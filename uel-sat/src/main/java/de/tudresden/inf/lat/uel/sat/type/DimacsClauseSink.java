@@ -0,0 +1,229 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * An object of this class writes clauses to a file in DIMACS CNF format or, if
+ * the literals to be minimized should be included, in WCNF format. The clauses
+ * are written as soon as they are added. Since the number of variables and
+ * clauses is only known at the end, the first line of the file is reserved and
+ * overwritten with the actual header when the sink is closed. A closed sink can
+ * be reopened to append further clauses. The clauses are encoded by a
+ * {@link DimacsWriter}, so the memory needed does not depend on the number of
+ * clauses.
+ */
+public class DimacsClauseSink implements ClauseSink, Closeable {
+
+	/**
+	 * The weight of the "hard" clauses in WCNF format. It has to be greater
+	 * than the sum of the weights of all "soft" clauses, and therefore the
+	 * total weight of the literals to be minimized is bounded.
+	 */
+	public static final int TOP_WEIGHT = Integer.MAX_VALUE;
+
+	private static final int HEADER_LENGTH = 64;
+
+	private final File file;
+	private int lastId = 0;
+	private final Map<Integer, Integer> minimizeLiterals = new LinkedHashMap<>();
+	private int numberOfClauses = 0;
+	private int numberOfSoftClauses = 0;
+	private long softWeight = 0;
+	private FileChannel channel;
+	private final boolean weighted;
+	private DimacsWriter writer;
+
+	/**
+	 * Constructs a new sink that writes to the given file. The file is
+	 * overwritten.
+	 *
+	 * @param file
+	 *            the output file
+	 * @param weighted
+	 *            <code>true</code> if the WCNF format should be used, in which
+	 *            the literals to be minimized are written as "soft" clauses
+	 *            with their weights
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public DimacsClauseSink(File file, boolean weighted) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.file = file;
+		this.weighted = weighted;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.writer = new DimacsWriter(channel);
+		StringBuffer placeholder = new StringBuffer();
+		pad(placeholder);
+		this.writer.writeString(placeholder.toString());
+	}
+
+	@Override
+	public boolean add(int[] literals, int offset, int length) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+		if (writer == null) {
+			throw new IllegalStateException("The sink has been closed.");
+		}
+
+		for (int position = offset; position < offset + length; position++) {
+			int literal = literals[position];
+			if (literal == Solver.END_OF_CLAUSE) {
+				throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+			}
+			updateLastId(literal);
+		}
+		try {
+			if (weighted) {
+				writer.writeWeightedClause(TOP_WEIGHT, literals, offset, length);
+			} else {
+				writer.writeClause(literals, offset, length);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		numberOfClauses++;
+		return true;
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		return addMinimizeLiteral(literal, 1);
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight must be positive.");
+		}
+
+		Integer oldWeight = this.minimizeLiterals.get(literal);
+		long newSoftWeight = softWeight + weight - ((oldWeight == null) ? 0 : oldWeight);
+		if (weighted && newSoftWeight >= TOP_WEIGHT) {
+			throw new IllegalArgumentException(
+					"The total weight of the literals to be minimized must be smaller than " + TOP_WEIGHT + ".");
+		}
+		this.minimizeLiterals.put(literal, weight);
+		softWeight = newSoftWeight;
+		return oldWeight == null || oldWeight != weight;
+	}
+
+	/**
+	 * Writes the pending "soft" clauses and the header and closes the file.
+	 * Closing a closed sink has no effect.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		if (writer == null) {
+			return;
+		}
+
+		if (weighted) {
+			int[] clause = new int[1];
+			for (Entry<Integer, Integer> entry : minimizeLiterals.entrySet()) {
+				clause[0] = -entry.getKey();
+				writer.writeWeightedClause(entry.getValue(), clause, 0, 1);
+				numberOfSoftClauses++;
+				updateLastId(entry.getKey());
+			}
+			minimizeLiterals.clear();
+		}
+		writer.flush();
+
+		StringBuffer header = new StringBuffer();
+		if (weighted) {
+			SatInput.appendWCNFLine(header, lastId, numberOfClauses + numberOfSoftClauses, TOP_WEIGHT);
+		} else {
+			SatInput.appendCNFLine(header, lastId, numberOfClauses);
+		}
+		header.setLength(header.length() - Solver.NEWLINE.length());
+		if (header.length() > HEADER_LENGTH) {
+			throw new IllegalStateException("Header is too long: '" + header + "'.");
+		}
+		pad(header);
+		try {
+			ByteBuffer bytes = ByteBuffer.wrap(header.toString().getBytes(StandardCharsets.US_ASCII));
+			long position = 0;
+			while (bytes.hasRemaining()) {
+				position += channel.write(bytes, position);
+			}
+		} finally {
+			writer.close();
+			writer = null;
+			channel = null;
+		}
+	}
+
+	/**
+	 * Returns the file this sink writes to.
+	 *
+	 * @return the output file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the greatest propositional variable identifier written so far.
+	 *
+	 * @return the greatest propositional variable identifier
+	 */
+	public int getLastId() {
+		return lastId;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return numberOfClauses;
+	}
+
+	private void pad(StringBuffer sbuf) {
+		while (sbuf.length() < HEADER_LENGTH) {
+			sbuf.append(Solver.SPACE);
+		}
+		sbuf.append(Solver.NEWLINE);
+	}
+
+	/**
+	 * Reopens a closed sink such that further clauses are appended to the file.
+	 * The header is updated when the sink is closed again.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void reopen() throws IOException {
+		if (writer == null) {
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+			channel.position(channel.size());
+			writer = new DimacsWriter(channel);
+		}
+	}
+
+	private void updateLastId(int literal) {
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
+	}
+
+}
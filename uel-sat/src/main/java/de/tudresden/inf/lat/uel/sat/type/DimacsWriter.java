@@ -0,0 +1,248 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An object of this class writes clauses in DIMACS CNF or WCNF format to a
+ * channel, e.g. a file or the standard input of a process. The numbers are
+ * converted to ASCII digits directly into a fixed-size direct buffer, which is
+ * written to the channel whenever it is full. Therefore, the memory needed
+ * does not depend on the number of clauses.
+ */
+public class DimacsWriter implements Closeable, Flushable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final byte MINUS = '-';
+	private static final byte[] NEWLINE = Solver.NEWLINE.getBytes(StandardCharsets.US_ASCII);
+	private static final byte SPACE = ' ';
+	private static final byte ZERO = '0';
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final WritableByteChannel channel;
+	// enough for the digits of any long
+	private final byte[] digits = new byte[20];
+
+	/**
+	 * Constructs a new writer for the given output stream.
+	 *
+	 * @param output
+	 *            the output stream
+	 */
+	public DimacsWriter(OutputStream output) {
+		this(Channels.newChannel(output));
+	}
+
+	/**
+	 * Constructs a new writer for the given channel.
+	 *
+	 * @param channel
+	 *            the channel
+	 */
+	public DimacsWriter(WritableByteChannel channel) {
+		if (channel == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		this.channel = channel;
+	}
+
+	/**
+	 * Flushes the buffer and closes the underlying channel.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void ensureRemaining(int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flushBuffer();
+		}
+	}
+
+	/**
+	 * Writes the content of the buffer to the channel.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+	}
+
+	private void flushBuffer() throws IOException {
+		// the casts avoid linking against the covariant overrides of Java 9,
+		// which do not exist on a Java 8 runtime
+		((Buffer) buffer).flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		((Buffer) buffer).clear();
+	}
+
+	/**
+	 * Writes a clause followed by the terminating 0 and a line break.
+	 *
+	 * @param literals
+	 *            an array containing the literal identifiers
+	 * @param offset
+	 *            the position of the first literal of the clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeClause(int[] literals, int offset, int length) throws IOException {
+		for (int position = offset; position < offset + length; position++) {
+			writeNumber(literals[position]);
+			writeByte(SPACE);
+		}
+		writeNumber(Solver.END_OF_CLAUSE);
+		writeNewline();
+	}
+
+	/**
+	 * Writes the header of a DIMACS CNF file.
+	 *
+	 * @param nbVars
+	 *            the number of variables
+	 * @param nbClauses
+	 *            the number of clauses
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeCNFLine(int nbVars, long nbClauses) throws IOException {
+		writeString(Solver.P_CNF);
+		writeByte(SPACE);
+		writeNumber(nbVars);
+		writeByte(SPACE);
+		writeNumber(nbClauses);
+		writeNewline();
+	}
+
+	private void writeByte(byte b) throws IOException {
+		ensureRemaining(1);
+		buffer.put(b);
+	}
+
+	/**
+	 * Writes a line break.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeNewline() throws IOException {
+		ensureRemaining(NEWLINE.length);
+		buffer.put(NEWLINE);
+	}
+
+	/**
+	 * Writes a number as a sequence of ASCII digits.
+	 *
+	 * @param number
+	 *            the number
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeNumber(long number) throws IOException {
+		ensureRemaining(digits.length + 1);
+		if (number == 0) {
+			buffer.put(ZERO);
+			return;
+		}
+		if (number == Long.MIN_VALUE) {
+			writeString(Long.toString(number));
+			return;
+		}
+		if (number < 0) {
+			buffer.put(MINUS);
+			number = -number;
+		}
+		int position = digits.length;
+		while (number > 0) {
+			digits[--position] = (byte) (ZERO + (number % 10));
+			number /= 10;
+		}
+		buffer.put(digits, position, digits.length - position);
+	}
+
+	/**
+	 * Writes a string that consists only of ASCII characters.
+	 *
+	 * @param str
+	 *            the string
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeString(String str) throws IOException {
+		byte[] bytes = str.getBytes(StandardCharsets.US_ASCII);
+		int position = 0;
+		while (position < bytes.length) {
+			ensureRemaining(1);
+			int length = Math.min(buffer.remaining(), bytes.length - position);
+			buffer.put(bytes, position, length);
+			position += length;
+		}
+	}
+
+	/**
+	 * Writes a clause of a WCNF file, i.e. its weight followed by its
+	 * literals, the terminating 0 and a line break.
+	 *
+	 * @param weight
+	 *            the weight of the clause
+	 * @param literals
+	 *            an array containing the literal identifiers
+	 * @param offset
+	 *            the position of the first literal of the clause
+	 * @param length
+	 *            the number of literals of the clause
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeWeightedClause(long weight, int[] literals, int offset, int length) throws IOException {
+		writeNumber(weight);
+		writeByte(SPACE);
+		writeClause(literals, offset, length);
+	}
+
+	/**
+	 * Writes the header of a WCNF file.
+	 *
+	 * @param nbVars
+	 *            the number of variables
+	 * @param nbClauses
+	 *            the number of clauses
+	 * @param maxWeight
+	 *            the weight of the "hard" clauses
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public void writeWCNFLine(int nbVars, long nbClauses, long maxWeight) throws IOException {
+		writeString(Solver.P_WCNF);
+		writeByte(SPACE);
+		writeNumber(nbVars);
+		writeByte(SPACE);
+		writeNumber(nbClauses);
+		writeByte(SPACE);
+		writeNumber(maxWeight);
+		writeNewline();
+	}
+
+}
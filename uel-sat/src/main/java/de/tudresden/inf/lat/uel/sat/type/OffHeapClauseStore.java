@@ -0,0 +1,328 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * An object of this class stores clauses outside of the Java heap. The clauses
+ * are appended to a temporary file through a fixed-size direct buffer, and
+ * they are read back by mapping the file into memory in windows of bounded
+ * size. Each clause is encoded by its length followed by the differences
+ * between consecutive literals, all as variable-length integers in which small
+ * absolute values need fewer bytes. Therefore, the heap memory needed does not
+ * depend on the number of clauses, and a clause usually occupies only a few
+ * bytes. The clauses can be read by several threads at the same time, as long
+ * as no further clauses are added.
+ */
+public class OffHeapClauseStore implements ClauseSink, ClauseSource, Closeable {
+
+	/**
+	 * Reads variable-length integers from consecutive windows of the file.
+	 */
+	private class Reader {
+
+		private final long end;
+		private MappedByteBuffer window;
+		private long windowStart = 0;
+
+		Reader(long end) throws IOException {
+			this.end = end;
+			map();
+		}
+
+		private void map() throws IOException {
+			long length = Math.min(windowSize, end - windowStart);
+			window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+		}
+
+		private int readByte() throws IOException {
+			if (!window.hasRemaining()) {
+				windowStart += window.capacity();
+				map();
+			}
+			return window.get();
+		}
+
+		long readNumber() throws IOException {
+			long ret = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				ret |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return ret;
+		}
+
+	}
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	// the longest encoding of a number, as produced by 'writeNumber'
+	private static final int MAX_NUMBER_LENGTH = 10;
+	private static final long WINDOW_SIZE = 1L << 28;
+
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private FileChannel channel;
+	private final File file;
+	private int lastId = 0;
+	private final Map<Integer, Integer> minimizeLiterals = new HashMap<>();
+	private int numberOfClauses = 0;
+	private long numberOfLiterals = 0;
+	private long size = 0;
+	private final long windowSize;
+
+	/**
+	 * Constructs a new store backed by a temporary file, which is deleted when
+	 * the store is closed.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	public OffHeapClauseStore() throws IOException {
+		this(WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructs a new store backed by a temporary file, which is read back in
+	 * windows of the given size.
+	 *
+	 * @param windowSize
+	 *            the maximal number of bytes that are mapped into memory at
+	 *            the same time
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	OffHeapClauseStore(long windowSize) throws IOException {
+		if (windowSize < 1) {
+			throw new IllegalArgumentException("Invalid window size: " + windowSize + ".");
+		}
+
+		this.windowSize = windowSize;
+		this.file = File.createTempFile("uelClauses", ".tmp");
+		try {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+		} catch (IOException e) {
+			file.delete();
+			throw e;
+		}
+	}
+
+	@Override
+	public synchronized boolean add(int[] literals, int offset, int length) {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (length == 0) {
+			throw new IllegalArgumentException("Clause cannot be empty.");
+		}
+		if (channel == null) {
+			throw new IllegalStateException("The store has been closed.");
+		}
+
+		for (int position = offset; position < offset + length; position++) {
+			if (literals[position] == Solver.END_OF_CLAUSE) {
+				throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+			}
+		}
+		try {
+			writeNumber(length);
+			long previous = 0;
+			for (int position = offset; position < offset + length; position++) {
+				int literal = literals[position];
+				long difference = literal - previous;
+				// zigzag encoding of the signed difference
+				writeNumber((difference << 1) ^ (difference >> 63));
+				previous = literal;
+				updateLastId(literal);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		numberOfClauses++;
+		numberOfLiterals += length;
+		return true;
+	}
+
+	@Override
+	public boolean addMinimizeLiteral(Integer literal) {
+		return addMinimizeLiteral(literal, 1);
+	}
+
+	@Override
+	public synchronized boolean addMinimizeLiteral(Integer literal, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight must be positive.");
+		}
+
+		Integer oldWeight = this.minimizeLiterals.put(literal, weight);
+		return oldWeight == null || oldWeight != weight;
+	}
+
+	/**
+	 * Closes the store and deletes the underlying file. Closing a closed store
+	 * has no effect.
+	 *
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (channel == null) {
+			return;
+		}
+
+		try {
+			channel.close();
+		} finally {
+			channel = null;
+			file.delete();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		// the casts avoid linking against the covariant overrides of Java 9,
+		// which do not exist on a Java 8 runtime
+		((Buffer) buffer).flip();
+		while (buffer.hasRemaining()) {
+			size += channel.write(buffer, size);
+		}
+		((Buffer) buffer).clear();
+	}
+
+	/**
+	 * Returns the file in which the clauses are stored.
+	 *
+	 * @return the underlying file
+	 */
+	File getFile() {
+		return file;
+	}
+
+	@Override
+	public synchronized Integer getLastId() {
+		return this.lastId;
+	}
+
+	@Override
+	public synchronized Set<Integer> getMinimizeLiterals() {
+		return Collections.unmodifiableSet(new HashSet<>(minimizeLiterals.keySet()));
+	}
+
+	@Override
+	public synchronized int getMinimizeWeight(Integer literal) {
+		Integer weight = minimizeLiterals.get(literal);
+		if (weight == null) {
+			throw new IllegalArgumentException("Literal is not to be minimized: " + literal + ".");
+		}
+		return weight;
+	}
+
+	@Override
+	public synchronized int getNumberOfClauses() {
+		return this.numberOfClauses;
+	}
+
+	/**
+	 * Returns the total number of literal occurrences in all clauses.
+	 *
+	 * @return the number of literal occurrences
+	 */
+	public synchronized long getNumberOfLiterals() {
+		return this.numberOfLiterals;
+	}
+
+	/**
+	 * Returns the number of bytes occupied by the encoded clauses.
+	 *
+	 * @return the size of the store in bytes
+	 */
+	public synchronized long getSize() {
+		return this.size + buffer.position();
+	}
+
+	private void updateLastId(int literal) {
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
+	}
+
+	private void writeNumber(long number) throws IOException {
+		if (buffer.remaining() < MAX_NUMBER_LENGTH) {
+			flushBuffer();
+		}
+		long remaining = number;
+		while ((remaining & ~0x7FL) != 0) {
+			buffer.put((byte) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+		buffer.put((byte) remaining);
+	}
+
+	@Override
+	public void writeTo(ClauseSink sink) throws InterruptedException {
+		if (sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		int clauses;
+		Map<Integer, Integer> literalsToMinimize;
+		Reader reader;
+		synchronized (this) {
+			if (channel == null) {
+				throw new IllegalStateException("The store has been closed.");
+			}
+			clauses = numberOfClauses;
+			literalsToMinimize = new HashMap<>(minimizeLiterals);
+			try {
+				flushBuffer();
+				reader = (clauses == 0) ? null : new Reader(size);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		try {
+			int[] clause = new int[16];
+			for (int index = 0; index < clauses; index++) {
+				int length = (int) reader.readNumber();
+				if (length > clause.length) {
+					clause = Arrays.copyOf(clause, Math.max(length, 2 * clause.length));
+				}
+				long previous = 0;
+				for (int position = 0; position < length; position++) {
+					long encoded = reader.readNumber();
+					previous += (encoded >>> 1) ^ -(encoded & 1);
+					clause[position] = (int) previous;
+				}
+				sink.add(clause, 0, length);
+
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		for (Entry<Integer, Integer> entry : literalsToMinimize.entrySet()) {
+			sink.addMinimizeLiteral(entry.getKey(), entry.getValue());
+		}
+	}
+
+}
@@ -1,17 +1,26 @@
 package de.tudresden.inf.lat.uel.sat.type;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 /**
- * An object of this class represents a SAT input file.
+ * An object of this class represents a SAT input file. The clauses are stored
+ * in a single growable array of literals (the 'arena'), together with an array
+ * of offsets that marks where each clause starts. This avoids allocating one
+ * object per clause and one boxed integer per literal. A SAT input can be used
+ * as a clause sink that buffers the clauses in memory.
  * 
  * @author Julian Mendez
  */
-public class SatInput {
+public class SatInput implements ClauseSink, ClauseSource {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
 
 	public static void appendCNFClause(StringBuffer sbuf, Collection<Integer> clause) {
 		for (Integer literal : clause) {
@@ -48,6 +57,19 @@ public class SatInput {
 		sbuf.append(Solver.NEWLINE);
 	}
 
+	private static int[] grow(int[] array, int required) {
+		if (required > MAX_CAPACITY) {
+			throw new OutOfMemoryError("SAT input exceeds the maximum array size.");
+		}
+		int newCapacity = array.length + (array.length >> 1);
+		if (newCapacity < 0 || newCapacity > MAX_CAPACITY) {
+			// the capacity overflowed; near the limit, growing only to the
+			// required size would copy the whole array for every clause
+			newCapacity = MAX_CAPACITY;
+		}
+		return Arrays.copyOf(array, Math.max(newCapacity, required));
+	}
+
 	/**
 	 * Converts a given clause into an array of integers.
 	 * 
@@ -65,9 +87,12 @@ public class SatInput {
 		return ret;
 	}
 
-	private Collection<Set<Integer>> clauses = new ArrayList<>();
-	private Integer lastId = 0;
-	private Set<Integer> minimizeLiterals = new HashSet<>();
+	private int[] clauseStarts = new int[INITIAL_CAPACITY];
+	private int lastId = 0;
+	private int[] literals = new int[INITIAL_CAPACITY];
+	private Map<Integer, Integer> minimizeLiterals = new HashMap<>();
+	private int numberOfClauses = 0;
+	private int numberOfLiterals = 0;
 
 	/**
 	 * Constructs a new SAT input.
@@ -79,27 +104,60 @@ public class SatInput {
 	 * Adds a new non-empty clause.
 	 * 
 	 * @param clause
-	 *            new non-empty clause
+	 *            the literal identifiers of the new non-empty clause
 	 * @return a value indicating whether the SatInput was changed
-	 * 
 	 */
-	public boolean add(Set<Integer> clause) {
+	@Override
+	public boolean add(int... clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return add(clause, 0, clause.length);
+	}
+
+	@Override
+	public boolean add(int[] clause, int offset, int length) {
 		if (clause == null) {
 			throw new IllegalArgumentException("Null argument.");
 		}
 
-		if (clause.isEmpty()) {
+		if (length == 0) {
 			throw new IllegalArgumentException("Clause cannot be empty.");
 		}
-		if (clause.contains(Solver.END_OF_CLAUSE)) {
-			throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+
+		ensureCapacity(length);
+		for (int position = offset; position < offset + length; position++) {
+			int literal = clause[position];
+			if (literal == Solver.END_OF_CLAUSE) {
+				// discard the partially copied clause
+				numberOfLiterals = clauseStarts[numberOfClauses];
+				throw new IllegalArgumentException("Clause cannot contain " + Solver.END_OF_CLAUSE + ".");
+			}
+			literals[numberOfLiterals] = literal;
+			numberOfLiterals++;
+			updateLastId(literal);
 		}
+		numberOfClauses++;
+		clauseStarts[numberOfClauses] = numberOfLiterals;
+		return true;
+	}
 
-		boolean ret = this.clauses.add(Collections.unmodifiableSet(clause));
-		if (ret) {
-			updateLastId(clause);
+	/**
+	 * Adds a new non-empty clause.
+	 * 
+	 * @param clause
+	 *            new non-empty clause
+	 * @return a value indicating whether the SatInput was changed
+	 * 
+	 */
+	@Override
+	public boolean add(Set<Integer> clause) {
+		if (clause == null) {
+			throw new IllegalArgumentException("Null argument.");
 		}
-		return ret;
+
+		return add(toArray(clause));
 	}
 
 	/**
@@ -123,14 +181,38 @@ public class SatInput {
 	}
 
 	/**
-	 * Adds a literal to the set of literals that are to be minimized.
+	 * Adds a literal with weight 1 to the set of literals that are to be
+	 * minimized.
 	 * 
 	 * @param literal
 	 *            the literal identifier
 	 * @return true iff the set changed as a result of this operation
 	 */
+	@Override
 	public boolean addMinimizeLiteral(Integer literal) {
-		return this.minimizeLiterals.add(literal);
+		return addMinimizeLiteral(literal, 1);
+	}
+
+	/**
+	 * Adds a literal with the given weight to the set of literals that are to
+	 * be minimized. If the literal has been added before, its weight is
+	 * replaced.
+	 * 
+	 * @param literal
+	 *            the literal identifier
+	 * @param weight
+	 *            the positive weight of the literal
+	 * @return true iff the set or the weight changed as a result of this
+	 *         operation
+	 */
+	@Override
+	public boolean addMinimizeLiteral(Integer literal, int weight) {
+		if (weight <= 0) {
+			throw new IllegalArgumentException("Weight must be positive.");
+		}
+
+		Integer oldWeight = this.minimizeLiterals.put(literal, weight);
+		return oldWeight == null || oldWeight != weight;
 	}
 
 	/**
@@ -141,57 +223,128 @@ public class SatInput {
 	 * @return true iff the set changed as a result of this operation
 	 */
 	public boolean addMinimizeLiterals(Set<Integer> literals) {
-		return this.minimizeLiterals.addAll(literals);
+		boolean ret = false;
+		for (Integer literal : literals) {
+			boolean changed = addMinimizeLiteral(literal);
+			ret = ret || changed;
+		}
+		return ret;
+	}
+
+	private void appendCNFClause(StringBuffer sbuf, int index) {
+		for (int position = clauseStarts[index]; position < clauseStarts[index + 1]; position++) {
+			sbuf.append(literals[position]);
+			sbuf.append(Solver.SPACE);
+		}
+		sbuf.append(Solver.END_OF_CLAUSE);
+		sbuf.append(Solver.NEWLINE);
 	}
 
 	/**
 	 * Clears the set of clauses.
 	 */
 	public void clear() {
-		this.clauses.clear();
+		this.numberOfClauses = 0;
+		this.numberOfLiterals = 0;
 		this.lastId = 0;
 	}
 
+	private void ensureCapacity(int clauseLength) {
+		int requiredLiterals = numberOfLiterals + clauseLength;
+		if (requiredLiterals < 0) {
+			throw new OutOfMemoryError("SAT input exceeds the maximum array size.");
+		}
+		if (requiredLiterals > literals.length) {
+			literals = grow(literals, requiredLiterals);
+		}
+		if (numberOfClauses + 2 > clauseStarts.length) {
+			clauseStarts = grow(clauseStarts, numberOfClauses + 2);
+		}
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		boolean ret = (this == o);
 		if (!ret && o instanceof SatInput) {
 			SatInput other = (SatInput) o;
-			ret = this.clauses.equals(other.clauses) && this.lastId == other.lastId;
+			ret = this.numberOfClauses == other.numberOfClauses && this.numberOfLiterals == other.numberOfLiterals
+					&& this.lastId == other.lastId;
+			for (int index = 0; ret && index <= numberOfClauses; index++) {
+				ret = this.clauseStarts[index] == other.clauseStarts[index];
+			}
+			for (int position = 0; ret && position < numberOfLiterals; position++) {
+				ret = this.literals[position] == other.literals[position];
+			}
 		}
 		return ret;
 	}
 
 	/**
-	 * Returns the clauses.
+	 * Returns the number of literals of a clause.
 	 * 
-	 * @return the clauses
+	 * @param index
+	 *            the index of the clause, between 0 (inclusive) and the number
+	 *            of clauses (exclusive)
+	 * @return the number of literals of the clause
 	 */
-	public Collection<Set<Integer>> getClauses() {
-		return Collections.unmodifiableCollection(this.clauses);
+	public int getClauseLength(int index) {
+		return clauseStarts[index + 1] - clauseStarts[index];
 	}
 
-	/**
-	 * Returns the greatest propositional variable identifier.
-	 * 
-	 * @return the greatest propositional variable identifier
-	 */
+	@Override
 	public Integer getLastId() {
 		return this.lastId;
 	}
 
 	/**
-	 * Retrieve the set of literals that are to be minimized.
+	 * Returns a literal of a clause.
 	 * 
-	 * @return the literals to be minimized
+	 * @param index
+	 *            the index of the clause
+	 * @param position
+	 *            the position of the literal inside the clause, between 0
+	 *            (inclusive) and the length of the clause (exclusive)
+	 * @return the literal identifier at the given position
 	 */
+	public int getLiteral(int index, int position) {
+		return literals[clauseStarts[index] + position];
+	}
+
+	@Override
 	public Set<Integer> getMinimizeLiterals() {
-		return Collections.unmodifiableSet(minimizeLiterals);
+		return Collections.unmodifiableSet(minimizeLiterals.keySet());
+	}
+
+	@Override
+	public int getMinimizeWeight(Integer literal) {
+		Integer weight = minimizeLiterals.get(literal);
+		if (weight == null) {
+			throw new IllegalArgumentException("Literal is not to be minimized: " + literal + ".");
+		}
+		return weight;
+	}
+
+	@Override
+	public int getNumberOfClauses() {
+		return this.numberOfClauses;
+	}
+
+	/**
+	 * Returns the total number of literal occurrences in all clauses.
+	 * 
+	 * @return the number of literal occurrences
+	 */
+	public int getNumberOfLiterals() {
+		return this.numberOfLiterals;
 	}
 
 	@Override
 	public int hashCode() {
-		return this.clauses.hashCode();
+		int ret = 1;
+		for (int position = 0; position < numberOfLiterals; position++) {
+			ret = 31 * ret + literals[position];
+		}
+		return 31 * ret + numberOfClauses;
 	}
 
 	/**
@@ -201,9 +354,9 @@ public class SatInput {
 	 */
 	public String toCNF() {
 		StringBuffer sbuf = new StringBuffer();
-		appendCNFLine(sbuf, lastId, clauses.size());
-		for (Collection<Integer> clause : clauses) {
-			appendCNFClause(sbuf, clause);
+		appendCNFLine(sbuf, lastId, numberOfClauses);
+		for (int index = 0; index < numberOfClauses; index++) {
+			appendCNFClause(sbuf, index);
 		}
 		return sbuf.toString();
 	}
@@ -217,31 +370,47 @@ public class SatInput {
 	 * Returns this MaxSAT input in WCNF format.
 	 * 
 	 * @param maxWeight
-	 *            the weight for the "hard" clauses
+	 *            the weight for the "hard" clauses, which has to be greater
+	 *            than the sum of the weights of the literals to be minimized
 	 * @return a string in WNCF format
 	 */
 	public String toWCNF(int maxWeight) {
 		StringBuffer sbuf = new StringBuffer();
-		appendWCNFLine(sbuf, lastId, clauses.size() + minimizeLiterals.size(), maxWeight);
-		for (Set<Integer> clause : clauses) {
-			appendWCNFClause(sbuf, clause, maxWeight);
+		appendWCNFLine(sbuf, lastId, numberOfClauses + minimizeLiterals.size(), maxWeight);
+		for (int index = 0; index < numberOfClauses; index++) {
+			sbuf.append(maxWeight);
+			sbuf.append(Solver.SPACE);
+			appendCNFClause(sbuf, index);
 		}
-		for (Integer lit : minimizeLiterals) {
-			appendWCNFClause(sbuf, Collections.singleton(-lit), 1);
+		for (Entry<Integer, Integer> entry : minimizeLiterals.entrySet()) {
+			appendWCNFClause(sbuf, Collections.singleton(-entry.getKey()), entry.getValue());
 		}
 		return sbuf.toString();
 	}
 
-	private boolean updateLastId(Collection<Integer> newSet) {
-		boolean ret = false;
-		for (Integer elem : newSet) {
-			Integer absElem = elem < 0 ? (-1) * elem : elem;
-			if (absElem > lastId) {
-				lastId = absElem;
-				ret = true;
+	@Override
+	public void writeTo(ClauseSink sink) throws InterruptedException {
+		if (sink == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		for (int index = 0; index < numberOfClauses; index++) {
+			sink.add(literals, clauseStarts[index], getClauseLength(index));
+
+			if (Thread.interrupted()) {
+				throw new InterruptedException();
 			}
 		}
-		return ret;
+		for (Entry<Integer, Integer> entry : minimizeLiterals.entrySet()) {
+			sink.addMinimizeLiteral(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private void updateLastId(int literal) {
+		int absLiteral = literal < 0 ? (-1) * literal : literal;
+		if (absLiteral > lastId) {
+			lastId = absLiteral;
+		}
 	}
 
 }
@@ -1,6 +1,7 @@
 package de.tudresden.inf.lat.uel.sat.type;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -52,7 +53,70 @@ public interface Solver {
 	void cleanup();
 
 	/**
-	 * Solves a SAT problem. The input must be in the DIMACS CNF format.
+	 * Starts a new SAT problem and returns a sink that accepts its clauses.
+	 * Depending on the solver, the clauses are passed on immediately instead of
+	 * being stored in memory. The problem is solved by calling
+	 * {@link #solve()} after all clauses have been added.
+	 *
+	 * @return a clause sink for the new SAT problem
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 */
+	ClauseSink createClauseSink() throws IOException;
+
+	/**
+	 * Returns the number of propositional variables of the current problem.
+	 * This includes the auxiliary variables that the solver has introduced on
+	 * its own, e.g. in {@link #minimizeProjection(Set)}, whose identifiers must
+	 * not be used in clauses that are added later. Solvers that do not
+	 * introduce such variables may return 0.
+	 *
+	 * @return the number of propositional variables
+	 */
+	default int getNumberOfVariables() {
+		return 0;
+	}
+
+	/**
+	 * Computes a subset of the given literals, which must be true in the last
+	 * model, such that every model of the current problem that satisfies this
+	 * subset also satisfies all of the given literals. The negation of the
+	 * subset can then be added as a short clause that excludes the same
+	 * assignments of the given literals as the negation of all of them.
+	 * Solvers that cannot compute such a subset return all given literals.
+	 *
+	 * @param literals
+	 *            the literals that are true in the last model
+	 * @return a subset of the literals that implies all of them
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	default Set<Integer> minimizeProjection(Set<Integer> literals) throws IOException, InterruptedException {
+		if (literals == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		return literals;
+	}
+
+	/**
+	 * Solves the SAT problem whose clauses have been added to the last sink
+	 * returned by {@link #createClauseSink()}.
+	 *
+	 * @return the output of the SAT solver
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	SatOutput solve() throws IOException, InterruptedException;
+
+	/**
+	 * Solves a SAT problem. The clauses are streamed from the source to the
+	 * sink returned by {@link #createClauseSink()}, so they are not copied
+	 * into memory if the solver writes them to a file or another process.
 	 *
 	 * @param input
 	 *            SAT problem to solve
@@ -62,7 +126,14 @@ public interface Solver {
 	 * @throws InterruptedException
 	 *             if the process is interrupted
 	 */
-	SatOutput solve(SatInput input) throws IOException, InterruptedException;
+	default SatOutput solve(ClauseSource input) throws IOException, InterruptedException {
+		if (input == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+
+		input.writeTo(createClauseSink());
+		return solve();
+	}
 
 	/**
 	 * Updates the last solved SAT instances by adding one clause and solves the
@@ -77,4 +148,35 @@ public interface Solver {
 	 *             if the process is interrupted
 	 */
 	SatOutput update(Set<Integer> clause) throws IOException, InterruptedException;
+
+	/**
+	 * Updates the last solved SAT instance by adding several clauses and
+	 * solves the resulting problem.
+	 *
+	 * @param clauses
+	 *            the non-empty collection of clauses to be added
+	 * @return the output of the SAT solver
+	 * @throws IOException
+	 *             if an I/O error occurs
+	 * @throws InterruptedException
+	 *             if the process is interrupted
+	 */
+	default SatOutput updateAll(Collection<Set<Integer>> clauses) throws IOException, InterruptedException {
+		if (clauses == null) {
+			throw new IllegalArgumentException("Null argument.");
+		}
+		if (clauses.isEmpty()) {
+			throw new IllegalArgumentException("No clauses given.");
+		}
+
+		SatOutput ret = null;
+		for (Set<Integer> clause : clauses) {
+			ret = update(clause);
+			if (!ret.isSatisfiable()) {
+				return ret;
+			}
+		}
+		return ret;
+	}
+
 }
@@ -0,0 +1,141 @@
+package de.tudresden.inf.lat.uel.sat.solver;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.tudresden.inf.lat.uel.sat.type.SatInput;
+import de.tudresden.inf.lat.uel.sat.type.SatOutput;
+
+/**
+ * Simplifies small SAT problems with a {@link CNFPreprocessor}, solves the
+ * result, and checks that the extended model satisfies the original problem.
+ */
+public class CNFPreprocessorTest {
+
+	private static final int numberOfProblems = 500;
+	private static final int numberOfVariables = 12;
+	private static final long seed = 42;
+
+	private static void assertModel(SatInput input, Set<Integer> model) {
+		for (int index = 0; index < input.getNumberOfClauses(); index++) {
+			boolean satisfied = false;
+			for (int position = 0; position < input.getClauseLength(index); position++) {
+				satisfied |= model.contains(input.getLiteral(index, position));
+			}
+			Assertions.assertTrue(satisfied, "Clause " + index + " is not satisfied by " + model);
+		}
+	}
+
+	private static void assertNotEliminated(CNFPreprocessor preprocessor, Set<Integer> variables) {
+		for (Integer var : variables) {
+			Assertions.assertFalse(preprocessor.isEliminated(var), "Variable " + var + " was eliminated.");
+		}
+	}
+
+	private static SatOutput solve(SatInput input) throws IOException, InterruptedException {
+		Sat4jSolver solver = new Sat4jSolver();
+		try {
+			return solver.solve(input);
+		} finally {
+			solver.cleanup();
+		}
+	}
+
+	/**
+	 * Preprocesses a problem, solves the result and returns the extended model,
+	 * or <code>null</code> if the problem is unsatisfiable.
+	 */
+	private static Set<Integer> preprocessAndSolve(SatInput input, CNFPreprocessor preprocessor,
+			IntPredicate frozen) throws IOException, InterruptedException {
+		SatInput simplified = preprocessor.process(input, frozen);
+		if (preprocessor.isUnsatisfiable()) {
+			return null;
+		}
+		SatOutput output = solve(simplified);
+		if (!output.isSatisfiable()) {
+			return null;
+		}
+		return preprocessor.extendModel(output.getOutput());
+	}
+
+	@Test
+	public void extendModel() throws IOException, InterruptedException {
+		SatInput input = new SatInput();
+		// 1 and 2 are fixed by unit propagation
+		input.add(1);
+		input.add(-1, 2);
+		// 3 can be eliminated by resolution
+		input.add(3, 4);
+		input.add(-3, 5);
+		input.add(-3, 6);
+		// the second clause is subsumed by the first one
+		input.add(4, 7, 8);
+		input.add(10, 8, 7, 4);
+		input.add(-7, 9);
+		input.add(5, -9, 10);
+		input.add(-2, -10, 11);
+		input.addMinimizeLiteral(8);
+
+		Set<Integer> frozen = new HashSet<>();
+		frozen.add(7);
+		CNFPreprocessor preprocessor = new CNFPreprocessor(true);
+		Set<Integer> model = preprocessAndSolve(input, preprocessor, frozen::contains);
+
+		Assertions.assertNotNull(model);
+		assertModel(input, model);
+		Assertions.assertEquals(1, preprocessor.getValue(2));
+		Assertions.assertTrue(preprocessor.isEliminated(3));
+		Assertions.assertTrue(preprocessor.getNumberOfSubsumedClauses() > 0);
+		frozen.add(8);
+		assertNotEliminated(preprocessor, frozen);
+	}
+
+	@Test
+	public void extendModelOfRandomProblems() throws IOException, InterruptedException {
+		Random random = new Random(seed);
+		// the number of satisfiable problems in which variables were eliminated
+		int extended = 0;
+		for (int problem = 0; problem < numberOfProblems; problem++) {
+			SatInput input = new SatInput();
+			int numberOfClauses = 10 + random.nextInt(50);
+			for (int index = 0; index < numberOfClauses; index++) {
+				int[] clause = new int[1 + random.nextInt(random.nextInt(10) == 0 ? 1 : 4)];
+				for (int position = 0; position < clause.length; position++) {
+					int var = 1 + random.nextInt(numberOfVariables);
+					clause[position] = random.nextBoolean() ? var : -var;
+				}
+				input.add(clause);
+			}
+			Set<Integer> frozen = new HashSet<>();
+			for (int var = 1; var <= numberOfVariables; var++) {
+				if (random.nextInt(4) == 0) {
+					frozen.add(var);
+				}
+			}
+			int minimizeVariable = 1 + random.nextInt(numberOfVariables);
+			input.addMinimizeLiteral(minimizeVariable);
+
+			CNFPreprocessor preprocessor = new CNFPreprocessor(true);
+			Set<Integer> model = preprocessAndSolve(input, preprocessor, frozen::contains);
+
+			Assertions.assertEquals(solve(input).isSatisfiable(), model != null,
+					"Problem " + problem + ": " + input);
+			if (model != null) {
+				assertModel(input, model);
+				if (preprocessor.getNumberOfEliminatedVariables() > 0) {
+					extended++;
+				}
+			}
+			frozen.add(minimizeVariable);
+			assertNotEliminated(preprocessor, frozen);
+		}
+		Assertions.assertTrue(extended > 0);
+	}
+
+}
@@ -0,0 +1,152 @@
+package de.tudresden.inf.lat.uel.sat.type;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes clauses to an {@link OffHeapClauseStore} and compares them with the
+ * clauses that are read back.
+ */
+public class OffHeapClauseStoreTest {
+
+	/**
+	 * Records the clauses and literals to be minimized that are written to it.
+	 */
+	private static class RecordingSink implements ClauseSink {
+
+		private final List<List<Integer>> clauses = new ArrayList<>();
+		private final Map<Integer, Integer> minimizeLiterals = new HashMap<>();
+
+		@Override
+		public boolean add(int[] literals, int offset, int length) {
+			List<Integer> clause = new ArrayList<>();
+			for (int position = offset; position < offset + length; position++) {
+				clause.add(literals[position]);
+			}
+			return clauses.add(clause);
+		}
+
+		@Override
+		public boolean addMinimizeLiteral(Integer literal) {
+			return addMinimizeLiteral(literal, 1);
+		}
+
+		@Override
+		public boolean addMinimizeLiteral(Integer literal, int weight) {
+			return !Integer.valueOf(weight).equals(minimizeLiterals.put(literal, weight));
+		}
+
+		@Override
+		public int getNumberOfClauses() {
+			return clauses.size();
+		}
+
+	}
+
+	private static final int[][] clauses = { { 1 }, { -1 }, { 1, -2, 3 }, { -3, 2, -1 },
+			{ Integer.MAX_VALUE, -Integer.MAX_VALUE }, { Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE },
+			{ 127, 128, -128, 16383, 16384, -16384 }, { -1000000, 1000000, 1, -1 } };
+
+	private static List<List<Integer>> add(OffHeapClauseStore store, int[][] clauses) {
+		List<List<Integer>> ret = new ArrayList<>();
+		for (int[] clause : clauses) {
+			store.add(clause);
+			List<Integer> list = new ArrayList<>();
+			for (int literal : clause) {
+				list.add(literal);
+			}
+			ret.add(list);
+		}
+		return ret;
+	}
+
+	private static RecordingSink read(OffHeapClauseStore store) throws InterruptedException {
+		RecordingSink sink = new RecordingSink();
+		store.writeTo(sink);
+		return sink;
+	}
+
+	@Test
+	public void readBackClauses() throws IOException, InterruptedException {
+		try (OffHeapClauseStore store = new OffHeapClauseStore()) {
+			List<List<Integer>> expected = add(store, clauses);
+			store.addMinimizeLiteral(5);
+			store.addMinimizeLiteral(-7, 3);
+
+			RecordingSink sink = read(store);
+			Assertions.assertEquals(expected, sink.clauses);
+			Map<Integer, Integer> expectedMinimizeLiterals = new HashMap<>();
+			expectedMinimizeLiterals.put(5, 1);
+			expectedMinimizeLiterals.put(-7, 3);
+			Assertions.assertEquals(expectedMinimizeLiterals, sink.minimizeLiterals);
+			Assertions.assertEquals(clauses.length, store.getNumberOfClauses());
+			Assertions.assertEquals(Integer.MAX_VALUE, store.getLastId().intValue());
+
+			// clauses can still be added after reading, and are read together
+			// with the previous ones
+			expected.addAll(add(store, new int[][] { { 42, -43 } }));
+			Assertions.assertEquals(expected, read(store).clauses);
+		}
+	}
+
+	@Test
+	public void readAcrossWindows() throws IOException, InterruptedException {
+		// windows of 3 bytes split the clauses and most of the numbers
+		try (OffHeapClauseStore store = new OffHeapClauseStore(3)) {
+			List<List<Integer>> expected = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				expected.addAll(add(store, clauses));
+			}
+			Assertions.assertTrue(store.getSize() > 3 * 1000);
+			Assertions.assertEquals(expected, read(store).clauses);
+		}
+	}
+
+	@Test
+	public void readLongClause() throws IOException, InterruptedException {
+		// the clause is longer than the buffer for reading clauses and the
+		// buffer for writing bytes
+		int[] clause = new int[100000];
+		for (int i = 0; i < clause.length; i++) {
+			clause[i] = (i % 2 == 0) ? i + 1 : -(i * 1000 + 1);
+		}
+		try (OffHeapClauseStore store = new OffHeapClauseStore(1000)) {
+			List<List<Integer>> expected = add(store, new int[][] { clause, { 1 } });
+			Assertions.assertEquals(expected, read(store).clauses);
+		}
+	}
+
+	@Test
+	public void closeDeletesFile() throws IOException, InterruptedException {
+		OffHeapClauseStore store = new OffHeapClauseStore();
+		File file = store.getFile();
+		add(store, clauses);
+		read(store);
+		Assertions.assertTrue(file.exists());
+
+		store.close();
+		Assertions.assertFalse(file.exists());
+		// closing a closed store has no effect
+		store.close();
+		Assertions.assertThrows(IllegalStateException.class, () -> store.add(1));
+		Assertions.assertThrows(IllegalStateException.class, () -> store.writeTo(new RecordingSink()));
+	}
+
+	@Test
+	public void rejectInvalidClauses() throws IOException {
+		try (OffHeapClauseStore store = new OffHeapClauseStore()) {
+			Assertions.assertThrows(IllegalArgumentException.class, () -> store.add(new int[0]));
+			Assertions.assertThrows(IllegalArgumentException.class, () -> store.add(1, 0, 2));
+			Assertions.assertEquals(0, store.getNumberOfClauses());
+			Assertions.assertTrue(store.getMinimizeLiterals().isEmpty());
+		}
+	}
+
+}
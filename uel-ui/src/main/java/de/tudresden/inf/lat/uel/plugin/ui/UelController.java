@@ -41,7 +41,7 @@ public class UelController {
 		init();
 	}
 
-	private void addNewDissubsumptions() {
+	private Set<OWLAxiom> addNewDissubsumptions() {
 		OWLOntology negOntology = view.getSelectedOntologyNeg();
 		if (negOntology.equals(UelModel.EMPTY_ONTOLOGY)) {
 			negOntology = model.createOntology();
@@ -61,6 +61,14 @@ public class UelController {
 			negOntology.getOWLOntologyManager().addAxiom(negOntology, axiom);
 		}
 		undoStack.push(newAxioms);
+		return newAxioms;
+	}
+
+	private void closeUnifierViews() {
+		if (refineController != null) {
+			refineController.close();
+		}
+		unifierController.close();
 	}
 
 	private void executeAcceptVar() {
@@ -87,13 +95,17 @@ public class UelController {
 			}
 		}
 
-		addNewDissubsumptions();
+		Set<OWLAxiom> newAxioms = addNewDissubsumptions();
 
 		if (save) {
 			OWLUtils.saveToOntologyFile(view.getSelectedOntologyNeg(), file);
 		}
 
-		recomputeUnifiers();
+		if (model.addNegativeAxioms(newAxioms)) {
+			restartComputation();
+		} else {
+			recomputeUnifiers();
+		}
 	}
 
 	private void executeRefine() {
@@ -130,7 +142,11 @@ public class UelController {
 			negOntology.getOWLOntologyManager().removeAxiom(negOntology, axiom);
 		}
 
-		recomputeUnifiers();
+		if (model.removeNegativeAxioms(lastDiff)) {
+			restartComputation();
+		} else {
+			recomputeUnifiers();
+		}
 	}
 
 	/**
@@ -152,11 +168,16 @@ public class UelController {
 		updateView();
 	}
 
+	private void openUnifierView() {
+		unifierController = new UnifierController(new UnifierView(view), model);
+		unifierController.addRefineListener(e -> executeRefine());
+		unifierController.addUndoRefineListener(e -> executeUndoRefine());
+		unifierController.setUndoRefineButtonEnabled(!undoStack.isEmpty());
+		unifierController.open();
+	}
+
 	private void recomputeUnifiers() {
-		if (refineController != null) {
-			refineController.close();
-		}
-		unifierController.close();
+		closeUnifierViews();
 
 		// store previously selected variables
 		Set<String> userVariables = model.getUserVariableNames();
@@ -178,18 +199,24 @@ public class UelController {
 		updateView();
 	}
 
+	/**
+	 * Opens the 'Unifier' view again after the UEL model has updated the goal
+	 * and the unification algorithm.
+	 */
+	private void restartComputation() {
+		closeUnifierViews();
+
+		openUnifierView();
+	}
+
 	/**
 	 * Uses the UEL model to initialize the selected unification algorithm and
 	 * opens the 'Unifier' view.
 	 */
 	public void setupComputation() {
-		model.initializeUnificationAlgorithm(view.getSelectedAlgorithm());
+		model.initializeUnificationAlgorithm(view.getSelectedAlgorithm(), true);
 
-		unifierController = new UnifierController(new UnifierView(view), model);
-		unifierController.addRefineListener(e -> executeRefine());
-		unifierController.addUndoRefineListener(e -> executeUndoRefine());
-		unifierController.setUndoRefineButtonEnabled(!undoStack.isEmpty());
-		unifierController.open();
+		openUnifierView();
 	}
 
 	/**
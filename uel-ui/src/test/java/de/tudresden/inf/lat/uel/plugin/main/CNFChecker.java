@@ -5,6 +5,8 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -30,6 +32,11 @@ import de.tudresden.inf.lat.uel.type.impl.AtomManagerImpl;
  * 
  * The runtimes for computing the first unifier and all unifiers and the
  * internal statistics of the algorithm are printed to the command line.
+ * Additionally, the numbers of clauses and propositions and the runtimes of
+ * the SAT-based algorithm are compared for the two encodings of the order on
+ * the variables, and the size of the search tree and the number of dead ends
+ * of the rule-based algorithm are compared for the two orders of choosing
+ * unsolved subsumptions.
  * 
  * @author Stefan Borgwardt
  * 
@@ -37,6 +44,13 @@ import de.tudresden.inf.lat.uel.type.impl.AtomManagerImpl;
 public class CNFChecker {
 
 	private static final String SPACES = "\\s+";
+	private static final String keyAll = "all";
+	private static final String keyClauses = "Number of clauses";
+	private static final String keyDeadEnds = "Number of encountered dead ends (so far)";
+	private static final String keyFirst = "first";
+	private static final String keyPropositions = "Number of propositions";
+	private static final String keyTreeSize = "Size of the search tree (so far)";
+	private static final String keyUnifiers = "unifiers";
 
 	private Goal goal;
 
@@ -176,18 +190,57 @@ public class CNFChecker {
 	public static void main(String[] args) throws IOException, InterruptedException {
 		if (args.length == 1) {
 			CNFChecker tester = new CNFChecker(args[0]);
-			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM);
+			Map<String, String> unaryOrder = tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM);
 			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_MINIMAL);
-			tester.runAlgorithm(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_LAZY);
+			Map<String, String> binaryOrder = tester
+					.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_BINARY_ORDER);
+			printComparison(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM, unaryOrder,
+					UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_BINARY_ORDER, binaryOrder, keyClauses,
+					keyPropositions, keyFirst, keyAll, keyUnifiers);
+			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_PORTFOLIO);
+			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_PREPROCESSING);
+			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_PROJECTED);
+			tester.runAlgorithm(UnificationAlgorithmFactory.SAT_BASED_ALGORITHM_CUBES);
+			Map<String, String> fifo = tester.runAlgorithm(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM);
+			Map<String, String> failFirst = tester
+					.runAlgorithm(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM_FAIL_FIRST);
+			printComparison(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM, fifo,
+					UnificationAlgorithmFactory.RULE_BASED_ALGORITHM_FAIL_FIRST, failFirst, keyTreeSize, keyDeadEnds,
+					keyFirst, keyAll, keyUnifiers);
+			tester.runAlgorithm(UnificationAlgorithmFactory.RULE_BASED_ALGORITHM_PARALLEL);
 			tester.runAlgorithm(UnificationAlgorithmFactory.ASP_BASED_ALGORITHM);
 		} else {
 			System.out.println("Parameters: <input DIMACS CNF file>");
 		}
 	}
 
-	private static void printInfo(UnificationAlgorithm algorithm) {
-		for (Entry<String, String> info : algorithm.getInfo()) {
-			System.out.println(info.getKey() + ": " + info.getValue());
+	/**
+	 * Print some results of two algorithms side by side.
+	 * 
+	 * @param name1
+	 *            the name of the first algorithm
+	 * @param results1
+	 *            the results of the first algorithm
+	 * @param name2
+	 *            the name of the second algorithm
+	 * @param results2
+	 *            the results of the second algorithm
+	 * @param keys
+	 *            the keys of the results that are compared
+	 */
+	private static void printComparison(String name1, Map<String, String> results1, String name2,
+			Map<String, String> results2, String... keys) {
+		System.out.println(name1 + " vs. " + name2);
+		for (String key : keys) {
+			System.out.println(key + ": " + results1.get(key) + " vs. " + results2.get(key));
+		}
+		System.out.println();
+	}
+
+	private static void printInfo(Map<String, String> results) {
+		for (Entry<String, String> result : results.entrySet()) {
+			System.out.println(result.getKey() + ": " + result.getValue());
 		}
 		System.out.println();
 	}
@@ -197,10 +250,12 @@ public class CNFChecker {
 	 * 
 	 * @param algorithmName
 	 *            the string identifier of the algorithm
+	 * @return the runtimes in nanoseconds, the number of unifiers, and the
+	 *         internal statistics of the algorithm
 	 * @throws InterruptedException
 	 *             if the execution is interrupted
 	 */
-	public void runAlgorithm(String algorithmName) throws InterruptedException {
+	public Map<String, String> runAlgorithm(String algorithmName) throws InterruptedException {
 		UnificationAlgorithm algorithm = UnificationAlgorithmFactory.instantiateAlgorithm(algorithmName, goal);
 		int numberOfUnifiers = 0;
 		long startTime = System.nanoTime();
@@ -222,10 +277,15 @@ public class CNFChecker {
 		}
 
 		long endTime = System.nanoTime();
-		System.out.println("first: " + (firstTime - startTime));
-		System.out.println("all: " + (endTime - startTime));
-		System.out.println("unifiers: " + numberOfUnifiers);
-		printInfo(algorithm);
+		Map<String, String> results = new LinkedHashMap<>();
+		results.put(keyFirst, "" + (firstTime - startTime));
+		results.put(keyAll, "" + (endTime - startTime));
+		results.put(keyUnifiers, "" + numberOfUnifiers);
+		for (Entry<String, String> info : algorithm.getInfo()) {
+			results.put(info.getKey(), info.getValue());
+		}
+		printInfo(results);
+		return results;
 	}
 
 	private static <T> Set<T> set(T a, T b) {